@@ -0,0 +1,172 @@
+package com.todoapp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounds how many frames each session may have queued on the client outbound channel, so a slow
+ * consumer backs up only its own frames instead of the shared outbound executor.
+ *
+ * Snapshot-style destinations (statistics, profile) are superseded: a queued frame is skipped when
+ * a newer frame for the same destination is queued behind it. Once a session has
+ * max-pending-per-session frames queued, further MESSAGE frames are dropped; a dropped task delta
+ * shows up as a version gap and the client resyncs. Stuck sessions are closed by the transport's
+ * send-time and buffer limits (see WebSocketConfig).
+ */
+@Component
+public class OutboundBackpressureInterceptor implements ExecutorChannelInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboundBackpressureInterceptor.class);
+
+    private static final String SUPERSEDE_SEQ_HEADER = "outboundSupersedeSeq";
+
+    private final int maxPendingPerSession;
+    private final List<String> supersedeDestinations;
+
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong superseded = new AtomicLong();
+    private final AtomicInteger maxObservedDepth = new AtomicInteger();
+
+    public OutboundBackpressureInterceptor(
+            @Value("${app.websocket.outbound.max-pending-per-session:200}") int maxPendingPerSession,
+            @Value("${app.websocket.outbound.supersede-destinations:/queue/statistics,/queue/profile}") List<String> supersedeDestinations) {
+        this.maxPendingPerSession = maxPendingPerSession;
+        this.supersedeDestinations = supersedeDestinations;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return message;
+        }
+
+        SessionQueue queue = sessions.computeIfAbsent(sessionId, id -> new SessionQueue());
+        int depth = queue.depth.incrementAndGet();
+        if (depth > maxPendingPerSession) {
+            queue.depth.decrementAndGet();
+            if (dropped.incrementAndGet() % 100 == 1) {
+                logger.warn("Outbound queue for session {} is full ({} frames); dropping frames", sessionId, depth - 1);
+            }
+            return null;
+        }
+        maxObservedDepth.accumulateAndGet(depth, Math::max);
+
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (isSupersedable(destination)) {
+            long seq = queue.nextSeq.incrementAndGet();
+            queue.latestByDestination.put(destination, seq);
+            return MessageBuilder.fromMessage(message).setHeader(SUPERSEDE_SEQ_HEADER, seq).build();
+        }
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // The frame never reached the executor, so afterMessageHandled will not run for it
+        if (ex != null) {
+            release(message);
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        Long seq = (Long) message.getHeaders().get(SUPERSEDE_SEQ_HEADER);
+        if (seq == null) {
+            return message;
+        }
+        SessionQueue queue = sessions.get(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (queue != null && seq < queue.latestByDestination.getOrDefault(destination, seq)) {
+            superseded.incrementAndGet();
+            // Returning null skips the handler and afterMessageHandled for this interceptor
+            release(message);
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler, Exception ex) {
+        release(message);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
+    }
+
+    private void release(Message<?> message) {
+        String sessionId = trackedSessionId(message);
+        if (sessionId == null) {
+            return;
+        }
+        SessionQueue queue = sessions.get(sessionId);
+        if (queue != null) {
+            queue.depth.decrementAndGet();
+        }
+    }
+
+    private String trackedSessionId(Message<?> message) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return null;
+        }
+        return SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+    }
+
+    private boolean isSupersedable(String destination) {
+        if (destination == null) {
+            return false;
+        }
+        // User destinations arrive resolved per session, e.g. /queue/statistics-user{sessionId}
+        for (String prefix : supersedeDestinations) {
+            if (destination.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Object> getStats() {
+        int pending = 0;
+        int deepest = 0;
+        for (SessionQueue queue : sessions.values()) {
+            int depth = queue.depth.get();
+            pending += depth;
+            deepest = Math.max(deepest, depth);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("maxPendingPerSession", maxPendingPerSession);
+        stats.put("pendingFrames", pending);
+        stats.put("deepestSessionQueue", deepest);
+        stats.put("maxObservedDepth", maxObservedDepth.get());
+        stats.put("droppedFrames", dropped.get());
+        stats.put("supersededFrames", superseded.get());
+        return stats;
+    }
+
+    private static final class SessionQueue {
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicLong nextSeq = new AtomicLong();
+        private final Map<String, Long> latestByDestination = new ConcurrentHashMap<>();
+    }
+}
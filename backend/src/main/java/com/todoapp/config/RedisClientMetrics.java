@@ -0,0 +1,106 @@
+package com.todoapp.config;
+
+import io.lettuce.core.metrics.CommandLatencyRecorder;
+import io.lettuce.core.protocol.ProtocolKeyword;
+import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.springframework.stereotype.Component;
+
+import java.net.SocketAddress;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Redis client metrics for /health/redis/client: connection pool usage when the Jedis pool is in
+ * use, per-command latency when Lettuce is (Lettuce reports every command's latency here).
+ *
+ * Latencies go into power-of-two microsecond buckets, so percentiles are upper bounds within 2x.
+ */
+@Component
+public class RedisClientMetrics implements CommandLatencyRecorder {
+
+    private static final int BUCKETS = 40;
+
+    private final Map<String, CommandStats> commands = new ConcurrentHashMap<>();
+    private volatile String client = "jedis";
+    private volatile GenericObjectPool<?> pool;
+
+    void setClient(String client) {
+        this.client = client;
+    }
+
+    void setPool(GenericObjectPool<?> pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public void recordCommandLatency(SocketAddress local, SocketAddress remote, ProtocolKeyword commandType,
+                                     long firstResponseLatency, long completionLatency) {
+        commands.computeIfAbsent(commandType.toString(), type -> new CommandStats()).record(completionLatency);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("client", client);
+
+        GenericObjectPool<?> currentPool = pool;
+        if (currentPool != null) {
+            Map<String, Object> poolStats = new HashMap<>();
+            poolStats.put("maxTotal", currentPool.getMaxTotal());
+            poolStats.put("active", currentPool.getNumActive());
+            poolStats.put("idle", currentPool.getNumIdle());
+            poolStats.put("waiters", currentPool.getNumWaiters());
+            poolStats.put("borrowed", currentPool.getBorrowedCount());
+            poolStats.put("meanBorrowWaitMs", currentPool.getMeanBorrowWaitDuration().toMillis());
+            poolStats.put("maxBorrowWaitMs", currentPool.getMaxBorrowWaitDuration().toMillis());
+            stats.put("pool", poolStats);
+        }
+
+        Map<String, Object> commandStats = new TreeMap<>();
+        commands.forEach((type, command) -> commandStats.put(type, command.snapshot()));
+        stats.put("commands", commandStats);
+        return stats;
+    }
+
+    static final class CommandStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            long micros = Math.max(nanos / 1_000, 1);
+            buckets.incrementAndGet(Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1));
+        }
+
+        Map<String, Object> snapshot() {
+            long total = count.sum();
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("count", total);
+            snapshot.put("meanMicros", total > 0 ? totalNanos.sum() / total / 1_000 : 0);
+            snapshot.put("p50Micros", percentileMicros(total, 0.50));
+            snapshot.put("p99Micros", percentileMicros(total, 0.99));
+            snapshot.put("maxMicros", maxNanos.get() / 1_000);
+            return snapshot;
+        }
+
+        long percentileMicros(long total, double percentile) {
+            long threshold = (long) Math.ceil(total * percentile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets.get(i);
+                if (seen >= threshold && seen > 0) {
+                    return 1L << (i + 1);
+                }
+            }
+            return 0;
+        }
+    }
+}
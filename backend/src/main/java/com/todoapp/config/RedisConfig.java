@@ -1,11 +1,23 @@
 package com.todoapp.config;
 
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.RedisConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConfiguration;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
@@ -13,10 +25,19 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.util.Pool;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 @Configuration
 public class RedisConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisConfig.class);
+
     @Value("${spring.data.redis.host}")
     private String redisHost;
 
@@ -29,8 +50,97 @@ public class RedisConfig {
     @Value("${spring.data.redis.database}")
     private int database;
 
+    /**
+     * jedis:   a pool of connections, each used by one thread at a time; concurrent operations
+     *          beyond max-active wait for a free connection.
+     * lettuce: one shared, multiplexed connection; commands from all threads are pipelined onto
+     *          it as they are issued, so there is no pool to queue on.
+     */
+    @Value("${app.redis.client:jedis}")
+    private String client;
+
+    @Value("${app.redis.mode:standalone}")
+    private String mode;
+
+    @Value("${spring.data.redis.sentinel.master:mymaster}")
+    private String sentinelMaster;
+
+    // Comma-separated host:port lists
+    @Value("${spring.data.redis.sentinel.nodes:}")
+    private String sentinelNodes;
+
+    @Value("${spring.data.redis.sentinel.password:}")
+    private String sentinelPassword;
+
+    @Value("${spring.data.redis.cluster.nodes:}")
+    private String clusterNodes;
+
+    @Value("${spring.data.redis.cluster.max-redirects:3}")
+    private int clusterMaxRedirects;
+
+    @Value("${app.redis.pubsub.sharded:false}")
+    private boolean shardedPubSub;
+
+    @Value("${spring.data.redis.timeout:2000ms}")
+    private Duration timeout;
+
+    @Value("${spring.data.redis.jedis.pool.max-active:8}")
+    private int poolMaxActive;
+
+    @Value("${spring.data.redis.jedis.pool.max-idle:8}")
+    private int poolMaxIdle;
+
+    @Value("${spring.data.redis.jedis.pool.min-idle:0}")
+    private int poolMinIdle;
+
+    @Value("${spring.data.redis.jedis.pool.max-wait:-1ms}")
+    private Duration poolMaxWait;
+
+    // Commands of an executePipelined callback are flushed to the socket in chunks of this size
+    @Value("${app.redis.lettuce.pipeline-flush-buffer:256}")
+    private int pipelineFlushBuffer;
+
+    private final RedisClientMetrics redisClientMetrics;
+    private ClientResources lettuceResources;
+
+    public RedisConfig(RedisClientMetrics redisClientMetrics) {
+        this.redisClientMetrics = redisClientMetrics;
+    }
+
     @Bean
-    public JedisConnectionFactory jedisConnectionFactory() {
+    public RedisConnectionFactory redisConnectionFactory() {
+        Topology topology = Topology.parse(mode);
+        boolean lettuce = "lettuce".equalsIgnoreCase(client.trim());
+        if (topology == Topology.CLUSTER && !lettuce) {
+            // Spring's Jedis cluster connection rejects pipelines, which presence, publishing and
+            // the outbox relay depend on
+            throw new IllegalStateException("app.redis.mode=cluster requires app.redis.client=lettuce");
+        }
+        if (shardedPubSub && topology != Topology.CLUSTER) {
+            throw new IllegalStateException("app.redis.pubsub.sharded=true requires app.redis.mode=cluster");
+        }
+
+        RedisConfiguration configuration;
+        switch (topology) {
+            case SENTINEL:
+                configuration = sentinelConfiguration();
+                break;
+            case CLUSTER:
+                configuration = clusterConfiguration();
+                break;
+            default:
+                configuration = standaloneConfiguration();
+        }
+
+        redisClientMetrics.setClient(client.trim().toLowerCase());
+        logger.info("Connecting to Redis in {} mode with {}", topology.name().toLowerCase(), lettuce ? "lettuce" : "jedis");
+        if (lettuce) {
+            return lettuceConnectionFactory(configuration);
+        }
+        return jedisConnectionFactory(configuration);
+    }
+
+    private RedisStandaloneConfiguration standaloneConfiguration() {
         RedisStandaloneConfiguration redisStandaloneConfiguration = new RedisStandaloneConfiguration();
         redisStandaloneConfiguration.setHostName(redisHost);
         redisStandaloneConfiguration.setPort(redisPort);
@@ -39,12 +149,123 @@ public class RedisConfig {
         if (redisPassword != null && !redisPassword.isEmpty()) {
             redisStandaloneConfiguration.setPassword(redisPassword);
         }
-        
-        return new JedisConnectionFactory(redisStandaloneConfiguration);
-    }    @Bean
+        return redisStandaloneConfiguration;
+    }
+
+    private RedisSentinelConfiguration sentinelConfiguration() {
+        RedisSentinelConfiguration sentinel = new RedisSentinelConfiguration(sentinelMaster, nodes(sentinelNodes, "spring.data.redis.sentinel.nodes"));
+        sentinel.setDatabase(database);
+        if (redisPassword != null && !redisPassword.isEmpty()) {
+            sentinel.setPassword(redisPassword);
+        }
+        if (sentinelPassword != null && !sentinelPassword.isEmpty()) {
+            sentinel.setSentinelPassword(sentinelPassword);
+        }
+        return sentinel;
+    }
+
+    private RedisClusterConfiguration clusterConfiguration() {
+        // Cluster has only database 0; per-user keys are hash-tagged so they stay on one shard
+        RedisClusterConfiguration cluster = new RedisClusterConfiguration(nodes(clusterNodes, "spring.data.redis.cluster.nodes"));
+        cluster.setMaxRedirects(clusterMaxRedirects);
+        if (redisPassword != null && !redisPassword.isEmpty()) {
+            cluster.setPassword(redisPassword);
+        }
+        return cluster;
+    }
+
+    private static Set<String> nodes(String list, String property) {
+        Set<String> nodes = new LinkedHashSet<>();
+        for (String node : list.split(",")) {
+            if (!node.isBlank()) {
+                nodes.add(node.trim());
+            }
+        }
+        if (nodes.isEmpty()) {
+            throw new IllegalStateException(property + " must list at least one host:port");
+        }
+        return nodes;
+    }
+
+    private JedisConnectionFactory jedisConnectionFactory(RedisConfiguration configuration) {
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(poolMaxActive);
+        poolConfig.setMaxIdle(poolMaxIdle);
+        poolConfig.setMinIdle(poolMinIdle);
+        poolConfig.setMaxWait(poolMaxWait);
+
+        JedisClientConfiguration clientConfiguration = JedisClientConfiguration.builder()
+                .connectTimeout(timeout)
+                .readTimeout(timeout)
+                .usePooling()
+                .poolConfig(poolConfig)
+                .build();
+
+        if (configuration instanceof RedisSentinelConfiguration sentinel) {
+            return new JedisConnectionFactory(sentinel, clientConfiguration) {
+                @Override
+                protected Pool<Jedis> createRedisSentinelPool(RedisSentinelConfiguration config) {
+                    Pool<Jedis> pool = super.createRedisSentinelPool(config);
+                    redisClientMetrics.setPool(pool);
+                    return pool;
+                }
+            };
+        }
+        return new JedisConnectionFactory((RedisStandaloneConfiguration) configuration, clientConfiguration) {
+            @Override
+            protected Pool<Jedis> createRedisPool() {
+                Pool<Jedis> pool = super.createRedisPool();
+                redisClientMetrics.setPool(pool);
+                return pool;
+            }
+        };
+    }
+
+    private LettuceConnectionFactory lettuceConnectionFactory(RedisConfiguration configuration) {
+        lettuceResources = DefaultClientResources.builder()
+                .commandLatencyRecorder(redisClientMetrics)
+                .build();
+
+        LettuceClientConfiguration clientConfiguration = LettuceClientConfiguration.builder()
+                .clientResources(lettuceResources)
+                .commandTimeout(timeout)
+                .build();
+
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(configuration, clientConfiguration);
+        // Blocking and transactional commands still get a dedicated connection
+        factory.setShareNativeConnection(true);
+        factory.setPipeliningFlushPolicy(LettuceConnection.PipeliningFlushPolicy.buffered(pipelineFlushBuffer));
+        return factory;
+    }
+
+    @PreDestroy
+    public void shutdownClientResources() {
+        if (lettuceResources != null) {
+            lettuceResources.shutdown();
+        }
+    }
+
+    /**
+     * standalone: one Redis server (spring.data.redis.host/port).
+     * sentinel:   a master found through Sentinel and followed across failovers.
+     * cluster:    Redis Cluster; keys are spread over the shards by hash slot.
+     */
+    enum Topology {
+        STANDALONE, SENTINEL, CLUSTER;
+
+        static Topology parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unknown app.redis.mode '" + value + "', expected standalone, sentinel or cluster");
+            }
+        }
+    }
+
+    @Bean
     public RedisTemplate<String, Object> redisTemplate() {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(jedisConnectionFactory());
+        template.setConnectionFactory(redisConnectionFactory());
         
         // Use StringRedisSerializer for both keys and values for pub/sub messages
         // This prevents double serialization issues with manual JSON conversion
@@ -61,7 +282,7 @@ public class RedisConfig {
     @Bean
     public RedisTemplate<String, Object> redisTemplateForCaching() {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(jedisConnectionFactory());
+        template.setConnectionFactory(redisConnectionFactory());
         
         // Use Jackson2JsonRedisSerializer for caching operations
         ObjectMapper objectMapper = new ObjectMapper();
@@ -80,7 +301,7 @@ public class RedisConfig {
     @Bean
     public RedisMessageListenerContainer redisMessageListenerContainer() {
         RedisMessageListenerContainer container = new RedisMessageListenerContainer();
-        container.setConnectionFactory(jedisConnectionFactory());
+        container.setConnectionFactory(redisConnectionFactory());
         return container;
     }
 }
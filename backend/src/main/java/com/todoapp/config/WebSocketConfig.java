@@ -1,26 +1,105 @@
 package com.todoapp.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
+    /**
+     * redis: in-memory broker per node; events fan out through Redis and each node delivers to
+     *        the sessions it holds.
+     * relay: STOMP broker relay to an external broker (RabbitMQ/ActiveMQ with STOMP enabled),
+     *        which also shares user session information between nodes.
+     */
+    public enum BrokerMode {
+        REDIS,
+        RELAY;
+
+        public static BrokerMode parse(String value) {
+            return valueOf(value.trim().toUpperCase());
+        }
+    }
+
     private final WebSocketAuthInterceptor webSocketAuthInterceptor;
+    private final OutboundBackpressureInterceptor outboundBackpressureInterceptor;
+    private final BrokerMode brokerMode;
+    private final String relayHost;
+    private final int relayPort;
+    private final String relayLogin;
+    private final String relayPasscode;
+    private final String relayVirtualHost;
+
+    @Value("${app.websocket.transport.send-time-limit:10s}")
+    private Duration sendTimeLimit;
+
+    @Value("${app.websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${app.websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${app.websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
 
-    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor) {
+    @Value("${app.websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${app.websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    public WebSocketConfig(WebSocketAuthInterceptor webSocketAuthInterceptor,
+                           OutboundBackpressureInterceptor outboundBackpressureInterceptor,
+                           @Value("${app.websocket.broker.mode:redis}") String brokerMode,
+                           @Value("${app.websocket.broker.relay.host:localhost}") String relayHost,
+                           @Value("${app.websocket.broker.relay.port:61613}") int relayPort,
+                           @Value("${app.websocket.broker.relay.login:guest}") String relayLogin,
+                           @Value("${app.websocket.broker.relay.passcode:guest}") String relayPasscode,
+                           @Value("${app.websocket.broker.relay.virtual-host:}") String relayVirtualHost) {
         this.webSocketAuthInterceptor = webSocketAuthInterceptor;
+        this.outboundBackpressureInterceptor = outboundBackpressureInterceptor;
+        this.brokerMode = BrokerMode.parse(brokerMode);
+        this.relayHost = relayHost;
+        this.relayPort = relayPort;
+        this.relayLogin = relayLogin;
+        this.relayPasscode = relayPasscode;
+        this.relayVirtualHost = relayVirtualHost;
     }
 
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable a simple memory-based message broker to carry messages back to the client
-        config.enableSimpleBroker("/topic", "/queue");
+        if (brokerMode == BrokerMode.RELAY) {
+            logger.info("Using STOMP broker relay at {}:{}", relayHost, relayPort);
+            var relay = config.enableStompBrokerRelay("/topic", "/queue")
+                    .setRelayHost(relayHost)
+                    .setRelayPort(relayPort)
+                    .setClientLogin(relayLogin)
+                    .setClientPasscode(relayPasscode)
+                    .setSystemLogin(relayLogin)
+                    .setSystemPasscode(relayPasscode)
+                    // Let nodes resolve /user destinations for sessions connected elsewhere
+                    .setUserDestinationBroadcast("/topic/unresolved-user")
+                    .setUserRegistryBroadcast("/topic/simp-user-registry");
+            if (!relayVirtualHost.isBlank()) {
+                relay.setVirtualHost(relayVirtualHost);
+            }
+        } else {
+            // Enable a simple memory-based message broker to carry messages back to the client
+            config.enableSimpleBroker("/topic", "/queue");
+        }
         // Set prefix for messages bound for @MessageMapping-annotated methods
         config.setApplicationDestinationPrefixes("/app");
         // Set prefix for user-specific destinations
@@ -33,6 +112,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Handle each session's frames in order, so a request sent after a SUBSCRIBE finds the
+        // subscription registered (see WebSocketController#replayMissedEvents)
+        registry.setPreserveReceiveOrder(true);
     }
 
     @Override
@@ -40,4 +122,22 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         // Register the authentication interceptor
         registration.interceptors(webSocketAuthInterceptor);
     }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registry) {
+        // A session whose send blocks longer than the time limit, or whose buffered frames exceed
+        // the buffer limit, is closed instead of holding an outbound thread
+        registry.setSendTimeLimit((int) sendTimeLimit.toMillis())
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundCorePoolSize)
+                .maxPoolSize(outboundMaxPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        registration.interceptors(outboundBackpressureInterceptor);
+    }
 }
@@ -1,19 +1,86 @@
 package com.todoapp.controller;
 
+import com.todoapp.config.OutboundBackpressureInterceptor;
+import com.todoapp.config.RedisClientMetrics;
+import com.todoapp.dto.RetentionRunReport;
+import com.todoapp.model.JobRun;
+import com.todoapp.service.ConversationRetentionService;
+import com.todoapp.service.JobScheduler;
+import com.todoapp.service.PresenceService;
+import com.todoapp.service.RedisCircuitBreaker;
+import com.todoapp.service.RedisPublisher;
+import com.todoapp.service.ShardedChannelSubscriber;
+import com.todoapp.service.TaskChangeStreamListener;
+import com.todoapp.service.TaskListRefresher;
+import com.todoapp.service.TaskSearchIndex;
+import com.todoapp.service.TaskStatisticsService;
+import com.todoapp.service.TaskOutboxRelay;
+import com.todoapp.service.UserEventCoalescer;
+import com.todoapp.service.WebSocketSessionRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 public class HealthController {
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplate;    @GetMapping("/health")
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private ConversationRetentionService conversationRetentionService;
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    private WebSocketSessionRegistry webSocketSessionRegistry;
+
+    @Autowired
+    private UserEventCoalescer userEventCoalescer;
+
+    @Autowired
+    private OutboundBackpressureInterceptor outboundBackpressureInterceptor;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private TaskOutboxRelay taskOutboxRelay;
+
+    @Autowired
+    private RedisPublisher redisPublisher;
+
+    @Autowired
+    private RedisClientMetrics redisClientMetrics;
+
+    @Autowired
+    private TaskChangeStreamListener taskChangeStreamListener;
+
+    @Autowired
+    private ShardedChannelSubscriber shardedChannelSubscriber;
+
+    @Autowired
+    private RedisCircuitBreaker redisCircuitBreaker;
+
+    @Autowired
+    private TaskListRefresher taskListRefresher;
+
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @GetMapping("/health")
     public ResponseEntity<Map<String, String>> health() {
         Map<String, String> status = new HashMap<>();
         status.put("status", "UP");
@@ -50,4 +117,73 @@ public class HealthController {
         }
         return ResponseEntity.ok(status);
     }
+
+    @GetMapping("/health/redis/breaker")
+    public ResponseEntity<Map<String, Object>> redisBreakerHealth() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("breaker", redisCircuitBreaker.getStats());
+        status.put("degraded", redisCircuitBreaker.isOpen());
+        status.put("fallback", redisPublisher.getFallbackStats());
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/health/tasks/cache")
+    public ResponseEntity<Map<String, Object>> taskCacheHealth() {
+        Map<String, Object> status = new HashMap<>(taskListRefresher.getStats());
+        status.put("searchIndex", taskSearchIndex.getStats());
+        status.put("statistics", taskStatisticsService.getStats());
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/health/redis/client")
+    public ResponseEntity<Map<String, Object>> redisClientHealth() {
+        return ResponseEntity.ok(redisClientMetrics.getStats());
+    }
+
+    @GetMapping("/health/retention")
+    public ResponseEntity<Map<String, Object>> retentionHealth() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("totalRuns", conversationRetentionService.getTotalRuns());
+        status.put("totalDeleted", conversationRetentionService.getTotalDeleted());
+        status.put("failedRuns", conversationRetentionService.getFailedRuns());
+        RetentionRunReport lastRun = conversationRetentionService.getLastRun();
+        if (lastRun != null) {
+            status.put("lastRun", lastRun);
+        }
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/health/jobs")
+    public ResponseEntity<Map<String, Object>> jobsHealth() {
+        return ResponseEntity.ok(jobScheduler.getJobStatus());
+    }
+
+    @GetMapping("/health/jobs/{jobName}/runs")
+    public ResponseEntity<List<JobRun>> jobRuns(@PathVariable String jobName,
+                                                @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(jobScheduler.getRecentRuns(jobName, Math.min(Math.max(limit, 1), 100)));
+    }
+
+    @GetMapping("/health/websocket")
+    public ResponseEntity<Map<String, Object>> webSocketHealth() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("localUsers", webSocketSessionRegistry.getLocalUserCount());
+        status.put("localSessions", webSocketSessionRegistry.getLocalSessionCount());
+        status.put("coalescing", userEventCoalescer.getStats());
+        status.put("outbound", outboundBackpressureInterceptor.getStats());
+        status.put("presence", presenceService.getStats());
+        status.put("publishing", redisPublisher.getPublishStats());
+        status.put("shardedSubscriptions", shardedChannelSubscriber.getStats());
+        return ResponseEntity.ok(status);
+    }
+
+    @GetMapping("/health/outbox")
+    public ResponseEntity<Map<String, Object>> outboxHealth() {
+        return ResponseEntity.ok(taskOutboxRelay.getStats());
+    }
+
+    @GetMapping("/health/change-stream")
+    public ResponseEntity<Map<String, Object>> changeStreamHealth() {
+        return ResponseEntity.ok(taskChangeStreamListener.getStats());
+    }
 }
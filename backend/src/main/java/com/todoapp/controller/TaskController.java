@@ -1,11 +1,25 @@
 package com.todoapp.controller;
 
+import com.todoapp.dto.TaskPatchRequest;
 import com.todoapp.dto.TaskRequest;
 import com.todoapp.dto.TaskResponse;
+import com.todoapp.dto.TaskResyncResponse;
+import com.todoapp.dto.TaskSearchResponse;
+import com.todoapp.dto.TaskSyncRequest;
+import com.todoapp.dto.TaskSyncResponse;
+import com.todoapp.exception.TaskVersionConflictException;
+import com.todoapp.model.TaskStatus;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.service.RedisPublisher;
+import com.todoapp.service.TaskChangesService;
+import com.todoapp.service.TaskSearchService;
+import com.todoapp.service.TaskStatisticsService;
 import com.todoapp.service.TaskService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -23,23 +37,85 @@ public class TaskController {
     @Autowired
     private TaskService taskService;
 
+    @Autowired
+    private TaskSearchService taskSearchService;
+
+    @Autowired
+    private TaskStatisticsService taskStatisticsService;
+
+    @Autowired
+    private TaskChangesService taskChangesService;
+
     @Autowired
     private UserRepository userRepository;
 
     @Autowired 
-    private com.todoapp.service.RedisPublisher redisPublisher;
+    private RedisPublisher redisPublisher;
 
+    // ETags are the user's task list version, which every task write bumps; a matching
+    // If-None-Match is answered with 304 from that version alone, without reading the list
     @GetMapping
-    public ResponseEntity<List<TaskResponse>> getAllTasks() {
+    public ResponseEntity<List<TaskResponse>> getAllTasks(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             String userId = getCurrentUserId();
-            List<TaskResponse> tasks = taskService.getAllTasksForUser(userId);
-            return ResponseEntity.ok(tasks);
+            Long listVersion = taskService.getTaskListVersion(userId);
+            if (listVersion != null && eTagMatches(ifNoneMatch, listVersion)) {
+                return notModified(listVersion);
+            }
+            // Tagged with the version the list was read at, which a stale list served while Mongo
+            // is slow predates, so the client asks again
+            RedisPublisher.CachedTasks tasks = taskService.getTaskList(userId, listVersion);
+            return withETag(ResponseEntity.ok(), tasks.getListVersion()).body(tasks.getTasks());
         } catch (Exception e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    // q: words, "quoted phrases" and prefixes (dent*); blank lists everything passing the filters
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTasks(@RequestParam(required = false) String q,
+                                         @RequestParam(required = false) TaskStatus status,
+                                         @RequestParam(required = false) String priority,
+                                         @RequestParam(defaultValue = "0") int page,
+                                         @RequestParam(defaultValue = "20") int size) {
+        try {
+            String userId = getCurrentUserId();
+            TaskSearchResponse results = taskSearchService.search(userId, q, status, priority, page, size);
+            return ResponseEntity.ok(results);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Delta sync: pass the cursor of the previous response; without one the client gets a full sync
+    @GetMapping("/changes")
+    public ResponseEntity<?> getTaskChanges(@RequestParam(required = false) String since,
+                                            @RequestParam(defaultValue = "200") int limit) {
+        try {
+            String userId = getCurrentUserId();
+            return ResponseEntity.ok(taskChangesService.getChanges(userId, since, limit));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<?> getTaskStatistics() {
+        try {
+            String userId = getCurrentUserId();
+            return ResponseEntity.ok(taskStatisticsService.getStatistics(userId));
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     @PostMapping
     public ResponseEntity<?> createTask(@Valid @RequestBody TaskRequest taskRequest) {
         try {
@@ -59,6 +135,30 @@ public class TaskController {
             String userId = getCurrentUserId();
             TaskResponse task = taskService.updateTask(id, taskRequest, userId);
             return ResponseEntity.ok(task);
+        } catch (TaskVersionConflictException e) {
+            Map<String, Object> conflict = new HashMap<>();
+            conflict.put("message", e.getMessage());
+            conflict.put("current", e.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    // Changes only the fields sent; refused with 409 and the current task if it moved past "version"
+    @PatchMapping("/{id}")
+    public ResponseEntity<?> patchTask(@PathVariable String id, @Valid @RequestBody TaskPatchRequest patchRequest) {
+        try {
+            String userId = getCurrentUserId();
+            TaskResponse task = taskService.patchTask(id, patchRequest, userId);
+            return ResponseEntity.ok(task);
+        } catch (TaskVersionConflictException e) {
+            Map<String, Object> conflict = new HashMap<>();
+            conflict.put("message", e.getMessage());
+            conflict.put("current", e.getCurrent());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(conflict);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -82,11 +182,16 @@ public class TaskController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getTask(@PathVariable String id) {
+    public ResponseEntity<?> getTask(@PathVariable String id,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             String userId = getCurrentUserId();
+            Long listVersion = taskService.getTaskListVersion(userId);
+            if (listVersion != null && eTagMatches(ifNoneMatch, listVersion)) {
+                return notModified(listVersion);
+            }
             TaskResponse task = taskService.getTaskById(id, userId);
-            return ResponseEntity.ok(task);
+            return withETag(ResponseEntity.ok(), listVersion).body(task);
         } catch (RuntimeException e) {
             Map<String, String> error = new HashMap<>();
             error.put("message", e.getMessage());
@@ -107,6 +212,33 @@ public class TaskController {
         }
     }
 
+    // Offline mutations in one request; each gets its own result, so conflicts do not fail the batch
+    @PostMapping("/sync")
+    public ResponseEntity<?> syncTasks(@Valid @RequestBody TaskSyncRequest syncRequest) {
+        try {
+            String userId = getCurrentUserId();
+            TaskSyncResponse sync = taskService.syncTasks(syncRequest, userId);
+            return ResponseEntity.ok(sync);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
+    @PostMapping("/resync")
+    public ResponseEntity<?> resyncTasks(@RequestBody Map<String, Long> knownVersions) {
+        try {
+            String userId = getCurrentUserId();
+            TaskResyncResponse resync = taskService.resyncTasks(userId, knownVersions);
+            return ResponseEntity.ok(resync);
+        } catch (RuntimeException e) {
+            Map<String, String> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.badRequest().body(error);
+        }
+    }
+
     // Test endpoint to verify Redis/WebSocket integration
     @PostMapping("/test-redis")
     public ResponseEntity<Map<String, String>> testRedisIntegration() {
@@ -135,6 +267,38 @@ public class TaskController {
         }
     }
 
+    private static <T> ResponseEntity<T> notModified(long listVersion) {
+        return withETag(ResponseEntity.status(HttpStatus.NOT_MODIFIED), listVersion).build();
+    }
+
+    // Clients may keep the response but must revalidate it before every use
+    private static ResponseEntity.BodyBuilder withETag(ResponseEntity.BodyBuilder response, Long listVersion) {
+        response.cacheControl(CacheControl.noCache().cachePrivate());
+        return listVersion != null ? response.eTag(eTag(listVersion)) : response;
+    }
+
+    private static String eTag(long listVersion) {
+        return "\"" + listVersion + "\"";
+    }
+
+    // If-None-Match may list several tags; weak ones match too, as proxies weaken tags when compressing
+    private static boolean eTagMatches(String ifNoneMatch, long listVersion) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String eTag = eTag(listVersion);
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if (candidate.equals(eTag) || candidate.equals("*")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private String getCurrentUserId() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         String email = authentication.getName();
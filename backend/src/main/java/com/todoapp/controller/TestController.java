@@ -77,31 +77,22 @@ public class TestController {
     }
 
     /**
-     * Test endpoint to broadcast to general topic (should reach all connected clients)
+     * Test endpoint to broadcast a system notification (should reach all connected clients).
+     * Task events are only delivered to their owner, so broadcasts go through /topic/notifications.
      */
     @PostMapping("/test-broadcast-message")
     public ResponseEntity<Map<String, Object>> broadcastTestMessage(@RequestBody Map<String, String> request) {
         try {
             String message = request.getOrDefault("message", "Test broadcast message");
 
-            // Create test task data
-            Map<String, Object> taskData = new HashMap<>();
-            taskData.put("id", "broadcast-" + System.currentTimeMillis());
-            taskData.put("title", "Broadcast Test Task");
-            taskData.put("description", message);
-            taskData.put("userId", "broadcast");
-            taskData.put("status", "TODO");
-            taskData.put("createdAt", System.currentTimeMillis());
-
-            // Publish Redis message that will be broadcast to /topic/tasks (all clients)
+            // Publish Redis message that will be broadcast to /topic/notifications (all clients)
             if (redisPublisher != null) {
-                redisPublisher.publishTaskUpdate("broadcast", (String) taskData.get("id"), "CREATE", taskData);
+                redisPublisher.publishSystemNotification(message, "INFO");
                 logger.debug("Published broadcast Redis message");
             }
 
             Map<String, Object> response = new HashMap<>();
             response.put("message", "Broadcast message published successfully");
-            response.put("taskData", taskData);
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -1,22 +1,40 @@
 package com.todoapp.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.todoapp.service.RedisPublisher;
+import com.todoapp.config.WebSocketConfig;
+import com.todoapp.service.RedisKeys;
+import com.todoapp.service.ShardedChannelSubscriber;
+import com.todoapp.service.UserEventCoalescer;
+import com.todoapp.service.UserEventLog;
+import com.todoapp.service.WebSocketSessionRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.redis.connection.Message;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.listener.ChannelTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Controller
 @CrossOrigin(origins = "${app.frontend.url:http://localhost:3000}")
@@ -24,6 +42,11 @@ public class WebSocketController implements MessageListener {
 
     private static final Logger logger = LoggerFactory.getLogger(WebSocketController.class);
 
+    private static final String TASK_QUEUE = "/queue/tasks";
+    private static final String LAST_EVENT_ID_HEADER = "last-event-id";
+    private static final String CLIENT_ID_HEADER = "client-id";
+    private static final byte[] RESYNC_REQUIRED = "{\"type\":\"RESYNC_REQUIRED\"}".getBytes(StandardCharsets.UTF_8);
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
@@ -33,103 +56,220 @@ public class WebSocketController implements MessageListener {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Autowired
+    private UserEventCoalescer eventCoalescer;
+
+    @Autowired
+    private UserEventLog userEventLog;
+
+    @Autowired
+    private ShardedChannelSubscriber shardedChannelSubscriber;
+
+    @Value("${app.redis.pubsub.sharded:false}")
+    private boolean shardedPubSub;
+
+    @Value("${app.websocket.broker.mode:redis}")
+    private String brokerMode;
+
+    private boolean relayMode;
+
+    // Replays requested at CONNECT, run when the session asks for them after subscribing
+    private final Map<String, PendingReplay> pendingReplays = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init() {
-        // Subscribe to Redis channels
-        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic("task_updates"));
-        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic("user_updates"));
-        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic("system_notifications"));
-    }    @Override
+        relayMode = WebSocketConfig.BrokerMode.parse(brokerMode) == WebSocketConfig.BrokerMode.RELAY;
+
+        if (!relayMode) {
+            // With a relay the publishing node sends broadcasts to the broker itself (see RedisPublisher)
+            redisMessageListenerContainer.addMessageListener(this, new ChannelTopic("system_notifications"));
+        }
+
+        // Per-user channels are subscribed only while this node holds a session for the user, so a
+        // node receives just the events it can deliver
+        sessionRegistry.addListener(new WebSocketSessionRegistry.Listener() {
+            @Override
+            public void onFirstSession(String userId) {
+                if (shardedPubSub) {
+                    shardedChannelSubscriber.subscribe(RedisKeys.userChannel(userId), WebSocketController.this);
+                } else {
+                    redisMessageListenerContainer.addMessageListener(WebSocketController.this, userTopic(userId));
+                }
+                logger.debug("Subscribed to Redis channel for user {}", userId);
+            }
+
+            @Override
+            public void onLastSessionClosed(String userId) {
+                if (shardedPubSub) {
+                    shardedChannelSubscriber.unsubscribe(RedisKeys.userChannel(userId));
+                } else {
+                    redisMessageListenerContainer.removeMessageListener(WebSocketController.this, userTopic(userId));
+                }
+                logger.debug("Unsubscribed from Redis channel for user {}", userId);
+            }
+        });
+    }
+
+    /**
+     * Relays a Redis event to STOMP sessions without re-encoding it. Only the top-level "type" field
+     * is read, with a streaming parser; the published JSON bytes become the STOMP frame body as-is.
+     */
+    @Override
     public void onMessage(Message message, byte[] pattern) {
         try {
-            String channel = new String(pattern);
-            String messageBody = new String(message.getBody());
-            
-            logger.debug("WebSocket received Redis message on channel: {}", channel);
-            logger.debug("Message body: {}", messageBody);
-            
-            // Parse the Redis message
-            Map<String, Object> messageData = objectMapper.readValue(messageBody, Map.class);
-            
-            // Route message based on channel and content
-            routeMessage(channel, messageData);
-            
+            String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+            byte[] body = message.getBody();
+            String userId = RedisKeys.userIdOfChannel(channel);
+
+            if ("system_notifications".equals(channel)) {
+                // Broadcast system notifications to all connected users
+                messagingTemplate.send("/topic/notifications", UserEventCoalescer.jsonMessage(body));
+            } else if (userId != null) {
+                handleUserSpecificUpdate(userId, body);
+            }
         } catch (Exception e) {
             logger.error("Error processing Redis message: {}", e.getMessage(), e);
         }
     }
 
-    private void routeMessage(String channel, Map<String, Object> messageData) {
-        switch (channel) {
-            case "task_updates":
-                handleTaskUpdate(messageData);
-                break;
-            case "user_updates":
-                handleUserUpdate(messageData);
-                break;
-            case "system_notifications":
-                handleSystemNotification(messageData);
-                break;
-            default:
-                // Handle user-specific channels
-                if (channel.startsWith("user_")) {
-                    handleUserSpecificUpdate(channel, messageData);
-                }
-                break;
+    private void handleUserSpecificUpdate(String userId, byte[] body) throws IOException {
+        // The subscription can briefly outlive the last session; nothing to deliver then
+        if (!sessionRegistry.hasLocalSessions(userId)) {
+            return;
         }
-    }    private void handleTaskUpdate(Map<String, Object> messageData) {
-        String userId = (String) messageData.get("userId");
-        
-        logger.debug("Sending task update to user: {}", userId);
-        logger.debug("Task data: {}", messageData);
-        
-        // Send to specific user
+
+        String type = readEventType(body);
+        String destination = destinationFor(type);
+        if (destination == null) {
+            logger.warn("Dropping user event with unknown type {} for user {}", type, userId);
+            return;
+        }
+
+        eventCoalescer.dispatch(userId, destination, body);
+    }
+
+    /**
+     * Resume handshake: a client reconnecting sends the id of the last event it saw in the
+     * {@code last-event-id} CONNECT header (or a {@code client-id} whose position was acked
+     * earlier). The missed events are replayed when the client sends {@code /app/events/replay}
+     * after subscribing to its queues.
+     */
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        Principal user = event.getUser();
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (user == null || accessor.getSessionId() == null || !userEventLog.isEnabled()) {
+            return;
+        }
+
+        String lastEventId = accessor.getFirstNativeHeader(LAST_EVENT_ID_HEADER);
+        String clientId = accessor.getFirstNativeHeader(CLIENT_ID_HEADER);
         try {
-            messagingTemplate.convertAndSendToUser(
-                userId, 
-                "/queue/tasks", 
-                messageData
-            );
-            logger.debug("Successfully sent to user {} at /user/{}/queue/tasks", userId, userId);
+            if ((lastEventId == null || lastEventId.isBlank()) && clientId != null) {
+                lastEventId = userEventLog.getPosition(user.getName(), clientId);
+            }
         } catch (Exception e) {
-            logger.error("Error sending to user {}: {}", userId, e.getMessage(), e);
+            logger.warn("Could not read event position for user {}: {}", user.getName(), e.getMessage());
         }
-        
-        // Also broadcast to general task topic for dashboard updates
+        if (lastEventId != null && !lastEventId.isBlank()) {
+            pendingReplays.put(accessor.getSessionId(), new PendingReplay(user.getName(), lastEventId));
+        }
+    }
+
+    /**
+     * Sent by the client once it has subscribed to its queues. The SessionSubscribeEvent fires
+     * before the broker registers a subscription, so a replay started there could be dispatched to
+     * a queue with no subscriber yet. Inbound frames of a session are handled in order (see
+     * WebSocketConfig), so by the time this request runs the client's subscriptions are in place.
+     */
+    @MessageMapping("/events/replay")
+    public void replayMissedEvents(SimpMessageHeaderAccessor headers) {
+        String sessionId = headers.getSessionId();
+        PendingReplay pending = sessionId != null ? pendingReplays.remove(sessionId) : null;
+        if (pending != null) {
+            replay(pending.userId, pending.lastEventId);
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        pendingReplays.remove(event.getSessionId());
+    }
+
+    /**
+     * Clients ack the last event they applied now and then, so a later CONNECT carrying only a
+     * client-id can resume from there.
+     */
+    @MessageMapping("/events/ack")
+    public void acknowledgeEvents(@Payload Map<String, String> ack, Principal principal) {
+        if (principal == null || ack.get("clientId") == null || !userEventLog.isEnabled()) {
+            return;
+        }
+        userEventLog.savePosition(principal.getName(), ack.get("clientId"), ack.get("lastEventId"));
+    }
+
+    void replay(String userId, String lastEventId) {
         try {
-            messagingTemplate.convertAndSend("/topic/tasks", messageData);
-            logger.debug("Successfully broadcast to /topic/tasks");
+            UserEventLog.Replay replay = userEventLog.readAfter(userId, lastEventId);
+            if (replay.isResyncRequired()) {
+                logger.debug("Events after {} are gone for user {}; asking client to resync", lastEventId, userId);
+                eventCoalescer.dispatch(userId, TASK_QUEUE, RESYNC_REQUIRED);
+                return;
+            }
+            for (String json : replay.getEvents()) {
+                byte[] body = json.getBytes(StandardCharsets.UTF_8);
+                String destination = destinationFor(readEventType(body));
+                if (destination != null) {
+                    eventCoalescer.dispatch(userId, destination, body);
+                }
+            }
+            logger.debug("Replayed {} events after {} for user {}", replay.getEvents().size(), lastEventId, userId);
         } catch (Exception e) {
-            logger.error("Error broadcasting to /topic/tasks: {}", e.getMessage(), e);
+            logger.error("Error replaying events for user {}: {}", userId, e.getMessage(), e);
+            eventCoalescer.dispatch(userId, TASK_QUEUE, RESYNC_REQUIRED);
         }
     }
 
-    private void handleUserUpdate(Map<String, Object> messageData) {
-        String userId = (String) messageData.get("userId");
-        
-        // Send to specific user
-        messagingTemplate.convertAndSendToUser(
-            userId, 
-            "/queue/profile", 
-            messageData
-        );
+    private String readEventType(byte[] body) throws IOException {
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            // RedisPublisher writes "type" first, so this usually stops at the first field
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("type".equals(field)) {
+                    return value == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
     }
 
-    private void handleSystemNotification(Map<String, Object> messageData) {
-        // Broadcast system notifications to all connected users
-        messagingTemplate.convertAndSend("/topic/notifications", messageData);
+    private String destinationFor(String type) {
+        if (type == null) {
+            return null;
+        }
+        switch (type) {
+            case "TASK_UPDATE":
+            case "BULK_TASK_UPDATE":
+                return TASK_QUEUE;
+            case "USER_UPDATE":
+                return "/queue/profile";
+            case "TASK_STATS":
+                return "/queue/statistics";
+            default:
+                return null;
+        }
     }
 
-    private void handleUserSpecificUpdate(String channel, Map<String, Object> messageData) {
-        // Extract user ID from channel name (user_123 -> 123)
-        String userId = channel.substring(5);
-        
-        // Send to specific user's queue
-        messagingTemplate.convertAndSendToUser(
-            userId, 
-            "/queue/updates", 
-            messageData
-        );
+    private ChannelTopic userTopic(String userId) {
+        return new ChannelTopic(RedisKeys.userChannel(userId));
     }
 
     // Method to send real-time task statistics
@@ -155,4 +295,14 @@ public class WebSocketController implements MessageListener {
             notification
         );
     }
+
+    private static final class PendingReplay {
+        private final String userId;
+        private final String lastEventId;
+
+        private PendingReplay(String userId, String lastEventId) {
+            this.userId = userId;
+            this.lastEventId = lastEventId;
+        }
+    }
 }
@@ -0,0 +1,73 @@
+package com.todoapp.dto;
+
+import java.time.LocalDateTime;
+
+public class RetentionRunReport {
+    public enum Outcome {
+        COMPLETED,
+        PARTIAL,
+        FAILED
+    }
+
+    private Outcome outcome;
+    private LocalDateTime startedAt;
+    private long durationMs;
+    private long deleted;
+    private int batches;
+    private String error;
+
+    public RetentionRunReport() {}
+
+    public RetentionRunReport(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    // Getters and Setters
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public void setOutcome(Outcome outcome) {
+        this.outcome = outcome;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public void setDurationMs(long durationMs) {
+        this.durationMs = durationMs;
+    }
+
+    public long getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(long deleted) {
+        this.deleted = deleted;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public void setBatches(int batches) {
+        this.batches = batches;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,72 @@
+package com.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Real-time payload for a changed task: id and new version plus only the fields that changed,
+ * serialized flat so clients can merge it over their copy of the task. A delete is sent as a
+ * tombstone ({@code deleted: true}) carrying the version the task would have had next.
+ *
+ * A client whose copy is not at {@code version - 1} has missed an event and should resync.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskChangeEvent {
+    private String id;
+    private Long version;
+    private Boolean deleted;
+    private final Map<String, Object> changes = new LinkedHashMap<>();
+
+    public TaskChangeEvent() {}
+
+    public TaskChangeEvent(String id, Long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public static TaskChangeEvent tombstone(String id, Long version) {
+        TaskChangeEvent event = new TaskChangeEvent(id, version);
+        event.setDeleted(true);
+        return event;
+    }
+
+    /**
+     * Records {@code field} as changed to {@code value}.
+     */
+    public void putChange(String field, Object value) {
+        changes.put(field, value);
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
+    @JsonAnyGetter
+    public Map<String, Object> getChanges() {
+        return changes;
+    }
+}
@@ -0,0 +1,69 @@
+package com.todoapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a user's task changes since a sync cursor: tasks created or updated, tombstones of
+ * deleted tasks, and the cursor to ask from next. {@code reset} marks the first page of a full
+ * sync: the client should drop any task that this and the following pages do not list.
+ */
+public class TaskChangesResponse {
+    private List<TaskResponse> changed = new ArrayList<>();
+    private List<TaskChangeEvent> deleted = new ArrayList<>();
+    private String cursor;
+    private boolean hasMore;
+    private boolean reset;
+
+    public TaskChangesResponse() {}
+
+    public TaskChangesResponse(List<TaskResponse> changed, List<TaskChangeEvent> deleted, String cursor,
+                               boolean hasMore, boolean reset) {
+        this.changed = changed;
+        this.deleted = deleted;
+        this.cursor = cursor;
+        this.hasMore = hasMore;
+        this.reset = reset;
+    }
+
+    // Getters and Setters
+    public List<TaskResponse> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<TaskResponse> changed) {
+        this.changed = changed;
+    }
+
+    public List<TaskChangeEvent> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<TaskChangeEvent> deleted) {
+        this.deleted = deleted;
+    }
+
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    public void setReset(boolean reset) {
+        this.reset = reset;
+    }
+}
@@ -0,0 +1,80 @@
+package com.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.todoapp.model.TaskStatus;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+
+/**
+ * Partial task update: only the fields that are set are changed. {@code version} is the version of
+ * the task the client edited; the update is refused if the task has changed since.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskPatchRequest {
+    @Size(min = 1, max = 100, message = "Title must be between 1 and 100 characters")
+    private String title;
+
+    @Size(max = 500, message = "Description must not exceed 500 characters")
+    private String description;
+
+    private TaskStatus status;
+    private LocalDateTime dueDate;
+    private String priority;
+
+    @NotNull(message = "Version is required")
+    @PositiveOrZero
+    private Long version;
+
+    public TaskPatchRequest() {}
+
+    // Getters and Setters
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getDueDate() {
+        return dueDate;
+    }
+
+    public void setDueDate(LocalDateTime dueDate) {
+        this.dueDate = dueDate;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -14,6 +14,7 @@ public class TaskResponse {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String priority;
+    private Long version;
 
     public TaskResponse() {}    public TaskResponse(Task task) {
         this.id = task.getId();
@@ -25,6 +26,7 @@ public class TaskResponse {
         this.createdAt = task.getCreatedAt();
         this.updatedAt = task.getUpdatedAt();
         this.priority = task.getPriority();
+        this.version = task.getVersion() != null ? task.getVersion() : 0L;
     }
 
     // Getters and Setters
@@ -99,4 +101,12 @@ public class TaskResponse {
     public void setPriority(String priority) {
         this.priority = priority;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,37 @@
+package com.todoapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Answer to a client resync: the tasks whose version differs from what the client holds (or that
+ * it does not know yet), and the ids it holds that no longer exist.
+ */
+public class TaskResyncResponse {
+    private List<TaskResponse> changed = new ArrayList<>();
+    private List<String> deleted = new ArrayList<>();
+
+    public TaskResyncResponse() {}
+
+    public TaskResyncResponse(List<TaskResponse> changed, List<String> deleted) {
+        this.changed = changed;
+        this.deleted = deleted;
+    }
+
+    // Getters and Setters
+    public List<TaskResponse> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<TaskResponse> changed) {
+        this.changed = changed;
+    }
+
+    public List<String> getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(List<String> deleted) {
+        this.deleted = deleted;
+    }
+}
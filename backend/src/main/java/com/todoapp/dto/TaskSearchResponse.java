@@ -0,0 +1,57 @@
+package com.todoapp.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of task search results, best match first. {@code hasMore} tells whether a next page
+ * exists, so clients can page without the total being counted.
+ */
+public class TaskSearchResponse {
+    private List<TaskResponse> results = new ArrayList<>();
+    private int page;
+    private int size;
+    private boolean hasMore;
+
+    public TaskSearchResponse() {}
+
+    public TaskSearchResponse(List<TaskResponse> results, int page, int size, boolean hasMore) {
+        this.results = results;
+        this.page = page;
+        this.size = size;
+        this.hasMore = hasMore;
+    }
+
+    // Getters and Setters
+    public List<TaskResponse> getResults() {
+        return results;
+    }
+
+    public void setResults(List<TaskResponse> results) {
+        this.results = results;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
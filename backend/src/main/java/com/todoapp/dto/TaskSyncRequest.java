@@ -0,0 +1,137 @@
+package com.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.todoapp.model.TaskStatus;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Mutations a client made offline, in the order it made them. Each is checked on its own and
+ * answered with its own result; a rejected mutation does not stop the others.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskSyncRequest {
+    public static final int MAX_MUTATIONS = 200;
+
+    @NotNull(message = "Mutations are required")
+    @Size(max = MAX_MUTATIONS, message = "At most " + MAX_MUTATIONS + " mutations per sync")
+    private List<@Valid Mutation> mutations = new ArrayList<>();
+
+    public TaskSyncRequest() {}
+
+    // Getters and Setters
+    public List<Mutation> getMutations() {
+        return mutations;
+    }
+
+    public void setMutations(List<Mutation> mutations) {
+        this.mutations = mutations;
+    }
+
+    public enum Operation { CREATE, UPDATE, DELETE }
+
+    /**
+     * One offline change. {@code clientId} identifies it in the results; for a CREATE it also
+     * names the new task, so a CREATE sent again is not applied twice, and later mutations in the
+     * same batch may use it as {@code taskId}. UPDATE and DELETE carry the {@code baseVersion} the
+     * client edited; when one task is changed several times in a batch, only the first is checked
+     * against it and the others build on that one.
+     */
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Mutation {
+        private String clientId;
+        private Operation op;
+        private String taskId;
+        private Long baseVersion;
+
+        // Fields to set: all of them for CREATE, only those given for UPDATE
+        @Size(min = 1, max = 100, message = "Title must be between 1 and 100 characters")
+        private String title;
+
+        @Size(max = 500, message = "Description must not exceed 500 characters")
+        private String description;
+
+        private TaskStatus status;
+        private LocalDateTime dueDate;
+        private String priority;
+
+        public Mutation() {}
+
+        // Getters and Setters
+        public String getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(String clientId) {
+            this.clientId = clientId;
+        }
+
+        public Operation getOp() {
+            return op;
+        }
+
+        public void setOp(Operation op) {
+            this.op = op;
+        }
+
+        public String getTaskId() {
+            return taskId;
+        }
+
+        public void setTaskId(String taskId) {
+            this.taskId = taskId;
+        }
+
+        public Long getBaseVersion() {
+            return baseVersion;
+        }
+
+        public void setBaseVersion(Long baseVersion) {
+            this.baseVersion = baseVersion;
+        }
+
+        public String getTitle() {
+            return title;
+        }
+
+        public void setTitle(String title) {
+            this.title = title;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public TaskStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(TaskStatus status) {
+            this.status = status;
+        }
+
+        public LocalDateTime getDueDate() {
+            return dueDate;
+        }
+
+        public void setDueDate(LocalDateTime dueDate) {
+            this.dueDate = dueDate;
+        }
+
+        public String getPriority() {
+            return priority;
+        }
+
+        public void setPriority(String priority) {
+            this.priority = priority;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.todoapp.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Results of a {@link TaskSyncRequest}, one per mutation and in the same order.
+ */
+public class TaskSyncResponse {
+    private List<Result> results = new ArrayList<>();
+
+    public TaskSyncResponse() {}
+
+    public TaskSyncResponse(List<Result> results) {
+        this.results = results;
+    }
+
+    // Getters and Setters
+    public List<Result> getResults() {
+        return results;
+    }
+
+    public void setResults(List<Result> results) {
+        this.results = results;
+    }
+
+    /**
+     * APPLIED: the mutation is stored. CONFLICT: the task changed since {@code baseVersion}; nothing
+     * was written. NOT_FOUND: the task does not exist (any more). REJECTED: the mutation was invalid,
+     * or not attempted after a failure, with the reason in {@code message}.
+     */
+    public enum Status { APPLIED, CONFLICT, NOT_FOUND, REJECTED }
+
+    /**
+     * How one mutation went, with the task as the server now has it (none once deleted).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Result {
+        private String clientId;
+        private Status status;
+        private TaskResponse task;
+        private String message;
+
+        public Result() {}
+
+        public Result(String clientId, Status status, TaskResponse task, String message) {
+            this.clientId = clientId;
+            this.status = status;
+            this.task = task;
+            this.message = message;
+        }
+
+        // Getters and Setters
+        public String getClientId() {
+            return clientId;
+        }
+
+        public void setClientId(String clientId) {
+            this.clientId = clientId;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public void setStatus(Status status) {
+            this.status = status;
+        }
+
+        public TaskResponse getTask() {
+            return task;
+        }
+
+        public void setTask(TaskResponse task) {
+            this.task = task;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
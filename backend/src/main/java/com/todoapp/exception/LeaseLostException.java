@@ -0,0 +1,11 @@
+package com.todoapp.exception;
+
+/**
+ * Thrown when a node notices it no longer holds the lease it was working under
+ */
+public class LeaseLostException extends RuntimeException {
+    
+    public LeaseLostException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.todoapp.exception;
+
+/**
+ * Thrown instead of calling Redis while the Redis circuit breaker is open
+ */
+public class RedisUnavailableException extends RuntimeException {
+
+    public RedisUnavailableException(String message) {
+        super(message);
+    }
+}
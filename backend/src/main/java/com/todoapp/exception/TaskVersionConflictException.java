@@ -0,0 +1,21 @@
+package com.todoapp.exception;
+
+import com.todoapp.dto.TaskResponse;
+
+/**
+ * Thrown when a conditional task update finds the task at another version than the client's,
+ * meaning someone else changed it first. Carries the task as it is now.
+ */
+public class TaskVersionConflictException extends RuntimeException {
+
+    private final TaskResponse current;
+
+    public TaskVersionConflictException(TaskResponse current) {
+        super("Task was changed by someone else");
+        this.current = current;
+    }
+
+    public TaskResponse getCurrent() {
+        return current;
+    }
+}
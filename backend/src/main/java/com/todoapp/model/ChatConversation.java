@@ -24,7 +24,9 @@ public class ChatConversation {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     
-    @Indexed(expireAfterSeconds = 604800) // 7 days = 604800 seconds
+    // Absolute deadline (last activity + retention), so the TTL fires at expiresAt itself.
+    // The index is reconciled with app.chat.retention.* by ConversationRetentionService.
+    @Indexed(expireAfterSeconds = 0)
     private LocalDateTime expiresAt;
     
     public ChatConversation() {
@@ -42,7 +44,6 @@ public class ChatConversation {
       public void addMessage(ChatMessage message) {
         this.messages.add(message);
         this.updatedAt = LocalDateTime.now();
-        this.expiresAt = LocalDateTime.now().plusDays(7); // Reset expiration
     }
     
     public void addMessage(String role, String content) {
@@ -0,0 +1,69 @@
+package com.todoapp.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A real-time event waiting to be published, stored inside the task it describes so that it is
+ * written in the same (single-document, hence atomic) update as the change itself.
+ */
+public class OutboxEvent {
+    // Not named "id": Spring Data would map that to _id, even in an embedded document
+    private String eventId;
+    private String action;
+    // Set on the events of one bulk operation, which are published together as one bulk event
+    private String batchId;
+    private Map<String, Object> data;
+    private LocalDateTime createdAt;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(String action, String batchId, Map<String, Object> data) {
+        this.eventId = UUID.randomUUID().toString();
+        this.action = action;
+        this.batchId = batchId;
+        this.data = data;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
+    public Map<String, Object> getData() {
+        return data;
+    }
+
+    public void setData(Map<String, Object> data) {
+        this.data = data;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -4,6 +4,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Document(collection = "tasks")
 public class Task {
@@ -19,6 +21,18 @@ public class Task {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private String priority;
+    // Bumped on every change; published with change events so clients can detect missed ones.
+    // Null on tasks written before versioning, which count as version 0.
+    private Long version;
+    // Events for this task not yet published; drained by TaskOutboxRelay
+    private List<OutboxEvent> pendingEvents;
+    // Deleted: a tombstone hidden from all repository reads, kept so delta syncs can report the
+    // deletion until the TTL index on deletedAt removes it
+    private Boolean deletePending;
+    private LocalDateTime deletedAt;
+    // The id a client gave the task when creating it offline; unique per user, so a create sent
+    // again by a sync is not stored twice
+    private String clientId;
 
     public Task() {
         this.createdAt = LocalDateTime.now();
@@ -115,4 +129,56 @@ public class Task {
     public void setPriority(String priority) {
         this.priority = priority;
     }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public long nextVersion() {
+        this.version = (version != null ? version : 0L) + 1;
+        return version;
+    }
+
+    public List<OutboxEvent> getPendingEvents() {
+        return pendingEvents;
+    }
+
+    public void setPendingEvents(List<OutboxEvent> pendingEvents) {
+        this.pendingEvents = pendingEvents;
+    }
+
+    public void addPendingEvent(OutboxEvent event) {
+        if (pendingEvents == null) {
+            pendingEvents = new ArrayList<>();
+        }
+        pendingEvents.add(event);
+    }
+
+    public Boolean getDeletePending() {
+        return deletePending;
+    }
+
+    public void setDeletePending(Boolean deletePending) {
+        this.deletePending = deletePending;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+
+    public String getClientId() {
+        return clientId;
+    }
+
+    public void setClientId(String clientId) {
+        this.clientId = clientId;
+    }
 }
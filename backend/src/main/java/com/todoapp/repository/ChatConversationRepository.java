@@ -21,9 +21,6 @@ public interface ChatConversationRepository extends MongoRepository<ChatConversa
     @Query("{'userId': ?0, 'expiresAt': {'$gte': ?1}}")
     List<ChatConversation> findActiveConversationsByUserId(String userId, LocalDateTime now);
     
-    @Query("{'expiresAt': {'$lt': ?0}}")
-    List<ChatConversation> findExpiredConversations(LocalDateTime now);
-    
     boolean existsByConversationId(String conversationId);
     
     void deleteByExpiresAtBefore(LocalDateTime expiredBefore);
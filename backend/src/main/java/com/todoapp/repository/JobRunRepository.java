@@ -0,0 +1,13 @@
+package com.todoapp.repository;
+
+import com.todoapp.model.JobRun;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface JobRunRepository extends MongoRepository<JobRun, String> {
+    List<JobRun> findByJobNameOrderByStartedAtDesc(String jobName, Pageable pageable);
+}
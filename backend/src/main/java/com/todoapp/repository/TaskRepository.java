@@ -3,6 +3,7 @@ package com.todoapp.repository;
 import com.todoapp.model.Task;
 import com.todoapp.model.TaskStatus;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,9 +11,19 @@ import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends MongoRepository<Task, String> {
+    // Tasks marked deletePending are already deleted as far as users are concerned; they only
+    // stay as tombstones for TaskChangesService
+    @Query("{ 'userId': ?0, 'deletePending': { $ne: true } }")
     List<Task> findByUserId(String userId);
+
+    @Query("{ 'userId': ?0, 'status': ?1, 'deletePending': { $ne: true } }")
     List<Task> findByUserIdAndStatus(String userId, TaskStatus status);
+
+    @Query("{ '_id': ?0, 'userId': ?1, 'deletePending': { $ne: true } }")
     Optional<Task> findByIdAndUserId(String id, String userId);
+
+    @Query("{ 'ticketNumber': ?0, 'userId': ?1, 'deletePending': { $ne: true } }")
     Optional<Task> findByTicketNumberAndUserId(Integer ticketNumber, String userId);
+
     void deleteByIdAndUserId(String id, String userId);
 }
@@ -12,6 +12,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 
@@ -30,6 +31,12 @@ public class ChatBotService {
     @Autowired
     private ChatConversationService chatConversationService;
 
+    @Autowired
+    private TaskSearchIndex taskSearchIndex;
+
+    @Autowired
+    private TaskSearchService taskSearchService;
+
     private final ObjectMapper objectMapper = new ObjectMapper();    public ChatResponse processMessage(ChatRequest request, String userId) {
         try {
             logger.debug("Processing message from user {}: {}", userId, request.getMessage());
@@ -234,29 +241,54 @@ public class ChatBotService {
 
     private ChatResponse handleListTasks(JsonNode responseJson, String userId, String conversationId) {
         try {
-            List<TaskResponse> tasks = taskService.getAllTasksForUser(userId);
-            
+            TaskQuery query = TaskQuery.fromListFilter(responseJson.get("listFilter"), LocalDate.now());
+            TaskSearchResponse page = taskSearchService.list(userId, query);
+            List<TaskResponse> tasks = page.getResults();
+
             if (tasks.isEmpty()) {
+                if (query.getPage() > 0) {
+                    return new ChatResponse("That's all of them, there are no more " + query.describe() + ".", conversationId);
+                }
+                if (query.isFiltered()) {
+                    return new ChatResponse("You don't have any " + query.describe() + ".", conversationId);
+                }
                 return new ChatResponse("You don't have any tasks yet. Would you like me to help you add some?", 
                                       conversationId);
             }
 
-            StringBuilder message = new StringBuilder("Here are your current tasks:\n\n");
-            for (int i = 0; i < tasks.size(); i++) {
-                TaskResponse task = tasks.get(i);
-                String ticketDisplay = task.getTicketNumber() != null ? "#" + task.getTicketNumber() + " " : "";
-                message.append(String.format("%d. %s%s (%s)\n", 
-                    i + 1, ticketDisplay, task.getTitle(), task.getStatus()));
-                
-                if (task.getDueDate() != null) {
-                    message.append(String.format("   Due: %s\n", task.getDueDate()));
-                }
-            }
-
-            return new ChatResponse(message.toString(), conversationId);
+            return new ChatResponse(renderTaskList(query, page), conversationId);
         } catch (Exception e) {
+            logger.error("Exception in handleListTasks: {}", e.getMessage(), e);
             return new ChatResponse("Sorry, I couldn't retrieve your tasks. Please try again.", conversationId);
         }
+    }
+
+    private String renderTaskList(TaskQuery query, TaskSearchResponse page) {
+        List<TaskResponse> tasks = page.getResults();
+        int first = query.getPage() * query.getLimit() + 1;
+        StringBuilder message = new StringBuilder(64 + tasks.size() * 64);
+        message.append(query.isFiltered() ? "Here are your " + query.describe() : "Here are your current tasks")
+                .append(":\n\n");
+        for (int i = 0; i < tasks.size(); i++) {
+            TaskResponse task = tasks.get(i);
+            message.append(first + i).append(". ");
+            if (task.getTicketNumber() != null) {
+                message.append('#').append(task.getTicketNumber()).append(' ');
+            }
+            message.append(task.getTitle()).append(" (").append(task.getStatus());
+            if (task.getPriority() != null) {
+                message.append(", ").append(task.getPriority());
+            }
+            message.append(")\n");
+            if (task.getDueDate() != null) {
+                message.append("   Due: ").append(task.getDueDate()).append('\n');
+            }
+        }
+        if (page.isHasMore()) {
+            message.append("\nThere are more. Ask for page ").append(query.getPage() + 2)
+                    .append(", or narrow the list by status, priority or due date.");
+        }
+        return message.toString();
     }    private ChatResponse handleTaskModification(String action, JsonNode responseJson, String userId, String conversationId) {
         try {
             // Extract information from the AI response
@@ -269,13 +301,6 @@ public class ChatBotService {
             String responseMessage = (responseMessageNode != null && !responseMessageNode.isNull()) ? 
                 responseMessageNode.asText() : "I'll help you with that task.";
             
-            // Get all user tasks to search through
-            List<TaskResponse> allTasks = taskService.getAllTasksForUser(userId);
-            
-            if (allTasks.isEmpty()) {
-                return new ChatResponse("You don't have any tasks to modify. Would you like to create a new task instead?", conversationId);
-            }
-            
             // Find the task to modify
             TaskResponse targetTask = null;
             String searchTerm = searchQuery != null ? searchQuery : taskTitle;
@@ -306,18 +331,18 @@ public class ChatBotService {
                     }
                 }
                 
-                // If not found by ticket number, search for task by title (case-insensitive partial match)
+                // If not found by ticket number, take the best title match
                 if (targetTask == null) {
-                    for (TaskResponse task : allTasks) {
-                        if (task.getTitle().toLowerCase().contains(searchTerm.toLowerCase())) {
-                            targetTask = task;
-                            break;
-                        }
-                    }
+                    targetTask = taskSearchIndex.findBestMatch(userId, searchTerm).orElse(null);
                 }
             }
             
             if (targetTask == null) {
+                List<TaskResponse> allTasks = taskService.getAllTasksForUser(userId);
+                if (allTasks.isEmpty()) {
+                    return new ChatResponse("You don't have any tasks to modify. Would you like to create a new task instead?", conversationId);
+                }
+
                 // If no specific task found, show available tasks
                 StringBuilder message = new StringBuilder();
                 message.append("I couldn't find a specific task to modify. Here are your current tasks:\n\n");
@@ -6,7 +6,6 @@ import com.todoapp.repository.ChatConversationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
@@ -20,6 +19,9 @@ public class ChatConversationService {
     
     @Autowired
     private ChatConversationRepository conversationRepository;
+
+    @Autowired
+    private ConversationRetentionPolicy retentionPolicy;
     
     /**
      * Get or create a conversation for a user
@@ -33,12 +35,13 @@ public class ChatConversationService {
         if (existing.isPresent()) {
             ChatConversation conversation = existing.get();
             // Extend expiration if conversation is accessed
-            conversation.setExpiresAt(LocalDateTime.now().plusDays(7));
+            conversation.setExpiresAt(retentionPolicy.expiresAtFrom(LocalDateTime.now()));
             return conversationRepository.save(conversation);
         }
         
         // Create new conversation
         ChatConversation conversation = new ChatConversation(userId, conversationId);
+        conversation.setExpiresAt(retentionPolicy.expiresAtFrom(LocalDateTime.now()));
         return conversationRepository.save(conversation);
     }
     
@@ -96,22 +99,4 @@ public class ChatConversationService {
     private String generateMainConversationId(String userId) {
         return "main_" + userId;
     }
-    
-    /**
-     * Clean up expired conversations (runs daily at 2 AM)
-     */
-    @Scheduled(cron = "0 0 2 * * ?")
-    public void cleanupExpiredConversations() {
-        try {
-            LocalDateTime now = LocalDateTime.now();
-            List<ChatConversation> expired = conversationRepository.findExpiredConversations(now);
-            
-            if (!expired.isEmpty()) {
-                conversationRepository.deleteAll(expired);
-                logger.info("Cleaned up {} expired conversations", expired.size());
-            }
-        } catch (Exception e) {
-            logger.error("Error during conversation cleanup: {}", e.getMessage(), e);
-        }
-    }
 }
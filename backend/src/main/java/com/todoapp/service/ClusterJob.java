@@ -0,0 +1,42 @@
+package com.todoapp.service;
+
+import java.time.Duration;
+
+/**
+ * A periodic background job that must run on exactly one node of the cluster per firing.
+ *
+ * Beans implementing this interface are picked up by {@link JobScheduler}. Exactly one of
+ * {@link #getCron()} or {@link #getInterval()} must be non-null.
+ */
+public interface ClusterJob {
+
+    String getName();
+
+    default String getCron() {
+        return null;
+    }
+
+    default Duration getInterval() {
+        return null;
+    }
+
+    /**
+     * Random delay added to every firing so replicas do not stampede Redis at the same instant.
+     */
+    default Duration getJitter() {
+        return Duration.ZERO;
+    }
+
+    /**
+     * How long the lease is held without renewal; renewed automatically while the job runs.
+     */
+    default Duration getLeaseTtl() {
+        return Duration.ofMinutes(1);
+    }
+
+    default boolean isEnabled() {
+        return true;
+    }
+
+    void run(JobContext context) throws Exception;
+}
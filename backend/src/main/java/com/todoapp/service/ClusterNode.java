@@ -0,0 +1,37 @@
+package com.todoapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.util.UUID;
+
+/**
+ * Identity of this backend replica within the cluster.
+ */
+@Component
+public class ClusterNode {
+
+    private final String nodeId;
+
+    public ClusterNode(@Value("${app.cluster.node-id:}") String configuredNodeId) {
+        this.nodeId = configuredNodeId != null && !configuredNodeId.isBlank()
+                ? configuredNodeId
+                : defaultNodeId();
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        // Suffix keeps ids unique across restarts and when replicas share a hostname
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
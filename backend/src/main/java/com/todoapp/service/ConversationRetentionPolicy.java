@@ -0,0 +1,56 @@
+package com.todoapp.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Single source of truth for how long chat conversations are kept.
+ *
+ * {@code expiresAt} is stored as an absolute deadline (last activity + retention), so the TTL
+ * index uses {@code expireAfterSeconds = 0} and the purge job deletes everything past that deadline.
+ */
+@Component
+public class ConversationRetentionPolicy {
+
+    @Value("${app.chat.retention.days:7}")
+    private int retentionDays;
+
+    @Value("${app.chat.retention.ttl-index-enabled:true}")
+    private boolean ttlIndexEnabled;
+
+    @Value("${app.chat.retention.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.chat.retention.max-batches-per-run:200}")
+    private int maxBatchesPerRun;
+
+    @Value("${app.chat.retention.lease-ttl:PT2M}")
+    private Duration leaseTtl;
+
+    public LocalDateTime expiresAtFrom(LocalDateTime lastActivity) {
+        return lastActivity.plusDays(retentionDays);
+    }
+
+    public int getRetentionDays() {
+        return retentionDays;
+    }
+
+    public boolean isTtlIndexEnabled() {
+        return ttlIndexEnabled;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+
+    public Duration getLeaseTtl() {
+        return leaseTtl;
+    }
+}
@@ -0,0 +1,208 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.RetentionRunReport;
+import com.todoapp.exception.LeaseLostException;
+import com.todoapp.model.ChatConversation;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Purges expired chat conversations in bounded batches. Runs as a {@link ClusterJob}, so only the
+ * replica holding the job lease purges at any time.
+ */
+@Service
+public class ConversationRetentionService implements ClusterJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConversationRetentionService.class);
+
+    private static final String JOB_NAME = "conversation-retention";
+    private static final String EXPIRES_AT = "expiresAt";
+
+    private final MongoOperations mongoOperations;
+    private final ConversationRetentionPolicy policy;
+
+    @Value("${app.chat.retention.cron:0 0 2 * * ?}")
+    private String cron;
+
+    @Value("${app.chat.retention.jitter:PT5M}")
+    private Duration jitter;
+
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalDeleted = new AtomicLong();
+    private final AtomicLong failedRuns = new AtomicLong();
+    private final AtomicReference<RetentionRunReport> lastRun = new AtomicReference<>();
+
+    public ConversationRetentionService(MongoOperations mongoOperations,
+                                        ConversationRetentionPolicy policy) {
+        this.mongoOperations = mongoOperations;
+        this.policy = policy;
+    }
+
+    /**
+     * Make the expiresAt index match the policy: a TTL index with expireAfterSeconds = 0 when
+     * TTL deletion is enabled, a plain index (used by the range deletes) otherwise.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureExpiryIndex() {
+        try {
+            IndexOperations indexOps = mongoOperations.indexOps(ChatConversation.class);
+            Optional<Duration> wanted = policy.isTtlIndexEnabled() ? Optional.of(Duration.ZERO) : Optional.empty();
+
+            boolean present = false;
+            for (IndexInfo info : indexOps.getIndexInfo()) {
+                if (!info.isIndexForFields(List.of(EXPIRES_AT))) {
+                    continue;
+                }
+                if (info.getExpireAfter().equals(wanted)) {
+                    present = true;
+                } else {
+                    logger.info("Dropping expiresAt index {} (expireAfter={}) to apply retention policy",
+                            info.getName(), info.getExpireAfter().orElse(null));
+                    indexOps.dropIndex(info.getName());
+                }
+            }
+
+            if (!present) {
+                Index index = new Index().on(EXPIRES_AT, Sort.Direction.ASC).named(EXPIRES_AT);
+                wanted.ifPresent(index::expire);
+                indexOps.ensureIndex(index);
+            }
+        } catch (Exception e) {
+            logger.error("Could not apply expiresAt index for chat conversations: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String getName() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public String getCron() {
+        return cron;
+    }
+
+    @Override
+    public Duration getJitter() {
+        return jitter;
+    }
+
+    @Override
+    public Duration getLeaseTtl() {
+        return policy.getLeaseTtl();
+    }
+
+    @Override
+    public void run(JobContext context) {
+        RetentionRunReport report = purgeExpiredConversations(context);
+        context.addProcessed(report.getDeleted());
+        context.putDetail("batches", report.getBatches());
+        context.putDetail("outcome", report.getOutcome());
+    }
+
+    public RetentionRunReport purgeExpiredConversations(JobContext context) {
+        RetentionRunReport report = new RetentionRunReport(LocalDateTime.now());
+        long started = System.nanoTime();
+
+        try {
+            purgeInBatches(report.getStartedAt(), report, context);
+        } catch (LeaseLostException e) {
+            report.setOutcome(RetentionRunReport.Outcome.PARTIAL);
+            throw e;
+        } catch (RuntimeException e) {
+            report.setOutcome(RetentionRunReport.Outcome.FAILED);
+            report.setError(e.getMessage());
+            failedRuns.incrementAndGet();
+            throw e;
+        } finally {
+            totalRuns.incrementAndGet();
+            totalDeleted.addAndGet(report.getDeleted());
+            finish(report, started);
+        }
+
+        if (report.getDeleted() > 0 || report.getOutcome() != RetentionRunReport.Outcome.COMPLETED) {
+            logger.info("Conversation cleanup {}: deleted {} in {} batches ({} ms)", report.getOutcome(),
+                    report.getDeleted(), report.getBatches(), report.getDurationMs());
+        }
+        return report;
+    }
+
+    private void purgeInBatches(LocalDateTime cutoff, RetentionRunReport report, JobContext context) {
+        int batchSize = policy.getBatchSize();
+        while (report.getBatches() < policy.getMaxBatchesPerRun()) {
+            context.checkpoint();
+
+            // Only ids are read, oldest first, so each batch is a bounded index range scan
+            Query idQuery = new Query(Criteria.where(EXPIRES_AT).lt(cutoff))
+                    .with(Sort.by(Sort.Direction.ASC, EXPIRES_AT))
+                    .limit(batchSize);
+            idQuery.fields().include("_id");
+
+            List<Object> ids = mongoOperations.find(idQuery, Document.class, collectionName()).stream()
+                    .map(doc -> doc.get("_id"))
+                    .toList();
+            if (ids.isEmpty()) {
+                report.setOutcome(RetentionRunReport.Outcome.COMPLETED);
+                return;
+            }
+
+            long deleted = mongoOperations.remove(
+                    new Query(Criteria.where("_id").in(ids).and(EXPIRES_AT).lt(cutoff)),
+                    collectionName()).getDeletedCount();
+            report.setDeleted(report.getDeleted() + deleted);
+            report.setBatches(report.getBatches() + 1);
+
+            if (ids.size() < batchSize) {
+                report.setOutcome(RetentionRunReport.Outcome.COMPLETED);
+                return;
+            }
+        }
+        // Batch budget exhausted; the remainder is picked up by the next run
+        report.setOutcome(RetentionRunReport.Outcome.PARTIAL);
+    }
+
+    private RetentionRunReport finish(RetentionRunReport report, long startedNanos) {
+        report.setDurationMs((System.nanoTime() - startedNanos) / 1_000_000);
+        lastRun.set(report);
+        return report;
+    }
+
+    private String collectionName() {
+        return mongoOperations.getCollectionName(ChatConversation.class);
+    }
+
+    public long getTotalRuns() {
+        return totalRuns.get();
+    }
+
+    public long getTotalDeleted() {
+        return totalDeleted.get();
+    }
+
+    public long getFailedRuns() {
+        return failedRuns.get();
+    }
+
+    public RetentionRunReport getLastRun() {
+        return lastRun.get();
+    }
+}
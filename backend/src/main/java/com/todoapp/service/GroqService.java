@@ -164,6 +164,10 @@ public class GroqService {
             - "Complete all my tasks" → action: "BULK_MARK_COMPLETE"
             - "Mark everything as complete" → action: "BULK_MARK_COMPLETE"
             - "Show my tasks" → action: "LIST_TASKS"
+            - "What's overdue?" → listFilter: {"due": "OVERDUE"}, action: "LIST_TASKS"
+            - "High priority tasks this week" → listFilter: {"priority": "HIGH", "due": "THIS_WEEK"}, action: "LIST_TASKS"
+            - "What have I finished?" → listFilter: {"status": "DONE", "sort": "RECENT"}, action: "LIST_TASKS"
+            - "Show page 2 of my open tasks" → listFilter: {"status": "OPEN", "page": 2}, action: "LIST_TASKS"
             - "I need help" → action: "GENERAL_HELP"
             
             For UPDATE_TASK, DELETE_TASK, and MARK_COMPLETE actions:
@@ -172,6 +176,13 @@ public class GroqService {
             - Extract any new values they want to change (title, description, priority, dueDate)
             - searchQuery should contain the task name/keywords OR ticket number the user mentioned
             
+            For LIST_TASKS, describe which tasks the user asked for in listFilter and leave out anything they did not ask for:
+            - status: TODO, IN_PROGRESS, DONE, or OPEN for everything not done
+            - priority: HIGH, MEDIUM or LOW
+            - due: OVERDUE, TODAY, THIS_WEEK or NEXT_7_DAYS; or dueFrom/dueTo as YYYY-MM-DD for other ranges
+            - sort: DUE_DATE, RECENT or CREATED
+            - limit: how many tasks to show (at most 25); page: which page, starting at 1
+            
             Possible actions:
             1. CREATE_TASK - User wants to add a new task
             2. LIST_TASKS - User wants to see their tasks  
@@ -189,6 +200,7 @@ public class GroqService {
               "dueDate": "YYYY-MM-DD format if date mentioned, or null",
               "priority": "HIGH|MEDIUM|LOW if mentioned, or MEDIUM",
               "searchQuery": "search terms to find existing task (for UPDATE_TASK, DELETE_TASK, MARK_COMPLETE), or null",
+              "listFilter": {"status": "...", "priority": "...", "due": "...", "dueFrom": "...", "dueTo": "...", "sort": "...", "limit": 10, "page": 1} for LIST_TASKS with only the fields asked for, or null,
               "response": "friendly response confirming the action"
             }
             
@@ -0,0 +1,77 @@
+package com.todoapp.service;
+
+import com.todoapp.exception.LeaseLostException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-run state handed to a {@link ClusterJob}.
+ */
+public class JobContext {
+
+    private final String jobName;
+    private final String nodeId;
+    private final LeaseService.Lease lease;
+    private final AtomicLong processed = new AtomicLong();
+    private final Map<String, Object> details = new LinkedHashMap<>();
+    private volatile boolean leaseLost;
+
+    public JobContext(String jobName, String nodeId, LeaseService.Lease lease) {
+        this.jobName = jobName;
+        this.nodeId = nodeId;
+        this.lease = lease;
+    }
+
+    /**
+     * Call between units of work; stops the job once another node may have taken over.
+     */
+    public void checkpoint() {
+        if (leaseLost || lease.isExpired()) {
+            leaseLost = true;
+            throw new LeaseLostException("Lease for job " + jobName + " lost (fencing token "
+                    + lease.getFencingToken() + ")");
+        }
+    }
+
+    public void addProcessed(long count) {
+        processed.addAndGet(count);
+    }
+
+    public synchronized void putDetail(String key, Object value) {
+        details.put(key, value);
+    }
+
+    void markLeaseLost() {
+        this.leaseLost = true;
+    }
+
+    public boolean isLeaseLost() {
+        return leaseLost;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public long getFencingToken() {
+        return lease.getFencingToken();
+    }
+
+    LeaseService.Lease getLease() {
+        return lease;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public synchronized Map<String, Object> getDetails() {
+        return new LinkedHashMap<>(details);
+    }
+}
@@ -0,0 +1,307 @@
+package com.todoapp.service;
+
+import com.todoapp.exception.LeaseLostException;
+import com.todoapp.model.JobRun;
+import com.todoapp.repository.JobRunRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.scheduling.support.PeriodicTrigger;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs every {@link ClusterJob} bean on its schedule, guarded by a Redis lease so each firing
+ * executes on exactly one replica. Completed runs are recorded in the job_runs collection;
+ * firings lost to another replica only update local metrics, so idle replicas never touch Mongo.
+ *
+ * Replicas fire at different moments (jitter, and interval triggers counted from each node's
+ * start), so the lease is not released when the job finishes: it is held until the firing's
+ * slot ends, and every later firing in that slot finds it taken.
+ */
+@Service
+public class JobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    // Slots end this much early so a lease set by a relative TTL is gone when the next one starts
+    private static final Duration SLOT_END_MARGIN = Duration.ofSeconds(1);
+
+    private final List<ClusterJob> jobs;
+    private final LeaseService leaseService;
+    private final JobRunRepository jobRunRepository;
+    private final MongoOperations mongoOperations;
+    private final ClusterNode clusterNode;
+
+    @Value("${app.jobs.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jobs.pool-size:4}")
+    private int poolSize;
+
+    @Value("${app.jobs.history-retention:P14D}")
+    private Duration historyRetention;
+
+    private final Map<String, JobMetrics> metrics = new ConcurrentHashMap<>();
+    private ThreadPoolTaskScheduler taskScheduler;
+
+    public JobScheduler(List<ClusterJob> jobs,
+                        LeaseService leaseService,
+                        JobRunRepository jobRunRepository,
+                        MongoOperations mongoOperations,
+                        ClusterNode clusterNode) {
+        this.jobs = jobs;
+        this.leaseService = leaseService;
+        this.jobRunRepository = jobRunRepository;
+        this.mongoOperations = mongoOperations;
+        this.clusterNode = clusterNode;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            logger.info("Cluster job scheduler disabled on node {}", clusterNode.getNodeId());
+            return;
+        }
+        ensureHistoryIndexes();
+
+        taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.setPoolSize(poolSize);
+        taskScheduler.setThreadNamePrefix("cluster-job-");
+        taskScheduler.setWaitForTasksToCompleteOnShutdown(false);
+        taskScheduler.initialize();
+
+        for (ClusterJob job : jobs) {
+            metrics.put(job.getName(), new JobMetrics());
+            if (!job.isEnabled()) {
+                logger.info("Cluster job {} is disabled", job.getName());
+                continue;
+            }
+            taskScheduler.schedule(() -> execute(job), triggerFor(job));
+            logger.info("Scheduled cluster job {} ({}) on node {}", job.getName(), describeSchedule(job),
+                    clusterNode.getNodeId());
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (taskScheduler != null) {
+            taskScheduler.shutdown();
+        }
+    }
+
+    void execute(ClusterJob job) {
+        JobMetrics jobMetrics = metrics.computeIfAbsent(job.getName(), name -> new JobMetrics());
+
+        LeaseService.Lease lease;
+        try {
+            lease = leaseService.tryAcquire(job.getName(), job.getLeaseTtl());
+        } catch (Exception e) {
+            logger.warn("Skipping job {}: lease unavailable: {}", job.getName(), e.getMessage());
+            jobMetrics.skipped.incrementAndGet();
+            return;
+        }
+        if (lease == null) {
+            jobMetrics.skipped.incrementAndGet();
+            return;
+        }
+
+        JobContext context = new JobContext(job.getName(), clusterNode.getNodeId(), lease);
+        Duration renewEvery = job.getLeaseTtl().dividedBy(3);
+        ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(() -> renew(context, job),
+                Instant.now().plus(renewEvery), renewEvery);
+
+        Instant firedAt = Instant.now();
+        JobRun run = new JobRun(job.getName(), clusterNode.getNodeId(), lease.getFencingToken(), LocalDateTime.now());
+        long started = System.nanoTime();
+        try {
+            job.run(context);
+            run.setStatus(JobRun.Status.SUCCEEDED);
+        } catch (LeaseLostException e) {
+            logger.warn(e.getMessage());
+            run.setStatus(JobRun.Status.LEASE_LOST);
+        } catch (Exception e) {
+            logger.error("Cluster job {} failed: {}", job.getName(), e.getMessage(), e);
+            run.setStatus(JobRun.Status.FAILED);
+            run.setError(e.getMessage());
+        } finally {
+            renewal.cancel(false);
+            if (!context.isLeaseLost()) {
+                leaseService.holdUntil(lease, slotEnd(job, firedAt));
+            }
+        }
+
+        run.setDurationMs((System.nanoTime() - started) / 1_000_000);
+        run.setFinishedAt(LocalDateTime.now());
+        run.setProcessed(context.getProcessed());
+        run.setDetails(context.getDetails());
+        run.setExpiresAt(run.getFinishedAt().plus(historyRetention));
+        jobMetrics.record(run);
+
+        try {
+            jobRunRepository.save(run);
+        } catch (Exception e) {
+            logger.warn("Could not record run history for job {}: {}", job.getName(), e.getMessage());
+        }
+    }
+
+    private void renew(JobContext context, ClusterJob job) {
+        try {
+            if (!leaseService.renew(context.getLease(), job.getLeaseTtl())) {
+                context.markLeaseLost();
+            }
+        } catch (Exception e) {
+            // Keep going until the lease actually expires; JobContext.checkpoint() enforces that
+            logger.warn("Could not renew lease for job {}: {}", job.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * When the slot of a firing at {@code firedAt} ends: at the next cron time, or one interval
+     * later, less a small margin.
+     */
+    static Instant slotEnd(ClusterJob job, Instant firedAt) {
+        Instant end;
+        if (job.getCron() != null) {
+            ZonedDateTime next = CronExpression.parse(job.getCron()).next(firedAt.atZone(ZoneId.systemDefault()));
+            end = next != null ? next.toInstant() : firedAt;
+        } else {
+            end = firedAt.plus(job.getInterval());
+        }
+        Duration slot = Duration.between(firedAt, end);
+        Duration margin = slot.dividedBy(10).compareTo(SLOT_END_MARGIN) < 0 ? slot.dividedBy(10) : SLOT_END_MARGIN;
+        return end.minus(margin);
+    }
+
+    private Trigger triggerFor(ClusterJob job) {
+        Trigger trigger;
+        if (job.getCron() != null) {
+            trigger = new CronTrigger(job.getCron());
+        } else if (job.getInterval() != null) {
+            PeriodicTrigger periodic = new PeriodicTrigger(job.getInterval());
+            periodic.setInitialDelay(job.getInterval());
+            trigger = periodic;
+        } else {
+            throw new IllegalStateException("Cluster job " + job.getName() + " defines neither cron nor interval");
+        }
+        return new JitteredTrigger(trigger, job.getJitter());
+    }
+
+    private void ensureHistoryIndexes() {
+        try {
+            mongoOperations.indexOps(JobRun.class).ensureIndex(new Index()
+                    .on("jobName", Sort.Direction.ASC)
+                    .on("startedAt", Sort.Direction.DESC));
+            mongoOperations.indexOps(JobRun.class).ensureIndex(new Index()
+                    .on("expiresAt", Sort.Direction.ASC)
+                    .expire(Duration.ZERO));
+        } catch (Exception e) {
+            logger.warn("Could not ensure job_runs indexes: {}", e.getMessage());
+        }
+    }
+
+    public List<JobRun> getRecentRuns(String jobName, int limit) {
+        return jobRunRepository.findByJobNameOrderByStartedAtDesc(jobName, PageRequest.of(0, limit));
+    }
+
+    public Map<String, Object> getJobStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        for (ClusterJob job : jobs) {
+            Map<String, Object> jobStatus = new LinkedHashMap<>();
+            jobStatus.put("enabled", enabled && job.isEnabled());
+            jobStatus.put("schedule", describeSchedule(job));
+            jobStatus.put("jitter", job.getJitter().toString());
+            jobStatus.put("leaseTtl", job.getLeaseTtl().toString());
+            JobMetrics jobMetrics = metrics.get(job.getName());
+            if (jobMetrics != null) {
+                jobStatus.putAll(jobMetrics.toMap());
+            }
+            status.put(job.getName(), jobStatus);
+        }
+        return status;
+    }
+
+    private static String describeSchedule(ClusterJob job) {
+        return job.getCron() != null ? "cron " + job.getCron() : "every " + job.getInterval();
+    }
+
+    private static final class JitteredTrigger implements Trigger {
+        private final Trigger delegate;
+        private final long jitterMillis;
+
+        JitteredTrigger(Trigger delegate, Duration jitter) {
+            this.delegate = delegate;
+            this.jitterMillis = jitter.toMillis();
+        }
+
+        @Override
+        public Instant nextExecution(TriggerContext triggerContext) {
+            Instant next = delegate.nextExecution(triggerContext);
+            if (next == null || jitterMillis <= 0) {
+                return next;
+            }
+            return next.plusMillis(ThreadLocalRandom.current().nextLong(jitterMillis));
+        }
+    }
+
+    private static final class JobMetrics {
+        private final AtomicLong succeeded = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+        private final AtomicLong leaseLost = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong totalDurationMs = new AtomicLong();
+        private final AtomicReference<JobRun> lastRun = new AtomicReference<>();
+
+        void record(JobRun run) {
+            switch (run.getStatus()) {
+                case SUCCEEDED -> succeeded.incrementAndGet();
+                case FAILED -> failed.incrementAndGet();
+                case LEASE_LOST -> leaseLost.incrementAndGet();
+            }
+            totalDurationMs.addAndGet(run.getDurationMs());
+            lastRun.set(run);
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("succeeded", succeeded.get());
+            map.put("failed", failed.get());
+            map.put("leaseLost", leaseLost.get());
+            map.put("skippedNotLeader", skipped.get());
+            map.put("totalDurationMs", totalDurationMs.get());
+            JobRun last = lastRun.get();
+            if (last != null) {
+                map.put("lastStatus", last.getStatus());
+                map.put("lastStartedAt", last.getStartedAt());
+                map.put("lastDurationMs", last.getDurationMs());
+                map.put("lastProcessed", last.getProcessed());
+            }
+            return map;
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.todoapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cluster-wide leases backed by Redis.
+ *
+ * A lease is an expiring key owned by a random token. Every successful acquisition also bumps a
+ * per-lease counter, the fencing token, so work done under a lease can be ordered and stale
+ * holders (e.g. after a long GC pause) can be told apart from the current one.
+ */
+@Service
+public class LeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaseService.class);
+
+    // Returns the new fencing token, or 0 when the lease is held by someone else
+    private static final RedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('set', KEYS[1], ARGV[1], 'NX', 'PX', ARGV[2]) then " +
+            "  return redis.call('incr', KEYS[2]) " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end " +
+            "return 0",
+            Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " +
+            "return 0",
+            Long.class);
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    /**
+     * Try to acquire the named lease.
+     *
+     * @return the lease, or null if another holder currently owns it
+     */
+    public Lease tryAcquire(String name, Duration ttl) {
+        String owner = UUID.randomUUID().toString();
+        Long fencingToken = redisTemplate.execute(ACQUIRE_SCRIPT, keys(name),
+                owner, String.valueOf(ttl.toMillis()));
+        if (fencingToken == null || fencingToken == 0) {
+            return null;
+        }
+        return new Lease(name, owner, fencingToken, System.currentTimeMillis() + ttl.toMillis());
+    }
+
+    /**
+     * Extend a lease we still own.
+     *
+     * @return false if the lease expired or was taken over
+     */
+    public boolean renew(Lease lease, Duration ttl) {
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(leaseKey(lease.getName())),
+                lease.getOwner(), String.valueOf(ttl.toMillis()));
+        if (renewed != null && renewed == 1) {
+            lease.expiresAtMillis = System.currentTimeMillis() + ttl.toMillis();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keep a lease we still own until {@code until} instead of releasing it, so no other holder can
+     * take it before then. A time already past releases it now.
+     */
+    public void holdUntil(Lease lease, Instant until) {
+        long remainingMillis = until.toEpochMilli() - System.currentTimeMillis();
+        if (remainingMillis <= 0) {
+            release(lease);
+            return;
+        }
+        try {
+            redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(leaseKey(lease.getName())),
+                    lease.getOwner(), String.valueOf(remainingMillis));
+        } catch (Exception e) {
+            // The lease still expires at its TTL, which may let another holder in early
+            logger.warn("Failed to hold lease {}: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    public void release(Lease lease) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(leaseKey(lease.getName())),
+                    lease.getOwner());
+        } catch (Exception e) {
+            // The lease expires on its own; a failed release only delays the next holder
+            logger.warn("Failed to release lease {}: {}", lease.getName(), e.getMessage());
+        }
+    }
+
+    // Hash-tagged so the lease and its fencing counter live in the same cluster slot
+    private List<String> keys(String name) {
+        return Arrays.asList(leaseKey(name), "lease:{" + name + "}:fence");
+    }
+
+    private String leaseKey(String name) {
+        return "lease:{" + name + "}";
+    }
+
+    public static final class Lease {
+        private final String name;
+        private final String owner;
+        private final long fencingToken;
+        private volatile long expiresAtMillis;
+
+        Lease(String name, String owner, long fencingToken, long expiresAtMillis) {
+            this.name = name;
+            this.owner = owner;
+            this.fencingToken = fencingToken;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getOwner() {
+            return owner;
+        }
+
+        public long getFencingToken() {
+            return fencingToken;
+        }
+
+        public long getExpiresAtMillis() {
+            return expiresAtMillis;
+        }
+
+        public boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAtMillis;
+        }
+    }
+}
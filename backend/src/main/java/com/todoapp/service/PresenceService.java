@@ -0,0 +1,201 @@
+package com.todoapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cluster-wide view of which users have an open WebSocket session on any node.
+ *
+ * Each session is a member {@code nodeId:sessionId} of the sorted set {@code presence:{userId}},
+ * scored with the time it expires. Nodes refresh their sessions on a heartbeat, so sessions of a
+ * node that died drop out after the session TTL. Lookups are cached locally for a short time;
+ * a user who just connected elsewhere may miss real-time events for up to that long, which the
+ * client covers by loading its task list on connect.
+ */
+@Service
+public class PresenceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceService.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final String nodeId;
+
+    @Value("${app.presence.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.presence.session-ttl:PT60S}")
+    private Duration sessionTtl;
+
+    @Value("${app.presence.cache-ttl:PT2S}")
+    private Duration cacheTtl;
+
+    private final Map<String, CachedPresence> cache = new ConcurrentHashMap<>();
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong offlineResults = new AtomicLong();
+
+    public PresenceService(RedisTemplate<String, Object> redisTemplate,
+                           WebSocketSessionRegistry sessionRegistry,
+                           ClusterNode clusterNode) {
+        this.redisTemplate = redisTemplate;
+        this.sessionRegistry = sessionRegistry;
+        this.nodeId = clusterNode.getNodeId();
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (!enabled || user == null || sessionId == null) {
+            return;
+        }
+        try {
+            long expiresAt = System.currentTimeMillis() + sessionTtl.toMillis();
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                touch(connection, user.getName(), sessionId, expiresAt);
+                return null;
+            });
+            cache.remove(user.getName());
+        } catch (Exception e) {
+            logger.warn("Could not record presence for user {}: {}", user.getName(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Principal user = event.getUser();
+        if (!enabled || user == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForZSet().remove(key(user.getName()), member(event.getSessionId()));
+            cache.remove(user.getName());
+        } catch (Exception e) {
+            logger.warn("Could not clear presence for user {}: {}", user.getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Re-announces every session held by this node in one pipeline and trims expired members.
+     */
+    @Scheduled(fixedDelayString = "${app.presence.heartbeat-interval:PT20S}")
+    public void heartbeat() {
+        Map<String, String> sessions = sessionRegistry.getLocalSessionUsers();
+        if (!enabled || sessions.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        long expiresAt = now + sessionTtl.toMillis();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                sessions.forEach((sessionId, userId) -> {
+                    touch(connection, userId, sessionId, expiresAt);
+                    connection.zSetCommands().zRemRangeByScore(bytes(key(userId)), Double.NEGATIVE_INFINITY, now);
+                });
+                return null;
+            });
+        } catch (Exception e) {
+            logger.warn("Presence heartbeat failed for {} sessions: {}", sessions.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the user has a live session on any node. Fails open: if Redis cannot answer, the
+     * user is treated as online so no event is skipped wrongly.
+     */
+    public boolean isOnline(String userId) {
+        if (!enabled || userId == null || sessionRegistry.hasLocalSessions(userId)) {
+            return true;
+        }
+        lookups.incrementAndGet();
+
+        long now = System.currentTimeMillis();
+        CachedPresence cached = cache.get(userId);
+        if (cached != null && cached.expiresAt > now) {
+            cacheHits.incrementAndGet();
+            return countOffline(cached.online);
+        }
+
+        boolean online;
+        try {
+            Long live = redisTemplate.opsForZSet().count(key(userId), now, Double.POSITIVE_INFINITY);
+            online = live != null && live > 0;
+        } catch (Exception e) {
+            logger.warn("Presence lookup failed for user {}: {}", userId, e.getMessage());
+            return true;
+        }
+        cache.put(userId, new CachedPresence(online, now + cacheTtl.toMillis()));
+        return countOffline(online);
+    }
+
+    private boolean countOffline(boolean online) {
+        if (!online) {
+            offlineResults.incrementAndGet();
+        }
+        return online;
+    }
+
+    private void touch(RedisConnection connection, String userId, String sessionId, long expiresAt) {
+        byte[] key = bytes(key(userId));
+        connection.zSetCommands().zAdd(key, expiresAt, bytes(member(sessionId)));
+        // The key outlives its newest member a little, then disappears with no cleanup needed
+        connection.keyCommands().pExpire(key, sessionTtl.toMillis() * 2);
+    }
+
+    @Scheduled(fixedDelayString = "${app.presence.cache-ttl:PT2S}")
+    public void evictExpiredCacheEntries() {
+        long now = System.currentTimeMillis();
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+    }
+
+    private String key(String userId) {
+        return RedisKeys.presence(userId);
+    }
+
+    private String member(String sessionId) {
+        return nodeId + ":" + sessionId;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("lookups", lookups.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("offlineResults", offlineResults.get());
+        stats.put("cachedUsers", cache.size());
+        return stats;
+    }
+
+    private static final class CachedPresence {
+        private final boolean online;
+        private final long expiresAt;
+
+        private CachedPresence(boolean online, long expiresAt) {
+            this.online = online;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.todoapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker for the Redis calls on request paths.
+ *
+ * After {@code failure-threshold} consecutive failures (a call slower than {@code slow-call} counts
+ * as one) the breaker opens and callers get their fallback at once instead of waiting out the
+ * command timeout. After {@code open-duration} one call is let through as a probe: if it succeeds
+ * the breaker closes and the recovery callbacks run, otherwise it stays open for another period.
+ */
+@Component
+public class RedisCircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    @Value("${app.redis.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.redis.breaker.open-duration:PT10S}")
+    private Duration openDuration;
+
+    @Value("${app.redis.breaker.slow-call:PT0.5S}")
+    private Duration slowCall;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openedAt;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicBoolean probeInFlight = new AtomicBoolean();
+    private final List<Runnable> recoveryListeners = new CopyOnWriteArrayList<>();
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong slowCalls = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timesOpened = new AtomicLong();
+
+    /**
+     * Runs {@code action} unless the breaker is open, in which case, or if the action fails, the
+     * fallback's value is returned.
+     */
+    public <T> T call(Supplier<T> action, Supplier<T> fallback) {
+        if (!allowRequest()) {
+            return fallback.get();
+        }
+        long started = System.nanoTime();
+        try {
+            T result = action.get();
+            recordResult(System.nanoTime() - started);
+            return result;
+        } catch (RuntimeException e) {
+            recordFailure();
+            logger.debug("Redis call failed: {}", e.getMessage());
+            return fallback.get();
+        }
+    }
+
+    /**
+     * Whether a Redis call may be made now. In the half-open state only one caller gets true until
+     * its outcome is recorded.
+     */
+    public boolean allowRequest() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.currentTimeMillis() - openedAt >= openDuration.toMillis()
+                && probeInFlight.compareAndSet(false, true)) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Records a call made after {@link #allowRequest()} that completed in {@code elapsedNanos}.
+     */
+    public void recordResult(long elapsedNanos) {
+        calls.incrementAndGet();
+        if (elapsedNanos > slowCall.toNanos()) {
+            slowCalls.incrementAndGet();
+            onFailure();
+            return;
+        }
+        consecutiveFailures.set(0);
+        if (state != State.CLOSED) {
+            close();
+        }
+    }
+
+    public void recordFailure() {
+        calls.incrementAndGet();
+        failures.incrementAndGet();
+        onFailure();
+    }
+
+    public void addRecoveryListener(Runnable listener) {
+        recoveryListeners.add(listener);
+    }
+
+    public boolean isOpen() {
+        return state != State.CLOSED;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    private void onFailure() {
+        if (state == State.HALF_OPEN || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            open();
+        }
+    }
+
+    private synchronized void open() {
+        if (state != State.OPEN) {
+            timesOpened.incrementAndGet();
+            logger.warn("Redis circuit breaker open; using fallbacks for {}", openDuration);
+        }
+        openedAt = System.currentTimeMillis();
+        state = State.OPEN;
+        probeInFlight.set(false);
+    }
+
+    private synchronized void close() {
+        if (state == State.CLOSED) {
+            return;
+        }
+        state = State.CLOSED;
+        consecutiveFailures.set(0);
+        probeInFlight.set(false);
+        logger.info("Redis circuit breaker closed");
+        for (Runnable listener : recoveryListeners) {
+            try {
+                listener.run();
+            } catch (Exception e) {
+                logger.warn("Redis recovery callback failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("state", state.name());
+        stats.put("consecutiveFailures", consecutiveFailures.get());
+        stats.put("calls", calls.get());
+        stats.put("failures", failures.get());
+        stats.put("slowCalls", slowCalls.get());
+        stats.put("rejected", rejected.get());
+        stats.put("timesOpened", timesOpened.get());
+        if (state != State.CLOSED) {
+            stats.put("openedAt", openedAt);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,75 @@
+package com.todoapp.service;
+
+/**
+ * Names of the per-user Redis keys and channels.
+ *
+ * The user id is wrapped in a hash tag ({@code {userId}}) so that, under Redis Cluster, all of a
+ * user's keys and the user's channel hash to the same slot. Scripts and pipelines touching several
+ * of them then stay on one shard, and a sharded channel lives on the shard that also holds the
+ * user's event log.
+ */
+public final class RedisKeys {
+
+    public static final String USER_CHANNEL_PREFIX = "user:";
+
+    private RedisKeys() {
+    }
+
+    public static String taskCache(String userId) {
+        return "user_tasks:" + tag(userId);
+    }
+
+    public static String taskListVersion(String userId) {
+        return "task_list_version:" + tag(userId);
+    }
+
+    public static String presence(String userId) {
+        return "presence:" + tag(userId);
+    }
+
+    public static String eventLog(String userId) {
+        return "events:" + tag(userId);
+    }
+
+    public static String eventPositions(String userId) {
+        return "events:" + tag(userId) + ":positions";
+    }
+
+    public static String taskStats(String userId) {
+        return "task_stats:" + tag(userId);
+    }
+
+    public static String taskStatsEntries(String userId) {
+        return "task_stats:" + tag(userId) + ":tasks";
+    }
+
+    public static String taskStatsDue(String userId) {
+        return "task_stats:" + tag(userId) + ":due";
+    }
+
+    public static String taskStatsDone(String userId) {
+        return "task_stats:" + tag(userId) + ":done";
+    }
+
+    public static String taskStatsDeleted(String userId) {
+        return "task_stats:" + tag(userId) + ":deleted";
+    }
+
+    public static String userChannel(String userId) {
+        return USER_CHANNEL_PREFIX + tag(userId);
+    }
+
+    /**
+     * The user id of a channel named by {@link #userChannel}, or null for any other channel.
+     */
+    public static String userIdOfChannel(String channel) {
+        if (channel == null || !channel.startsWith(USER_CHANNEL_PREFIX + "{") || !channel.endsWith("}")) {
+            return null;
+        }
+        return channel.substring(USER_CHANNEL_PREFIX.length() + 1, channel.length() - 1);
+    }
+
+    private static String tag(String userId) {
+        return "{" + userId + "}";
+    }
+}
@@ -1,45 +1,183 @@
 package com.todoapp.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.config.WebSocketConfig;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.exception.RedisUnavailableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 @Service
 public class RedisPublisher {
 
+    private static final Logger logger = LoggerFactory.getLogger(RedisPublisher.class);
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
     @Autowired
-    private RedisTemplate<String, Object> redisTemplateForCaching;
+    private ObjectMapper objectMapper;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private UserEventLog userEventLog;
+
+    @Autowired
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Value("${app.websocket.broker.mode:redis}")
+    private String brokerMode;
+
+    @Value("${app.redis.publish.batch-max:256}")
+    private int publishBatchMax;
+
+    // While Redis is unavailable task lists come from Mongo, with a short-lived local copy per user
+    // so a burst of reads does not all go to Mongo. Only this node's writes evict it, hence the TTL.
+    @Value("${app.redis.breaker.local-cache-size:1000}")
+    private int localCacheSize;
+
+    @Value("${app.redis.breaker.local-cache-ttl:PT5S}")
+    private Duration localCacheTtl;
+
+    // Cache invalidations that could not reach Redis, replayed once it is back
+    @Value("${app.redis.breaker.max-pending-invalidations:100000}")
+    private int maxPendingInvalidations;
+
+    // Task lists are cached as a hash: the list, when it was read, and a "fresh" flag that writes
+    // clear. A cleared list is kept until the hard TTL so it can still be served while Mongo is slow.
+    private static final String CACHE_TASKS = "tasks";
+    private static final String CACHE_READ_AT = "readAt";
+    private static final String CACHE_FRESH = "fresh";
+    private static final String CACHE_VERSION = "version";
+    private static final TypeReference<List<TaskResponse>> TASK_LIST = new TypeReference<>() {};
+
+    // A list is cached only while the list version it was read at is still current: a read that
+    // overlapped a write would otherwise be marked fresh after the write's invalidation.
+    // KEYS[1] cache hash, KEYS[2] list version; ARGV: tasks json, read-at millis, ttl ms, list
+    // version ('' if unknown)
+    private static final RedisScript<Long> CACHE_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[4] == '' or redis.call('get', KEYS[2]) ~= ARGV[4] then return 0 end " +
+            "redis.call('hset', KEYS[1], 'tasks', ARGV[1], 'readAt', ARGV[2], 'fresh', '1', 'version', ARGV[4]) " +
+            "return redis.call('pexpire', KEYS[1], ARGV[3])",
+            Long.class);
+
+    // Each user's task list has a version, bumped together with every invalidation of the cached
+    // list. A version that expired or was evicted starts again from the current time in
+    // microseconds, above any value the old one could have reached, so an ETag is never reused.
+    // KEYS[1] version key; ARGV: start value, ttl ms
+    private static final RedisScript<Long> BUMP_VERSION_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('incr', KEYS[1]) == 1 then redis.call('set', KEYS[1], ARGV[1]) end " +
+            "return redis.call('pexpire', KEYS[1], ARGV[2])",
+            Long.class);
+    private static final RedisScript<String> READ_VERSION_SCRIPT = new DefaultRedisScript<>(
+            "local version = redis.call('get', KEYS[1]) " +
+            "if version then return version end " +
+            "redis.call('set', KEYS[1], ARGV[1], 'PX', ARGV[2]) " +
+            "return ARGV[1]",
+            String.class);
+
+    @Value("${app.tasks.cache.hard-ttl:PT1H}")
+    private Duration taskCacheTtl;
+
+    @Value("${app.tasks.list-version.ttl:P7D}")
+    private Duration listVersionTtl;
 
-    private static final String TASK_CHANNEL = "task_updates";
-    private static final String USER_CHANNEL = "user_updates";
+    // Single publishes from concurrent requests queue here and share one pipeline per flush
+    private final Queue<QueuedEvent> publishQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean flushing = new AtomicBoolean();
+    private final ExecutorService publishFlusher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "redis-publisher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong queuedEvents = new AtomicLong();
+    private final AtomicLong pipelines = new AtomicLong();
+    private final AtomicLong failedPipelines = new AtomicLong();
+
+    private final Map<String, LocalCopy> localTasks = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, LocalCopy> eldest) {
+            return size() > localCacheSize;
+        }
+    };
+    // User -> when the invalidation was queued, so a replay only clears the ones it sent
+    private final Map<String, Long> pendingInvalidations = new ConcurrentHashMap<>();
+    private final AtomicLong invalidationSeq = new AtomicLong();
+    private final AtomicLong localHits = new AtomicLong();
+    private final AtomicLong droppedInvalidations = new AtomicLong();
+    private final AtomicLong droppedEvents = new AtomicLong();
+
+    // User events go only to the owning user's channel; nodes subscribe to it while they hold a
+    // session for that user (see WebSocketController). Sharded channels (Redis Cluster) are
+    // published with SPUBLISH, which only the shard owning the channel's slot sees; the channel is
+    // passed as the script's key so the script is routed to that shard.
+    @Value("${app.redis.pubsub.sharded:false}")
+    private boolean shardedPubSub;
+
+    private static final RedisScript<Long> SPUBLISH_SCRIPT = new DefaultRedisScript<>(
+            "return redis.call('spublish', KEYS[1], ARGV[1])", Long.class);
 
     public void publishTaskUpdate(String userId, String taskId, String action, Object taskData) {
+        enqueue(new QueuedEvent(userId, taskUpdateMessage(userId, taskId, action, taskData), false));
+    }
+
+    /**
+     * Publishes a task change and drops the user's cached task list in the same pipeline.
+     */
+    public void publishTaskChange(String userId, String taskId, String action, Object taskData) {
+        enqueue(new QueuedEvent(userId, taskUpdateMessage(userId, taskId, action, taskData), true));
+    }
+
+    public String taskUpdateMessage(String userId, String taskId, String action, Object taskData) {
         try {
-            Map<String, Object> message = new HashMap<>();            message.put("userId", userId);
+            Map<String, Object> message = newEnvelope("TASK_UPDATE", userId);
             message.put("taskId", taskId);
             message.put("action", action); // CREATE, UPDATE, DELETE
             message.put("data", taskData);
             message.put("timestamp", System.currentTimeMillis()); // Use timestamp in milliseconds
-            message.put("type", "TASK_UPDATE");
 
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            
-            // Publish to general task channel
-            redisTemplate.convertAndSend(TASK_CHANNEL, jsonMessage);
-            
-            // Publish to user-specific channel
-            redisTemplate.convertAndSend(getUserChannel(userId), jsonMessage);
+            return objectMapper.writeValueAsString(message);
             
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error publishing task update", e);
@@ -48,17 +186,12 @@ public class RedisPublisher {
 
     public void publishUserUpdate(String userId, String action, Object userData) {
         try {
-            Map<String, Object> message = new HashMap<>();            message.put("userId", userId);
+            Map<String, Object> message = newEnvelope("USER_UPDATE", userId);
             message.put("action", action); // LOGIN, LOGOUT, PROFILE_UPDATE, etc.
             message.put("data", userData);
             message.put("timestamp", System.currentTimeMillis()); // Use timestamp in milliseconds
-            message.put("type", "USER_UPDATE");
 
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            
-            // Publish to user channel
-            redisTemplate.convertAndSend(USER_CHANNEL, jsonMessage);
-            redisTemplate.convertAndSend(getUserChannel(userId), jsonMessage);
+            enqueue(new QueuedEvent(userId, objectMapper.writeValueAsString(message), false));
             
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error publishing user update", e);
@@ -72,6 +205,13 @@ public class RedisPublisher {
             notification.put("timestamp", System.currentTimeMillis()); // Use timestamp in milliseconds
             notification.put("broadcast", true);
 
+            if (isRelayMode()) {
+                // The external broker fans out to every node's subscribers; going through Redis
+                // would make each node relay the same broadcast again
+                messagingTemplate.convertAndSend("/topic/notifications", notification);
+                return;
+            }
+
             String jsonMessage = objectMapper.writeValueAsString(notification);
             
             // Publish to system notification channel
@@ -82,45 +222,508 @@ public class RedisPublisher {
         }
     }
 
+    /**
+     * Sends a task statistics snapshot to the user's sessions. Each snapshot supersedes the last,
+     * so it skips the event log (there is nothing to replay) and is dropped while Redis is down.
+     */
+    public void publishTaskStatistics(String userId, Map<String, Object> statistics) {
+        if (circuitBreaker.isOpen() || !presenceService.isOnline(userId)) {
+            return;
+        }
+        try {
+            Map<String, Object> message = newEnvelope("TASK_STATS", userId);
+            message.put("data", statistics);
+            message.put("timestamp", System.currentTimeMillis());
+            String json = objectMapper.writeValueAsString(message);
+            String channel = getUserChannel(userId);
+            if (shardedPubSub) {
+                redisTemplate.execute(SPUBLISH_SCRIPT, List.of(channel), json);
+            } else {
+                redisTemplate.convertAndSend(channel, json);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not publish task statistics for user {}: {}", userId, e.getMessage());
+        }
+    }
+
     public void publishBulkTaskUpdate(String userId, String action, Object updatedTasks) {
+        enqueue(new QueuedEvent(userId, bulkTaskUpdateMessage(userId, action, updatedTasks), false));
+    }
+
+    public String bulkTaskUpdateMessage(String userId, String action, Object updatedTasks) {
         try {
-            Map<String, Object> message = new HashMap<>();
-            message.put("userId", userId);
+            Map<String, Object> message = newEnvelope("BULK_TASK_UPDATE", userId);
             message.put("action", action); // BULK_MARK_COMPLETE, BULK_DELETE, etc.
             message.put("data", updatedTasks);
             message.put("timestamp", System.currentTimeMillis());
-            message.put("type", "BULK_TASK_UPDATE");
 
-            String jsonMessage = objectMapper.writeValueAsString(message);
-            
-            // Publish to general task channel
-            redisTemplate.convertAndSend(TASK_CHANNEL, jsonMessage);
-            
-            // Publish to user-specific channel
-            redisTemplate.convertAndSend(getUserChannel(userId), jsonMessage);
+            return objectMapper.writeValueAsString(message);
             
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Error publishing bulk task update", e);
         }
     }
 
+    /**
+     * Publishes messages built by {@link #taskUpdateMessage} / {@link #bulkTaskUpdateMessage} for
+     * several users in one pipeline, in order per user, after dropping the cached task lists of
+     * {@code invalidateCachesFor}. Failures propagate so the caller can retry; while the circuit
+     * breaker is open they fail at once with {@link RedisUnavailableException}.
+     */
+    public void publishUserEvents(Map<String, List<String>> messagesByUser, Collection<String> invalidateCachesFor) {
+        evictLocalTasks(invalidateCachesFor);
+        if (!circuitBreaker.allowRequest()) {
+            queueInvalidations(invalidateCachesFor);
+            throw new RedisUnavailableException("Redis circuit breaker is open");
+        }
+        try {
+            publishPipeline(messagesByUser, invalidateCachesFor);
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            queueInvalidations(invalidateCachesFor);
+            throw e;
+        }
+        // A full pipeline may legitimately take longer than a single call, so its time is not judged
+        circuitBreaker.recordResult(0);
+        pipelines.incrementAndGet();
+    }
+
+    private void publishPipeline(Map<String, List<String>> messagesByUser, Collection<String> invalidateCachesFor) {
+        Map<String, Boolean> online = messagesByUser.keySet().stream()
+                .collect(Collectors.toMap(userId -> userId, presenceService::isOnline));
+        boolean logged = userEventLog.isEnabled();
+
+        redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            // First, so a client refetching on the event never reads the old list
+            for (String userId : invalidateCachesFor) {
+                invalidateTaskCache(connection, userId);
+            }
+            messagesByUser.forEach((userId, messages) -> {
+                String channel = getUserChannel(userId);
+                for (String message : messages) {
+                    if (logged) {
+                        userEventLog.append(connection, userId, message, channel, online.get(userId));
+                    } else if (online.get(userId) && shardedPubSub) {
+                        connection.scriptingCommands().eval(bytes(SPUBLISH_SCRIPT.getScriptAsString()),
+                                ReturnType.INTEGER, 1, bytes(channel), bytes(message));
+                    } else if (online.get(userId)) {
+                        connection.publish(bytes(channel), bytes(message));
+                    }
+                }
+            });
+            return null;
+        });
+    }
+
+    private void enqueue(QueuedEvent event) {
+        publishQueue.add(event);
+        queuedEvents.incrementAndGet();
+        if (flushing.compareAndSet(false, true)) {
+            publishFlusher.execute(this::flushQueue);
+        }
+    }
+
+    /**
+     * Sends everything queued, up to the batch limit per pipeline. Events queued while a pipeline
+     * is in flight go out together in the next one.
+     */
+    private void flushQueue() {
+        try {
+            while (!publishQueue.isEmpty()) {
+                List<QueuedEvent> batch = new ArrayList<>();
+                QueuedEvent event;
+                while (batch.size() < publishBatchMax && (event = publishQueue.poll()) != null) {
+                    batch.add(event);
+                }
+                publishBatch(batch);
+            }
+        } finally {
+            flushing.set(false);
+            // Events queued after the last isEmpty check would otherwise wait for the next publish
+            if (!publishQueue.isEmpty() && flushing.compareAndSet(false, true)) {
+                publishFlusher.execute(this::flushQueue);
+            }
+        }
+    }
+
+    private void publishBatch(List<QueuedEvent> batch) {
+        Map<String, List<String>> messagesByUser = new LinkedHashMap<>();
+        Set<String> invalidate = new LinkedHashSet<>();
+        for (QueuedEvent event : batch) {
+            messagesByUser.computeIfAbsent(event.userId, id -> new ArrayList<>()).add(event.message);
+            if (event.invalidateCache) {
+                invalidate.add(event.userId);
+            }
+        }
+        try {
+            publishUserEvents(messagesByUser, invalidate);
+        } catch (Exception e) {
+            failedPipelines.incrementAndGet();
+            logger.warn("Could not publish {} events in one pipeline, publishing without replay: {}",
+                    batch.size(), e.getMessage());
+            for (QueuedEvent event : batch) {
+                publishWithoutLog(event);
+            }
+        }
+    }
+
+    private void publishWithoutLog(QueuedEvent event) {
+        if (circuitBreaker.isOpen()) {
+            // Clients reload their tasks on reconnect; the cache is dropped once Redis is back
+            if (event.invalidateCache) {
+                queueInvalidations(List.of(event.userId));
+            }
+            droppedEvents.incrementAndGet();
+            return;
+        }
+        try {
+            if (event.invalidateCache) {
+                invalidateUserTasksCache(event.userId);
+            }
+            if (presenceService.isOnline(event.userId)) {
+                String channel = getUserChannel(event.userId);
+                if (shardedPubSub) {
+                    redisTemplate.execute(SPUBLISH_SCRIPT, List.of(channel), event.message);
+                } else {
+                    redisTemplate.convertAndSend(channel, event.message);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Error publishing event for user {}: {}", event.userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        publishFlusher.shutdown();
+        List<QueuedEvent> remaining = new ArrayList<>();
+        QueuedEvent event;
+        while ((event = publishQueue.poll()) != null) {
+            remaining.add(event);
+        }
+        if (!remaining.isEmpty()) {
+            publishBatch(remaining);
+        }
+    }
+
+    public Map<String, Object> getPublishStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queuedEvents", queuedEvents.get());
+        stats.put("pendingEvents", publishQueue.size());
+        stats.put("pipelines", pipelines.get());
+        stats.put("failedPipelines", failedPipelines.get());
+        return stats;
+    }
+
+    // "type" goes first so the relay can route an event after reading a single field
+    private Map<String, Object> newEnvelope(String type, String userId) {
+        Map<String, Object> message = new LinkedHashMap<>();
+        message.put("type", type);
+        message.put("userId", userId);
+        return message;
+    }
+
+    private boolean isRelayMode() {
+        return WebSocketConfig.BrokerMode.parse(brokerMode) == WebSocketConfig.BrokerMode.RELAY;
+    }
+
     private String getUserChannel(String userId) {
-        return "user_" + userId;
-    }    // Cache operations for frequently accessed data
-    public void cacheUserTasks(String userId, Object tasks) {
-        String key = "user_tasks:" + userId;
-        redisTemplateForCaching.opsForValue().set(key, tasks);
-        // Set expiration to 1 hour
-        redisTemplateForCaching.expire(key, java.time.Duration.ofHours(1));
+        return RedisKeys.userChannel(userId);
+    }
+
+    private void invalidateTaskCache(RedisConnection connection, String userId) {
+        connection.hashCommands().hDel(bytes(RedisKeys.taskCache(userId)), bytes(CACHE_FRESH));
+        connection.scriptingCommands().eval(bytes(BUMP_VERSION_SCRIPT.getScriptAsString()), ReturnType.INTEGER, 1,
+                bytes(RedisKeys.taskListVersion(userId)), bytes(newListVersion()),
+                bytes(String.valueOf(listVersionTtl.toMillis())));
     }
 
-    public Object getCachedUserTasks(String userId) {
-        String key = "user_tasks:" + userId;
-        return redisTemplateForCaching.opsForValue().get(key);
+    private static String newListVersion() {
+        return String.valueOf(System.currentTimeMillis() * 1000);
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Cache operations for frequently accessed data. None of them throw: without Redis the caller
+    // reads from Mongo.
+    public void cacheUserTasks(String userId, List<TaskResponse> tasks, Long listVersion) {
+        CachedTasks copy = new CachedTasks(tasks, System.currentTimeMillis(), true, listVersion);
+        if (pendingInvalidations.containsKey(userId)) {
+            putLocalTasks(userId, copy);
+            return;
+        }
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(tasks);
+        } catch (JsonProcessingException e) {
+            logger.warn("Could not serialize task list of user {}: {}", userId, e.getMessage());
+            return;
+        }
+        circuitBreaker.call(() -> redisTemplate.execute(CACHE_SCRIPT,
+                List.of(RedisKeys.taskCache(userId), RedisKeys.taskListVersion(userId)),
+                json, String.valueOf(copy.readAt), String.valueOf(taskCacheTtl.toMillis()),
+                listVersion != null ? listVersion.toString() : ""), () -> {
+            putLocalTasks(userId, copy);
+            return null;
+        });
+    }
+
+    /**
+     * The cached task list, fresh or not, or null if there is none.
+     */
+    public CachedTasks getCachedUserTasks(String userId) {
+        // Local copies are only made while Redis cannot be written
+        CachedTasks local = getLocalTasks(userId);
+        if (local != null) {
+            return local;
+        }
+        CachedTasks cached = circuitBreaker.call(() -> readTaskCache(userId), () -> null);
+        // The Redis copy may predate a write whose invalidation has not been replayed yet
+        if (cached != null && pendingInvalidations.containsKey(userId)) {
+            return cached.stale();
+        }
+        return cached;
     }
 
     public void invalidateUserTasksCache(String userId) {
-        String key = "user_tasks:" + userId;
-        redisTemplateForCaching.delete(key);
+        evictLocalTasks(List.of(userId));
+        circuitBreaker.call(() -> redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            invalidateTaskCache(connection, userId);
+            return null;
+        }), () -> {
+            queueInvalidations(List.of(userId));
+            return null;
+        });
+    }
+
+    /**
+     * Runs on the writer's thread, so it stays in memory: the invalidation is queued like one that
+     * could not reach Redis, which makes the cache stale and the list version unknown before the
+     * response goes out, and is sent from the publisher thread. A client revalidating right after
+     * its own write therefore never gets a 304 for the list without it. The outbox relay's
+     * invalidation after publishing stays as a backstop.
+     */
+    @EventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        String userId = event.getUserId();
+        evictLocalTasks(List.of(userId));
+        queueInvalidations(List.of(userId));
+        Long queued = pendingInvalidations.get(userId);
+        if (queued != null) {
+            publishFlusher.execute(() -> deleteTaskCaches(Map.of(userId, queued)));
+        }
+    }
+
+    /**
+     * The version of the user's task list, for ETags; null while it cannot be trusted, that is
+     * without Redis or while an invalidation that also bumps it waits to be replayed.
+     */
+    public Long getTaskListVersion(String userId) {
+        if (pendingInvalidations.containsKey(userId)) {
+            return null;
+        }
+        String version = circuitBreaker.call(() -> redisTemplate.execute(READ_VERSION_SCRIPT,
+                List.of(RedisKeys.taskListVersion(userId)), newListVersion(),
+                String.valueOf(listVersionTtl.toMillis())), () -> null);
+        try {
+            return version != null ? Long.valueOf(version) : null;
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring unreadable task list version of user {}: {}", userId, version);
+            return null;
+        }
+    }
+
+    private CachedTasks readTaskCache(String userId) {
+        List<Object> fields = redisTemplate.opsForHash().multiGet(RedisKeys.taskCache(userId),
+                List.of(CACHE_TASKS, CACHE_READ_AT, CACHE_FRESH, CACHE_VERSION));
+        if (fields == null || fields.size() < 4 || fields.get(0) == null || fields.get(1) == null) {
+            return null;
+        }
+        try {
+            List<TaskResponse> tasks = objectMapper.readValue(fields.get(0).toString(), TASK_LIST);
+            // Lists cached before versions were kept, or while the version was unknown, have none
+            Object version = fields.get(3);
+            Long listVersion = version != null && !version.toString().isEmpty() ? Long.valueOf(version.toString()) : null;
+            return new CachedTasks(tasks, Long.parseLong(fields.get(1).toString()), fields.get(2) != null, listVersion);
+        } catch (JsonProcessingException | NumberFormatException e) {
+            logger.warn("Ignoring unreadable task cache of user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    @PostConstruct
+    public void registerRecoveryListener() {
+        circuitBreaker.addRecoveryListener(() -> publishFlusher.execute(this::replayInvalidations));
+    }
+
+    /**
+     * Also probes Redis while the breaker is open, so queued invalidations get replayed even when
+     * no requests arrive.
+     */
+    @Scheduled(fixedDelayString = "${app.redis.breaker.open-duration:PT10S}")
+    public void retryPendingInvalidations() {
+        if (!pendingInvalidations.isEmpty()) {
+            replayInvalidations();
+        }
+    }
+
+    void replayInvalidations() {
+        Map<String, Long> batch = new HashMap<>();
+        int replayed = 0;
+        for (Map.Entry<String, Long> pending : pendingInvalidations.entrySet()) {
+            batch.put(pending.getKey(), pending.getValue());
+            if (batch.size() >= publishBatchMax) {
+                boolean sent = deleteTaskCaches(batch);
+                if (sent) {
+                    replayed += batch.size();
+                }
+                batch.clear();
+                if (!sent) {
+                    break;
+                }
+            }
+        }
+        if (!batch.isEmpty() && deleteTaskCaches(batch)) {
+            replayed += batch.size();
+        }
+        if (replayed > 0) {
+            logger.info("Replayed {} task cache invalidations", replayed);
+        }
+    }
+
+    private boolean deleteTaskCaches(Map<String, Long> userIds) {
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userId : userIds.keySet()) {
+                    invalidateTaskCache(connection, userId);
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            logger.warn("Could not replay {} cache invalidations: {}", userIds.size(), e.getMessage());
+            return false;
+        }
+        circuitBreaker.recordResult(0);
+        // A user queued again meanwhile keeps waiting for the next replay
+        userIds.forEach(pendingInvalidations::remove);
+        return true;
+    }
+
+    private void queueInvalidations(Collection<String> userIds) {
+        for (String userId : userIds) {
+            if (pendingInvalidations.size() >= maxPendingInvalidations && !pendingInvalidations.containsKey(userId)) {
+                // Such a user's cache stays fresh until it expires (app.tasks.cache.hard-ttl)
+                droppedInvalidations.incrementAndGet();
+            } else {
+                pendingInvalidations.put(userId, invalidationSeq.incrementAndGet());
+            }
+        }
+    }
+
+    private CachedTasks getLocalTasks(String userId) {
+        synchronized (localTasks) {
+            LocalCopy copy = localTasks.get(userId);
+            if (copy == null || copy.expiresAt <= System.currentTimeMillis()) {
+                return null;
+            }
+            localHits.incrementAndGet();
+            return copy.tasks;
+        }
+    }
+
+    private void putLocalTasks(String userId, CachedTasks tasks) {
+        synchronized (localTasks) {
+            localTasks.put(userId, new LocalCopy(tasks, System.currentTimeMillis() + localCacheTtl.toMillis()));
+        }
+    }
+
+    private void evictLocalTasks(Collection<String> userIds) {
+        synchronized (localTasks) {
+            if (!localTasks.isEmpty()) {
+                userIds.forEach(localTasks::remove);
+            }
+        }
+    }
+
+    public Map<String, Object> getFallbackStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (localTasks) {
+            stats.put("localCacheEntries", localTasks.size());
+        }
+        stats.put("localCacheHits", localHits.get());
+        stats.put("pendingInvalidations", pendingInvalidations.size());
+        stats.put("droppedInvalidations", droppedInvalidations.get());
+        stats.put("droppedEvents", droppedEvents.get());
+        return stats;
+    }
+
+    private static final class LocalCopy {
+        private final CachedTasks tasks;
+        private final long expiresAt;
+
+        private LocalCopy(CachedTasks tasks, long expiresAt) {
+            this.tasks = tasks;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A cached task list. It stops being fresh when one of the user's tasks is written. The list
+     * version it carries was read before the list, so the list is at least that recent.
+     */
+    public static final class CachedTasks {
+        private final List<TaskResponse> tasks;
+        private final long readAt;
+        private final boolean fresh;
+        private final Long listVersion;
+
+        CachedTasks(List<TaskResponse> tasks, long readAt, boolean fresh) {
+            this(tasks, readAt, fresh, null);
+        }
+
+        CachedTasks(List<TaskResponse> tasks, long readAt, boolean fresh, Long listVersion) {
+            this.tasks = tasks;
+            this.readAt = readAt;
+            this.fresh = fresh;
+            this.listVersion = listVersion;
+        }
+
+        CachedTasks stale() {
+            return new CachedTasks(tasks, readAt, false, listVersion);
+        }
+
+        public List<TaskResponse> getTasks() {
+            return tasks;
+        }
+
+        public long getAgeMillis() {
+            return System.currentTimeMillis() - readAt;
+        }
+
+        public boolean isFresh() {
+            return fresh;
+        }
+
+        public Long getListVersion() {
+            return listVersion;
+        }
+    }
+
+    private static final class QueuedEvent {
+        private final String userId;
+        private final String message;
+        private final boolean invalidateCache;
+
+        private QueuedEvent(String userId, String message, boolean invalidateCache) {
+            this.userId = userId;
+            this.message = message;
+            this.invalidateCache = invalidateCache;
+        }
     }
 }
@@ -40,4 +40,26 @@ public class SequenceGeneratorService {
             return (int) (System.currentTimeMillis() % 100000);
         }
     }
+
+    /**
+     * Reserves {@code count} consecutive numbers with a single increment and returns the first of
+     * them.
+     */
+    public Integer reserveSequence(String seqName, int count) {
+        try {
+            Query query = new Query(Criteria.where("id").is(seqName));
+            Update update = new Update().inc("seq", count);
+            FindAndModifyOptions options = new FindAndModifyOptions()
+                    .returnNew(true)
+                    .upsert(true);
+
+            Sequence counter = mongoOperations.findAndModify(
+                    query, update, options, Sequence.class);
+
+            return counter != null ? counter.getSeq() - count + 1 : 1;
+        } catch (Exception e) {
+            logger.error("Error reserving {} numbers of sequence {}: {}", count, seqName, e.getMessage());
+            return (int) (System.currentTimeMillis() % 100000);
+        }
+    }
 }
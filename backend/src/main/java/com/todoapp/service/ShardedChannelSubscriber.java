@@ -0,0 +1,244 @@
+package com.todoapp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Service;
+import redis.clients.jedis.Connection;
+import redis.clients.jedis.DefaultJedisClientConfig;
+import redis.clients.jedis.HostAndPort;
+import redis.clients.jedis.JedisClientConfig;
+import redis.clients.jedis.JedisShardedPubSub;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Subscribes to sharded channels (SSUBSCRIBE) under Redis Cluster, for
+ * {@code app.redis.pubsub.sharded=true}.
+ *
+ * A sharded channel is only served by the shard owning its hash slot, so this keeps one subscriber
+ * connection per shard that owns a subscribed channel, instead of the single connection the
+ * listener container uses for classic channels. When a slot moves, Redis unsubscribes its channels
+ * on the old shard; they are then resubscribed wherever the slot lives now. The same happens to all
+ * channels of a shard whose connection drops.
+ *
+ * Neither Spring Data Redis nor Lettuce 6.3 offer SSUBSCRIBE, so the connections are plain Jedis
+ * connections; only the topology comes from the application's connection factory.
+ */
+@Service
+public class ShardedChannelSubscriber {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShardedChannelSubscriber.class);
+
+    private static final long RESUBSCRIBE_DELAY_MS = 1_000;
+
+    private final RedisConnectionFactory connectionFactory;
+    private final JedisClientConfig clientConfig;
+
+    // channel -> listener, for every channel that should be subscribed
+    private final Map<String, MessageListener> listeners = new ConcurrentHashMap<>();
+    private final Map<HostAndPort, ShardSubscription> shards = new HashMap<>();
+    private final ScheduledExecutorService resubscriber = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sharded-pubsub-resubscribe");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicLong resubscribes = new AtomicLong();
+    private volatile boolean stopped;
+
+    public ShardedChannelSubscriber(RedisConnectionFactory connectionFactory,
+                                    @Value("${spring.data.redis.password:}") String password,
+                                    @Value("${spring.data.redis.timeout:2000ms}") Duration timeout) {
+        this.connectionFactory = connectionFactory;
+        this.clientConfig = DefaultJedisClientConfig.builder()
+                .password(password == null || password.isEmpty() ? null : password)
+                .connectionTimeoutMillis((int) timeout.toMillis())
+                .clientName("todo-sharded-pubsub")
+                .build();
+    }
+
+    public void subscribe(String channel, MessageListener listener) {
+        listeners.put(channel, listener);
+        route(channel);
+    }
+
+    public synchronized void unsubscribe(String channel) {
+        listeners.remove(channel);
+        for (ShardSubscription shard : shards.values()) {
+            shard.remove(channel);
+        }
+    }
+
+    private synchronized void route(String channel) {
+        if (stopped || !listeners.containsKey(channel)) {
+            return;
+        }
+        HostAndPort node = nodeFor(channel);
+        ShardSubscription shard = shards.get(node);
+        if (shard == null || !shard.isRunning()) {
+            shard = new ShardSubscription(node);
+            shards.put(node, shard);
+            shard.start(channel);
+        } else {
+            shard.add(channel);
+        }
+    }
+
+    private HostAndPort nodeFor(String channel) {
+        try (RedisClusterConnection connection = connectionFactory.getClusterConnection()) {
+            RedisClusterNode node = connection.clusterGetNodeForSlot(ClusterSlotHashUtil.calculateSlot(channel));
+            return new HostAndPort(node.getHost(), node.getPort());
+        }
+    }
+
+    private void scheduleResubscribe(Set<String> channels) {
+        if (stopped || channels.isEmpty()) {
+            return;
+        }
+        resubscribes.addAndGet(channels.size());
+        resubscriber.schedule(() -> {
+            for (String channel : channels) {
+                try {
+                    route(channel);
+                } catch (Exception e) {
+                    logger.warn("Could not resubscribe to sharded channel {}: {}", channel, e.getMessage());
+                    scheduleResubscribe(Set.of(channel));
+                }
+            }
+        }, RESUBSCRIBE_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void shardStopped(ShardSubscription shard, Set<String> orphaned) {
+        shards.remove(shard.node, shard);
+        Set<String> wanted = new HashSet<>(orphaned);
+        wanted.removeIf(channel -> !listeners.containsKey(channel));
+        scheduleResubscribe(wanted);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        stopped = true;
+        resubscriber.shutdownNow();
+        for (ShardSubscription shard : shards.values()) {
+            shard.stop();
+        }
+        shards.clear();
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Integer> channelsByShard = new HashMap<>();
+        shards.forEach((node, shard) -> channelsByShard.put(node.toString(), shard.channels.size()));
+        stats.put("channels", listeners.size());
+        stats.put("shards", channelsByShard);
+        stats.put("resubscribes", resubscribes.get());
+        return stats;
+    }
+
+    /**
+     * One connection to one shard, subscribed to the channels whose slots that shard owned when
+     * they were routed.
+     */
+    private final class ShardSubscription extends JedisShardedPubSub {
+        private final HostAndPort node;
+        private final Set<String> channels = ConcurrentHashMap.newKeySet();
+        private volatile Thread thread;
+        private volatile boolean confirmed;
+
+        private ShardSubscription(HostAndPort node) {
+            this.node = node;
+        }
+
+        void start(String firstChannel) {
+            channels.add(firstChannel);
+            thread = new Thread(() -> run(firstChannel), "sharded-pubsub-" + node);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        boolean isRunning() {
+            return thread != null && thread.isAlive();
+        }
+
+        void add(String channel) {
+            // Channels added before the subscription is confirmed are picked up in onSSubscribe
+            if (channels.add(channel) && isSubscribed()) {
+                ssubscribe(channel);
+            }
+        }
+
+        void remove(String channel) {
+            if (channels.remove(channel) && isSubscribed()) {
+                sunsubscribe(channel);
+            }
+        }
+
+        void stop() {
+            channels.clear();
+            if (isSubscribed()) {
+                sunsubscribe();
+            }
+        }
+
+        private void run(String firstChannel) {
+            try (Connection connection = new Connection(node, clientConfig)) {
+                // Blocks until every channel is unsubscribed or the connection fails
+                proceed(connection, firstChannel);
+            } catch (Exception e) {
+                if (!stopped) {
+                    logger.warn("Sharded subscription to {} failed: {}", node, e.getMessage());
+                }
+            } finally {
+                shardStopped(this, Set.copyOf(channels));
+            }
+        }
+
+        @Override
+        public void onSSubscribe(String channel, int subscribedChannels) {
+            if (confirmed) {
+                return;
+            }
+            confirmed = true;
+            for (String pending : channels) {
+                if (!pending.equals(channel)) {
+                    ssubscribe(pending);
+                }
+            }
+        }
+
+        @Override
+        public void onSUnsubscribe(String channel, int subscribedChannels) {
+            // Still wanted here means Redis dropped it, which it does when the channel's slot migrates
+            if (channels.remove(channel) && listeners.containsKey(channel)) {
+                logger.info("Sharded channel {} moved away from {}", channel, node);
+                scheduleResubscribe(Set.of(channel));
+            }
+        }
+
+        @Override
+        public void onSMessage(String channel, String message) {
+            MessageListener listener = listeners.get(channel);
+            if (listener != null) {
+                listener.onMessage(new DefaultMessage(channel.getBytes(StandardCharsets.UTF_8),
+                        message.getBytes(StandardCharsets.UTF_8)), null);
+            }
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.todoapp.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.mongodb.client.model.changestream.FullDocumentBeforeChange;
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.todoapp.dto.TaskChangeEvent;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tails the {@code tasks} change stream so that writes made outside {@link TaskService}
+ * (migrations, admin scripts, bulk jobs) still invalidate the task cache and reach clients.
+ *
+ * Writes made by TaskService carry outbox events and are published by {@link TaskOutboxRelay};
+ * the relay's own acknowledgements and removals are skipped too. Everything else is published as
+ * a REPLACE (full task) or a tombstone, since external writers do not bump task versions.
+ *
+ * One node consumes at a time, holding a lease; the resume token is saved periodically (fenced
+ * by the lease) so a restart or a new leader continues where the last one stopped. Change streams
+ * need a replica set, so this is off unless {@code app.tasks.change-stream.enabled} is set.
+ */
+@Service
+public class TaskChangeStreamListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangeStreamListener.class);
+
+    private static final String LEASE_NAME = "task-change-stream";
+    private static final String TOKENS_COLLECTION = "change_stream_tokens";
+    private static final String PENDING_EVENTS = "pendingEvents";
+    private static final String DELETE_PENDING = "deletePending";
+    // Server error code for a resume token that has fallen off the oplog
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    private final MongoOperations mongoOperations;
+    private final RedisPublisher redisPublisher;
+    private final LeaseService leaseService;
+
+    @Value("${app.tasks.change-stream.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.tasks.change-stream.lease-ttl:PT30S}")
+    private Duration leaseTtl;
+
+    @Value("${app.tasks.change-stream.checkpoint-interval:PT5S}")
+    private Duration checkpointInterval;
+
+    @Value("${app.tasks.change-stream.retry-delay:PT10S}")
+    private Duration retryDelay;
+
+    private volatile boolean running;
+    private volatile boolean leader;
+    private Thread worker;
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicLong changesSeen = new AtomicLong();
+    private final AtomicLong eventsPublished = new AtomicLong();
+    private final AtomicLong changesSkipped = new AtomicLong();
+    private volatile LocalDateTime lastChangeAt;
+
+    public TaskChangeStreamListener(MongoOperations mongoOperations,
+                                    RedisPublisher redisPublisher,
+                                    LeaseService leaseService,
+                                    ApplicationEventPublisher eventPublisher) {
+        this.mongoOperations = mongoOperations;
+        this.redisPublisher = redisPublisher;
+        this.leaseService = leaseService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        enablePreImages();
+        running = true;
+        worker = new Thread(this::runLoop, "task-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Deletes only carry the document key; the pre-image tells us whose task it was.
+     */
+    private void enablePreImages() {
+        try {
+            mongoOperations.executeCommand(new Document("collMod", collectionName())
+                    .append("changeStreamPreAndPostImages", new Document("enabled", true)));
+        } catch (Exception e) {
+            logger.warn("Could not enable change stream pre-images on {}; external deletes will not be published: {}",
+                    collectionName(), e.getMessage());
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            LeaseService.Lease lease = null;
+            try {
+                lease = leaseService.tryAcquire(LEASE_NAME, leaseTtl);
+                if (lease != null) {
+                    leader = true;
+                    logger.info("Consuming task change stream (fencing token {})", lease.getFencingToken());
+                    consume(lease);
+                }
+            } catch (Exception e) {
+                if (running) {
+                    logger.warn("Task change stream stopped: {}", e.getMessage());
+                }
+            } finally {
+                leader = false;
+                if (lease != null) {
+                    leaseService.release(lease);
+                }
+            }
+            sleep(retryDelay);
+        }
+    }
+
+    private void consume(LeaseService.Lease lease) {
+        BsonDocument resumeToken = loadResumeToken();
+        var stream = mongoOperations.getCollection(collectionName())
+                .watch(List.of(Aggregates.match(Filters.in("operationType", "insert", "update", "replace", "delete"))))
+                .fullDocument(FullDocument.UPDATE_LOOKUP)
+                .fullDocumentBeforeChange(FullDocumentBeforeChange.WHEN_AVAILABLE)
+                .maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+
+        long renewEvery = leaseTtl.toMillis() / 3;
+        long nextRenewal = System.currentTimeMillis() + renewEvery;
+        long nextCheckpoint = System.currentTimeMillis() + checkpointInterval.toMillis();
+        BsonDocument savedToken = resumeToken;
+
+        try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor()) {
+            while (running) {
+                ChangeStreamDocument<Document> change = cursor.tryNext();
+                if (change != null) {
+                    handle(change.getOperationTypeString(), change.getDocumentKey(), change.getFullDocument(),
+                            change.getFullDocumentBeforeChange(), change.getUpdateDescription());
+                }
+
+                long now = System.currentTimeMillis();
+                if (now >= nextRenewal) {
+                    if (!leaseService.renew(lease, leaseTtl)) {
+                        logger.warn("Lost the task change stream lease; stopping");
+                        return;
+                    }
+                    nextRenewal = now + renewEvery;
+                }
+                // The cursor's token advances even while idle, so a restart does not replay old history
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null && !token.equals(savedToken) && (change == null || now >= nextCheckpoint)) {
+                    if (!saveResumeToken(token, lease)) {
+                        return;
+                    }
+                    savedToken = token;
+                    nextCheckpoint = now + checkpointInterval.toMillis();
+                }
+            }
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                // Clients catch up through version checks; only external writes in the gap are lost
+                logger.warn("Task change stream resume point is no longer in the oplog; restarting from now");
+                mongoOperations.remove(new Query(Criteria.where("_id").is(collectionName())), TOKENS_COLLECTION);
+                return;
+            }
+            throw e;
+        }
+    }
+
+    void handle(String operationType, BsonDocument documentKey, Document fullDocument, Document before,
+                UpdateDescription update) {
+        changesSeen.incrementAndGet();
+        lastChangeAt = LocalDateTime.now();
+
+        switch (operationType) {
+            case "insert", "replace" -> {
+                if (fullDocument == null || hasPendingEvents(fullDocument)) {
+                    // Written by TaskService; its outbox events are published by TaskOutboxRelay
+                    skip();
+                    return;
+                }
+                if (isTombstone(fullDocument)) {
+                    // An inserted tombstone never removed a live task
+                    publishTombstone(fullDocument, before != null && !isTombstone(before));
+                    return;
+                }
+                Task task = mongoOperations.getConverter().read(Task.class, fullDocument);
+                publish(task.getUserId(), task.getId(), "insert".equals(operationType) ? "CREATE" : "REPLACE",
+                        new TaskResponse(task));
+            }
+            case "update" -> {
+                if (fullDocument == null || isOutboxOnly(update) || recordsOutboxEvent(update)) {
+                    // The relay pulling published events, a TaskService write whose event the relay
+                    // publishes, or a task deleted in the meantime
+                    skip();
+                    return;
+                }
+                if (isTombstone(fullDocument)) {
+                    publishTombstone(fullDocument, before != null ? !isTombstone(before) : setsDeletePending(update));
+                    return;
+                }
+                Task task = mongoOperations.getConverter().read(Task.class, fullDocument);
+                publish(task.getUserId(), task.getId(), "REPLACE", new TaskResponse(task));
+            }
+            case "delete" -> {
+                if (before == null || isTombstone(before)) {
+                    // An expired tombstone removed by its TTL index, or no pre-image to attribute it
+                    skip();
+                    return;
+                }
+                Task task = mongoOperations.getConverter().read(Task.class, before);
+                publish(task.getUserId(), task.getId(), "DELETE",
+                        TaskChangeEvent.tombstone(task.getId(), task.nextVersion()));
+            }
+            default -> skip();
+        }
+    }
+
+    /**
+     * A write to a deleted task's tombstone. Clients already dropped the task, so it is published
+     * again only when this write is the one that deleted it; anything else, a migration or a
+     * backfill rewriting tombstones, must not bring the task back or be counted twice.
+     */
+    private void publishTombstone(Document tombstone, boolean deletedByThisWrite) {
+        if (!deletedByThisWrite) {
+            skip();
+            return;
+        }
+        Task task = mongoOperations.getConverter().read(Task.class, tombstone);
+        publish(task.getUserId(), task.getId(), "DELETE", TaskChangeEvent.tombstone(task.getId(), task.nextVersion()));
+    }
+
+    private void publish(String userId, String taskId, String action, Object data) {
+        if (userId == null) {
+            skip();
+            return;
+        }
+        redisPublisher.publishTaskChange(userId, taskId, action, data);
+        eventsPublished.incrementAndGet();
+        eventPublisher.publishEvent(data instanceof TaskResponse task
+                ? TasksChangedEvent.changed(userId, List.of(task))
+                : TasksChangedEvent.deleted(userId, taskId));
+    }
+
+    private void skip() {
+        changesSkipped.incrementAndGet();
+    }
+
+    private static boolean isTombstone(Document document) {
+        return Boolean.TRUE.equals(document.getBoolean(DELETE_PENDING));
+    }
+
+    private static boolean setsDeletePending(UpdateDescription update) {
+        return update != null && update.getUpdatedFields() != null
+                && update.getUpdatedFields().containsKey(DELETE_PENDING);
+    }
+
+    private static boolean hasPendingEvents(Document document) {
+        List<?> pending = document.getList(PENDING_EVENTS, Object.class);
+        return pending != null && !pending.isEmpty();
+    }
+
+    // Updates made through TaskService (findAndModify, bulk writes) push their event in the same write
+    private static boolean recordsOutboxEvent(UpdateDescription update) {
+        return update != null && update.getUpdatedFields() != null
+                && update.getUpdatedFields().keySet().stream().anyMatch(field -> field.startsWith(PENDING_EVENTS));
+    }
+
+    private static boolean isOutboxOnly(UpdateDescription update) {
+        if (update == null) {
+            return false;
+        }
+        boolean onlyOutbox = update.getUpdatedFields() == null
+                || update.getUpdatedFields().keySet().stream().allMatch(field -> field.startsWith(PENDING_EVENTS));
+        if (update.getRemovedFields() != null) {
+            onlyOutbox &= update.getRemovedFields().stream().allMatch(field -> field.startsWith(PENDING_EVENTS));
+        }
+        if (update.getTruncatedArrays() != null) {
+            onlyOutbox &= update.getTruncatedArrays().stream().allMatch(array -> array.getField().startsWith(PENDING_EVENTS));
+        }
+        return onlyOutbox;
+    }
+
+    private BsonDocument loadResumeToken() {
+        Document saved = mongoOperations.findById(collectionName(), Document.class, TOKENS_COLLECTION);
+        if (saved == null || saved.get("token") == null) {
+            return null;
+        }
+        return BsonDocument.parse(((Document) saved.get("token")).toJson());
+    }
+
+    /**
+     * @return false if a newer leader has already saved its position, i.e. our lease is gone
+     */
+    private boolean saveResumeToken(BsonDocument token, LeaseService.Lease lease) {
+        try {
+            mongoOperations.upsert(new Query(Criteria.where("_id").is(collectionName())
+                            .and("fencingToken").lte(lease.getFencingToken())),
+                    new Update().set("token", Document.parse(token.toJson()))
+                            .set("fencingToken", lease.getFencingToken())
+                            .set("updatedAt", LocalDateTime.now()),
+                    TOKENS_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            logger.warn("Task change stream position was saved by a newer leader; stopping");
+            return false;
+        }
+    }
+
+    private String collectionName() {
+        return mongoOperations.getCollectionName(Task.class);
+    }
+
+    private void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("leader", leader);
+        stats.put("changesSeen", changesSeen.get());
+        stats.put("eventsPublished", eventsPublished.get());
+        stats.put("changesSkipped", changesSkipped.get());
+        stats.put("lastChangeAt", lastChangeAt);
+        return stats;
+    }
+}
@@ -0,0 +1,209 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskChangeEvent;
+import com.todoapp.dto.TaskChangesResponse;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Delta sync for clients that keep their own copy of the task list: the tasks created, updated or
+ * deleted since a cursor, oldest change first, so a sync costs in proportion to what changed.
+ *
+ * Every write through {@link TaskService} sets {@code updatedAt}, and deletes leave a tombstone
+ * behind, so a cursor is a position in {@code (updatedAt, _id)} order over the user's tasks.
+ * Tombstones expire after {@code tombstone-retention}; a client whose cursor is older than that
+ * could have missed deletions and is sent through a full sync ({@code reset}) instead.
+ *
+ * Writes are stamped before they are saved, so one may become visible after a later-stamped one
+ * was already read. The last page of a sync therefore moves the cursor no further than
+ * {@code settle-time} ago, and the next sync sends the most recent changes again; clients apply
+ * a task only when its version is newer than theirs.
+ */
+@Service
+public class TaskChangesService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskChangesService.class);
+
+    static final String CURSOR_INDEX = "userId_updatedAt_id";
+    static final String TOMBSTONE_INDEX = "deletedAt_ttl";
+    static final int MAX_LIMIT = 500;
+
+    private final MongoOperations mongoOperations;
+
+    // Changing it needs the deletedAt_ttl index dropped first; Mongo refuses to redefine it
+    @Value("${app.tasks.changes.tombstone-retention:P30D}")
+    private Duration tombstoneRetention;
+
+    @Value("${app.tasks.changes.settle-time:PT5S}")
+    private Duration settleTime;
+
+    public TaskChangesService(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            IndexOperations indexOps = mongoOperations.indexOps(Task.class);
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("updatedAt", Sort.Direction.ASC)
+                    .on("_id", Sort.Direction.ASC).named(CURSOR_INDEX));
+            indexOps.ensureIndex(new Index().on("deletedAt", Sort.Direction.ASC).expire(tombstoneRetention)
+                    .named(TOMBSTONE_INDEX));
+        } catch (Exception e) {
+            logger.error("Could not create delta sync indexes on tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Up to {@code limit} of the user's task changes after {@code since}, a cursor from an earlier
+     * response; without one, the first page of a full sync.
+     */
+    public TaskChangesResponse getChanges(String userId, String since, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        SyncCursor cursor = SyncCursor.decode(since);
+        boolean reset = cursor == null
+                || (!cursor.isFullSync() && cursor.updatedAt.isBefore(now.minus(tombstoneRetention)));
+        if (reset) {
+            cursor = SyncCursor.startFullSync(now);
+        }
+
+        Criteria criteria = Criteria.where("userId").is(userId);
+        if (cursor.isFullSync()) {
+            // The client starts from nothing: only deletions since the sync began concern it
+            criteria.orOperator(Criteria.where("deletePending").ne(true),
+                    Criteria.where("deletedAt").gte(cursor.fullSyncStartedAt));
+        }
+        if (cursor.updatedAt != null) {
+            criteria.andOperator(cursor.after());
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "updatedAt").and(Sort.by(Sort.Direction.ASC, "_id")))
+                .limit(limit + 1);
+        List<Task> tasks = mongoOperations.find(query, Task.class);
+        boolean hasMore = tasks.size() > limit;
+        if (hasMore) {
+            tasks = tasks.subList(0, limit);
+        }
+
+        List<TaskResponse> changed = new ArrayList<>();
+        List<TaskChangeEvent> deleted = new ArrayList<>();
+        for (Task task : tasks) {
+            if (Boolean.TRUE.equals(task.getDeletePending())) {
+                deleted.add(TaskChangeEvent.tombstone(task.getId(), task.getVersion() != null ? task.getVersion() : 0L));
+            } else {
+                changed.add(new TaskResponse(task));
+            }
+        }
+
+        SyncCursor next;
+        if (hasMore) {
+            Task last = tasks.get(tasks.size() - 1);
+            next = new SyncCursor(last.getUpdatedAt(), last.getId(), cursor.fullSyncStartedAt);
+        } else {
+            // Caught up: everything stamped before the settle time has been sent
+            next = new SyncCursor(now.minus(settleTime), null, null);
+        }
+        return new TaskChangesResponse(changed, deleted, next.encode(), hasMore, reset);
+    }
+
+    /**
+     * A position in a user's changes, in {@code (updatedAt, _id)} order; a null id stands before
+     * every task updated at that time. During a full sync it also holds when the sync began.
+     * Encoded as opaque URL-safe text.
+     */
+    static final class SyncCursor {
+        private static final String INCREMENTAL = "i";
+        private static final String FULL_SYNC = "f";
+
+        final LocalDateTime updatedAt;
+        final String id;
+        final LocalDateTime fullSyncStartedAt;
+
+        SyncCursor(LocalDateTime updatedAt, String id, LocalDateTime fullSyncStartedAt) {
+            this.updatedAt = updatedAt;
+            this.id = id;
+            this.fullSyncStartedAt = fullSyncStartedAt;
+        }
+
+        static SyncCursor startFullSync(LocalDateTime now) {
+            return new SyncCursor(null, null, now);
+        }
+
+        boolean isFullSync() {
+            return fullSyncStartedAt != null;
+        }
+
+        Criteria after() {
+            if (id == null) {
+                return Criteria.where("updatedAt").gte(updatedAt);
+            }
+            return new Criteria().orOperator(Criteria.where("updatedAt").gt(updatedAt),
+                    Criteria.where("updatedAt").is(updatedAt).and("_id").gt(id));
+        }
+
+        String encode() {
+            String text = isFullSync()
+                    ? String.join(":", FULL_SYNC, String.valueOf(millis(fullSyncStartedAt)),
+                            String.valueOf(millis(updatedAt)), id)
+                    : String.join(":", INCREMENTAL, String.valueOf(millis(updatedAt)), id != null ? id : "");
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return null for a blank cursor
+         * @throws IllegalArgumentException if it was not issued by {@link #encode}
+         */
+        static SyncCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return null;
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8)
+                        .split(":", -1);
+                if (parts.length == 3 && INCREMENTAL.equals(parts[0])) {
+                    return new SyncCursor(time(parts[1]), parts[2].isEmpty() ? null : parts[2], null);
+                }
+                if (parts.length == 4 && FULL_SYNC.equals(parts[0]) && !parts[3].isEmpty()) {
+                    return new SyncCursor(time(parts[2]), parts[3], time(parts[1]));
+                }
+            } catch (IllegalArgumentException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException("Invalid sync cursor; sync again without one");
+        }
+
+        // Mongo stores dates in milliseconds, converted from local time like every LocalDateTime here
+        private static long millis(LocalDateTime time) {
+            return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        }
+
+        private static LocalDateTime time(String millis) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(millis)), ZoneId.systemDefault());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.todoapp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Loads task lists from Mongo for the cache, at most one load per user at a time.
+ *
+ * Concurrent requests for the same user share the load in flight. When a cached list exists but is
+ * no longer fresh, callers wait at most {@code mongo-deadline} for Mongo and then get the cached
+ * list; the load carries on in the background and refreshes the cache for later reads. Lists are
+ * passed along with the list version they were read at, so a stale one keeps its older version.
+ */
+@Service
+public class TaskListRefresher {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskListRefresher.class);
+
+    @Value("${app.tasks.cache.mongo-deadline:PT0.3S}")
+    private Duration mongoDeadline;
+
+    private final ThreadPoolExecutor executor;
+    private final Map<String, CompletableFuture<RedisPublisher.CachedTasks>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong sharedLoads = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public TaskListRefresher(@Value("${app.tasks.cache.refresh-threads:4}") int threads,
+                             @Value("${app.tasks.cache.refresh-queue:1000}") int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "task-list-refresh-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Starts a background load unless one is already running for the user.
+     */
+    public void refreshAsync(String userId, Supplier<RedisPublisher.CachedTasks> loader) {
+        try {
+            loadInBackground(userId, loader);
+        } catch (RejectedExecutionException e) {
+            // The list is refreshed by a later read
+            rejected.incrementAndGet();
+        }
+    }
+
+    /**
+     * Loads the user's task list, or joins the load in flight. With a {@code stale} list to fall
+     * back to, waits no longer than the Mongo deadline and returns the stale list after that or if
+     * the load fails.
+     */
+    public RedisPublisher.CachedTasks load(String userId, Supplier<RedisPublisher.CachedTasks> loader, RedisPublisher.CachedTasks stale) {
+        if (stale == null) {
+            return loadNow(userId, loader);
+        }
+
+        CompletableFuture<RedisPublisher.CachedTasks> load;
+        try {
+            load = loadInBackground(userId, loader);
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            return serveStale(stale);
+        }
+        try {
+            return load.get(mongoDeadline.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return serveStale(stale);
+        } catch (ExecutionException e) {
+            logger.warn("Task list load failed for user {}, serving cached list: {}", userId, e.getCause().getMessage());
+            return serveStale(stale);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return serveStale(stale);
+        }
+    }
+
+    /**
+     * Runs the load on the calling thread, or waits for the one in flight.
+     */
+    private RedisPublisher.CachedTasks loadNow(String userId, Supplier<RedisPublisher.CachedTasks> loader) {
+        CompletableFuture<RedisPublisher.CachedTasks> created = new CompletableFuture<>();
+        CompletableFuture<RedisPublisher.CachedTasks> existing = inFlight.putIfAbsent(userId, created);
+        if (existing != null) {
+            sharedLoads.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (RuntimeException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+        loads.incrementAndGet();
+        try {
+            RedisPublisher.CachedTasks tasks = loader.get();
+            created.complete(tasks);
+            return tasks;
+        } catch (RuntimeException e) {
+            created.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(userId, created);
+        }
+    }
+
+    /**
+     * Starts a load on the refresh pool, or returns the one already in flight.
+     */
+    private CompletableFuture<RedisPublisher.CachedTasks> loadInBackground(String userId, Supplier<RedisPublisher.CachedTasks> loader) {
+        CompletableFuture<RedisPublisher.CachedTasks> created = new CompletableFuture<>();
+        CompletableFuture<RedisPublisher.CachedTasks> existing = inFlight.putIfAbsent(userId, created);
+        if (existing != null) {
+            sharedLoads.incrementAndGet();
+            return existing;
+        }
+        try {
+            executor.execute(() -> {
+                loads.incrementAndGet();
+                try {
+                    created.complete(loader.get());
+                } catch (RuntimeException e) {
+                    logger.warn("Background task list load failed for user {}: {}", userId, e.getMessage());
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(userId, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(userId, created);
+            created.cancel(false);
+            throw e;
+        }
+        return created;
+    }
+
+    private RedisPublisher.CachedTasks serveStale(RedisPublisher.CachedTasks stale) {
+        staleServed.incrementAndGet();
+        return stale;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loads", loads.get());
+        stats.put("sharedLoads", sharedLoads.get());
+        stats.put("staleServed", staleServed.get());
+        stats.put("rejected", rejected.get());
+        stats.put("inFlight", inFlight.size());
+        stats.put("queued", executor.getQueue().size());
+        return stats;
+    }
+}
@@ -0,0 +1,277 @@
+package com.todoapp.service;
+
+import com.todoapp.model.OutboxEvent;
+import com.todoapp.model.Task;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes the outbox events that {@link TaskService} stores inside task documents.
+ *
+ * Writers hand the ids of the tasks they saved to {@link #publishSoon}; a background thread loads
+ * their pending events in batches, invalidates the owners' task caches and publishes everything in
+ * one Redis pipeline, and then removes the published events. Deleted tasks stay behind as
+ * tombstones for delta syncs. Ids queued while a batch is in flight go out together in the next one.
+ * The ids of one write are never split across batches, so the events of a bulk write or sync leave
+ * as one bulk event even when they touch more than {@code batch-size} tasks; only the sweep, which
+ * reads by age, may still split them.
+ *
+ * Events left behind by a failed publish or a crashed node are picked up by the sweep, which runs
+ * as a {@link ClusterJob}. Delivery is at least once; clients ignore task versions they already have.
+ */
+@Service
+public class TaskOutboxRelay implements ClusterJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskOutboxRelay.class);
+
+    private static final String JOB_NAME = "task-outbox-sweep";
+    private static final String PENDING_EVENTS = "pendingEvents";
+    private static final String PENDING_SINCE = "pendingEvents.createdAt";
+
+    private final MongoOperations mongoOperations;
+    private final RedisPublisher redisPublisher;
+
+    @Value("${app.tasks.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${app.tasks.outbox.sweep-interval:PT15S}")
+    private Duration sweepInterval;
+
+    @Value("${app.tasks.outbox.sweep-after:PT10S}")
+    private Duration sweepAfter;
+
+    @Value("${app.tasks.outbox.max-sweep-batches:50}")
+    private int maxSweepBatches;
+
+    // Ids from one publishSoon call stay together, so the events of a bulk write leave in one batch
+    private final Queue<List<String>> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final ExecutorService executor;
+
+    private final AtomicLong eventsPublished = new AtomicLong();
+    private final AtomicLong batchesPublished = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+    private final AtomicLong eventsSwept = new AtomicLong();
+
+    public TaskOutboxRelay(MongoOperations mongoOperations, RedisPublisher redisPublisher) {
+        this.mongoOperations = mongoOperations;
+        this.redisPublisher = redisPublisher;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-outbox");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sparse index so the sweep only ever touches tasks that have pending events.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensurePendingIndex() {
+        try {
+            mongoOperations.indexOps(Task.class).ensureIndex(new Index()
+                    .on(PENDING_SINCE, Sort.Direction.ASC).sparse().named(PENDING_SINCE));
+        } catch (Exception e) {
+            logger.error("Could not create outbox index on tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Queues the pending events of these tasks for publishing on the relay thread.
+     */
+    public void publishSoon(Collection<String> taskIds) {
+        queued.add(List.copyOf(taskIds));
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!queued.isEmpty()) {
+                List<String> ids = takeQueued();
+                try {
+                    publish(mongoOperations.find(new Query(Criteria.where("_id").in(ids)
+                            .and(PENDING_EVENTS + ".0").exists(true)), Task.class));
+                } catch (Exception e) {
+                    failedBatches.incrementAndGet();
+                    logger.warn("Could not publish outbox events for {} tasks, leaving them for the sweep: {}",
+                            ids.size(), e.getMessage());
+                }
+            }
+        } finally {
+            draining.set(false);
+            // Ids queued after the last isEmpty check would otherwise wait for the next writer
+            if (!queued.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    /**
+     * Takes whole writes off the queue up to {@code batchSize} ids; a single write with more ids
+     * than that is taken on its own.
+     */
+    private List<String> takeQueued() {
+        Set<String> ids = new LinkedHashSet<>();
+        List<String> next;
+        while ((next = queued.peek()) != null && (ids.isEmpty() || ids.size() + next.size() <= batchSize)) {
+            ids.addAll(queued.poll());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    /**
+     * Publishes the pending events of {@code tasks}, oldest first, then removes them from the tasks.
+     *
+     * @return the number of events published
+     */
+    int publish(List<Task> tasks) {
+        List<Pending> pending = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task.getPendingEvents() != null) {
+                task.getPendingEvents().forEach(event -> pending.add(new Pending(task, event)));
+            }
+        }
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        pending.sort(Comparator.comparing(p -> p.event.getCreatedAt()));
+
+        // The events of one bulk operation go out as a single bulk event, in the place of the first
+        Map<String, List<Map<String, Object>>> bulkData = new HashMap<>();
+        for (Pending p : pending) {
+            if (p.event.getBatchId() != null) {
+                bulkData.computeIfAbsent(p.event.getBatchId(), id -> new ArrayList<>()).add(p.event.getData());
+            }
+        }
+        Map<String, List<String>> messagesByUser = new LinkedHashMap<>();
+        Set<String> bulksSent = new HashSet<>();
+        for (Pending p : pending) {
+            String userId = p.task.getUserId();
+            String batchId = p.event.getBatchId();
+            String message;
+            if (batchId == null) {
+                message = redisPublisher.taskUpdateMessage(userId, p.task.getId(), p.event.getAction(), p.event.getData());
+            } else if (bulksSent.add(batchId)) {
+                message = redisPublisher.bulkTaskUpdateMessage(userId, p.event.getAction(), bulkData.get(batchId));
+            } else {
+                continue;
+            }
+            messagesByUser.computeIfAbsent(userId, id -> new ArrayList<>()).add(message);
+        }
+
+        // Cache invalidation and all events share one pipeline
+        redisPublisher.publishUserEvents(messagesByUser, messagesByUser.keySet());
+        acknowledge(tasks);
+
+        eventsPublished.addAndGet(pending.size());
+        batchesPublished.incrementAndGet();
+        return pending.size();
+    }
+
+    private void acknowledge(List<Task> tasks) {
+        BulkOperations operations = mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class);
+        for (Task task : tasks) {
+            if (task.getPendingEvents() == null || task.getPendingEvents().isEmpty()) {
+                continue;
+            }
+            // Pull by id, not by position: the task may have gained new events since it was read
+            List<String> eventIds = task.getPendingEvents().stream().map(OutboxEvent::getEventId).toList();
+            operations.updateOne(new Query(Criteria.where("_id").is(task.getId())),
+                    new Update().pull(PENDING_EVENTS, new Document("eventId", new Document("$in", eventIds))));
+        }
+        operations.execute();
+    }
+
+    @Override
+    public String getName() {
+        return JOB_NAME;
+    }
+
+    @Override
+    public Duration getInterval() {
+        return sweepInterval;
+    }
+
+    @Override
+    public void run(JobContext context) {
+        // Younger events are still in flight on the node that wrote them
+        LocalDateTime cutoff = LocalDateTime.now().minus(sweepAfter);
+        int batches = 0;
+        while (batches < maxSweepBatches) {
+            context.checkpoint();
+            List<Task> tasks = mongoOperations.find(new Query(Criteria.where(PENDING_SINCE).lt(cutoff))
+                    .limit(batchSize), Task.class);
+            if (tasks.isEmpty()) {
+                break;
+            }
+            int published = publish(tasks);
+            eventsSwept.addAndGet(published);
+            context.addProcessed(published);
+            batches++;
+            if (tasks.size() < batchSize) {
+                break;
+            }
+        }
+        context.putDetail("batches", batches);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Anything still queued is left in Mongo for the sweep
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queuedTasks", queued.stream().mapToInt(List::size).sum());
+        stats.put("eventsPublished", eventsPublished.get());
+        stats.put("batchesPublished", batchesPublished.get());
+        stats.put("failedBatches", failedBatches.get());
+        stats.put("eventsSwept", eventsSwept.get());
+        return stats;
+    }
+
+    private static final class Pending {
+        private final Task task;
+        private final OutboxEvent event;
+
+        private Pending(Task task, OutboxEvent event) {
+            this.task = task;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.todoapp.model.TaskStatus;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * A structured list request: which of a user's tasks to show, in what order, and which page.
+ *
+ * Built from the {@code listFilter} the chat model returns for LIST_TASKS, and turned into a Mongo
+ * query that the {@code userId}-first indexes on tasks can answer, so listing "what's overdue"
+ * reads the overdue tasks and not the whole list.
+ */
+public class TaskQuery {
+
+    public enum SortOrder { DUE_DATE, RECENT, CREATED }
+
+    static final int DEFAULT_LIMIT = 10;
+    static final int MAX_LIMIT = 25;
+    private static final Set<String> PRIORITIES = Set.of("HIGH", "MEDIUM", "LOW");
+
+    private TaskStatus status;
+    // Every status but DONE; "open" or "pending" in chat usually means this
+    private boolean openOnly;
+    private String priority;
+    private LocalDateTime dueFrom;
+    private LocalDateTime dueBefore;
+    private boolean overdue;
+    private SortOrder sort;
+    private int limit = DEFAULT_LIMIT;
+    private int page;
+
+    /**
+     * Reads a chat model {@code listFilter}. Missing, null or unrecognised fields are left unset,
+     * so a model that returns nothing usable still lists the most recently changed tasks.
+     */
+    public static TaskQuery fromListFilter(JsonNode filter, LocalDate today) {
+        TaskQuery query = new TaskQuery();
+        if (filter == null || !filter.isObject()) {
+            return query;
+        }
+
+        String status = text(filter, "status");
+        if ("OPEN".equals(status)) {
+            query.openOnly = true;
+        } else if (status != null) {
+            try {
+                query.status = TaskStatus.valueOf(status);
+            } catch (IllegalArgumentException e) {
+                // Not a status we know; list without it
+            }
+        }
+
+        String priority = text(filter, "priority");
+        if (priority != null && PRIORITIES.contains(priority)) {
+            query.priority = priority;
+        }
+
+        query.overdue = filter.path("overdue").asBoolean(false);
+        String due = text(filter, "due");
+        if ("OVERDUE".equals(due)) {
+            query.overdue = true;
+        } else if ("TODAY".equals(due)) {
+            query.dueFrom = today.atStartOfDay();
+            query.dueBefore = today.plusDays(1).atStartOfDay();
+        } else if ("THIS_WEEK".equals(due)) {
+            query.dueFrom = today.atStartOfDay();
+            query.dueBefore = today.with(DayOfWeek.SUNDAY).plusDays(1).atStartOfDay();
+        } else if ("NEXT_7_DAYS".equals(due)) {
+            query.dueFrom = today.atStartOfDay();
+            query.dueBefore = today.plusDays(8).atStartOfDay();
+        }
+        LocalDate from = date(filter, "dueFrom");
+        LocalDate to = date(filter, "dueTo");
+        if (from != null) {
+            query.dueFrom = from.atStartOfDay();
+        }
+        if (to != null) {
+            query.dueBefore = to.plusDays(1).atStartOfDay();
+        }
+
+        String sort = text(filter, "sort");
+        if (sort != null) {
+            try {
+                query.sort = SortOrder.valueOf(sort);
+            } catch (IllegalArgumentException e) {
+                // Falls back to the default order
+            }
+        }
+
+        int limit = filter.path("limit").asInt(DEFAULT_LIMIT);
+        query.limit = Math.max(1, Math.min(MAX_LIMIT, limit));
+        int maxPage = TaskSearchService.MAX_OFFSET / query.limit;
+        query.page = Math.max(0, Math.min(maxPage, filter.path("page").asInt(1) - 1));
+        return query;
+    }
+
+    /**
+     * The Mongo query for one page of this request, fetching one task more than the page holds so
+     * callers can tell whether another page follows.
+     */
+    public Query toMongoQuery(String userId, LocalDateTime now) {
+        Criteria criteria = Criteria.where("userId").is(userId).and("deletePending").ne(true);
+        if (status != null) {
+            criteria.and("status").is(status);
+        } else if (openOnly || overdue) {
+            criteria.and("status").ne(TaskStatus.DONE);
+        }
+        if (priority != null) {
+            criteria.and("priority").is(priority);
+        }
+        if (overdue) {
+            criteria.and("dueDate").lt(now);
+        } else if (dueFrom != null && dueBefore != null) {
+            criteria.and("dueDate").gte(dueFrom).lt(dueBefore);
+        } else if (dueFrom != null) {
+            criteria.and("dueDate").gte(dueFrom);
+        } else if (dueBefore != null) {
+            criteria.and("dueDate").lt(dueBefore);
+        } else if (isDatedOnly()) {
+            // Mongo sorts missing due dates first; the most urgent tasks should lead
+            criteria.and("dueDate").ne(null);
+        }
+
+        Query query = new Query(criteria).with(sortOrder());
+        query.skip((long) page * limit).limit(limit + 1);
+        return query;
+    }
+
+    private SortOrder effectiveSort() {
+        return sort != null ? sort : (hasDueFilter() ? SortOrder.DUE_DATE : SortOrder.RECENT);
+    }
+
+    private Sort sortOrder() {
+        switch (effectiveSort()) {
+            case DUE_DATE:
+                return Sort.by(Sort.Direction.ASC, "dueDate").and(Sort.by(Sort.Direction.DESC, "updatedAt"));
+            case CREATED:
+                return Sort.by(Sort.Direction.DESC, "createdAt");
+            default:
+                return Sort.by(Sort.Direction.DESC, "updatedAt");
+        }
+    }
+
+    public boolean hasDueFilter() {
+        return overdue || dueFrom != null || dueBefore != null;
+    }
+
+    /**
+     * Whether only tasks with a due date are listed: in due date order without a due date filter.
+     */
+    public boolean isDatedOnly() {
+        return effectiveSort() == SortOrder.DUE_DATE && !hasDueFilter();
+    }
+
+    public boolean isFiltered() {
+        return status != null || openOnly || priority != null || hasDueFilter() || isDatedOnly();
+    }
+
+    /**
+     * How the chat names the tasks this query lists, e.g. "overdue high priority tasks".
+     */
+    public String describe() {
+        StringBuilder description = new StringBuilder();
+        if (overdue) {
+            description.append("overdue ");
+        } else if (openOnly) {
+            description.append("open ");
+        }
+        if (priority != null) {
+            description.append(priority.toLowerCase(Locale.ROOT)).append(" priority ");
+        }
+        if (status != null) {
+            description.append(status.name().toLowerCase(Locale.ROOT).replace('_', ' ')).append(' ');
+        }
+        description.append("tasks");
+        if (!overdue && dueFrom != null && dueBefore != null) {
+            description.append(" due ").append(dueFrom.toLocalDate())
+                    .append(" to ").append(dueBefore.toLocalDate().minusDays(1));
+        } else if (!overdue && dueFrom != null) {
+            description.append(" due from ").append(dueFrom.toLocalDate());
+        } else if (!overdue && dueBefore != null) {
+            description.append(" due by ").append(dueBefore.toLocalDate().minusDays(1));
+        } else if (isDatedOnly()) {
+            description.append(" with a due date");
+        }
+        return description.toString();
+    }
+
+    private static String text(JsonNode filter, String field) {
+        JsonNode node = filter.get(field);
+        if (node == null || node.isNull() || node.asText().isBlank()) {
+            return null;
+        }
+        return node.asText().trim().toUpperCase(Locale.ROOT).replace(' ', '_');
+    }
+
+    private static LocalDate date(JsonNode filter, String field) {
+        JsonNode node = filter.get(field);
+        if (node == null || node.isNull()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(node.asText().trim());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public boolean isOverdue() {
+        return overdue;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getPage() {
+        return page;
+    }
+}
@@ -0,0 +1,315 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.TaskStatus;
+import com.todoapp.repository.TaskRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory search over a user's task titles, for resolving references like "the dentist task"
+ * in chat.
+ *
+ * Each user's index maps title words and their trigrams to task ids. It is built from Mongo on
+ * the user's first search and then kept current from {@link TasksChangedEvent}s; events that
+ * arrive while it is being built are kept and applied to it once the build is done. Writes made
+ * through another node do not reach it, so an index is rebuilt once it is older than
+ * {@code max-age}; the chosen task is always re-read before it is changed.
+ *
+ * Matches are ranked by trigram similarity (Dice coefficient), the share of query words found in
+ * the title, how recently the task changed, and whether it is still open.
+ */
+@Service
+public class TaskSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchIndex.class);
+
+    // Words that say which task is meant as often as "task" itself does: not at all
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "the", "my", "task", "todo", "to", "of",
+            "for", "and", "on", "in", "one", "item");
+
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double RECENCY_HALF_LIFE_DAYS = 14;
+
+    private final TaskRepository taskRepository;
+
+    @Value("${app.chat.task-index.max-users:1000}")
+    private int maxUsers;
+
+    @Value("${app.chat.task-index.max-age:PT10M}")
+    private Duration maxAge;
+
+    private final Map<String, UserIndex> indexes = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, UserIndex> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    // Builds in progress, by user, collecting the events they would otherwise miss; guarded by indexes
+    private final Map<String, List<PendingBuild>> pendingBuilds = new HashMap<>();
+
+    private final AtomicLong searches = new AtomicLong();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong searchNanos = new AtomicLong();
+
+    public TaskSearchIndex(TaskRepository taskRepository) {
+        this.taskRepository = taskRepository;
+    }
+
+    /**
+     * The best-matching task for {@code query}, if any title is similar enough.
+     */
+    public Optional<TaskResponse> findBestMatch(String userId, String query) {
+        List<TaskResponse> matches = search(userId, query, 1);
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0));
+    }
+
+    /**
+     * Up to {@code limit} tasks whose titles match {@code query}, best first.
+     */
+    public List<TaskResponse> search(String userId, String query, int limit) {
+        UserIndex index = indexFor(userId);
+        long started = System.nanoTime();
+        try {
+            return index.search(query, limit);
+        } finally {
+            searches.incrementAndGet();
+            searchNanos.addAndGet(System.nanoTime() - started);
+        }
+    }
+
+    @EventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        UserIndex index;
+        synchronized (indexes) {
+            index = indexes.get(event.getUserId());
+            // The build may have read the tasks before this write
+            pendingBuilds.getOrDefault(event.getUserId(), List.of()).forEach(build -> build.missed.add(event));
+        }
+        // Users without an index get one built from Mongo when they next search
+        if (index != null) {
+            index.apply(event);
+        }
+    }
+
+    private UserIndex indexFor(String userId) {
+        PendingBuild build = new PendingBuild();
+        synchronized (indexes) {
+            UserIndex index = indexes.get(userId);
+            if (index != null && index.builtAt > System.currentTimeMillis() - maxAge.toMillis()) {
+                return index;
+            }
+            pendingBuilds.computeIfAbsent(userId, id -> new ArrayList<>()).add(build);
+        }
+
+        UserIndex built = new UserIndex();
+        try {
+            taskRepository.findByUserId(userId).forEach(task -> built.put(new TaskResponse(task)));
+        } catch (RuntimeException e) {
+            synchronized (indexes) {
+                endBuild(userId, build);
+            }
+            throw e;
+        }
+        synchronized (indexes) {
+            endBuild(userId, build);
+            // In the order they arrived, and before any later event can reach the index
+            build.missed.forEach(built::apply);
+            indexes.put(userId, built);
+        }
+        builds.incrementAndGet();
+        logger.debug("Built task search index for user {} with {} tasks", userId, built.size());
+        return built;
+    }
+
+    // Caller holds the indexes lock
+    private void endBuild(String userId, PendingBuild build) {
+        List<PendingBuild> userBuilds = pendingBuilds.get(userId);
+        userBuilds.remove(build);
+        if (userBuilds.isEmpty()) {
+            pendingBuilds.remove(userId);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        synchronized (indexes) {
+            stats.put("users", indexes.size());
+        }
+        long count = searches.get();
+        stats.put("searches", count);
+        stats.put("builds", builds.get());
+        stats.put("meanSearchMicros", count > 0 ? searchNanos.get() / count / 1_000 : 0);
+        return stats;
+    }
+
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        for (String word : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty() && !STOP_WORDS.contains(word)) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Trigrams of each word, padded so that word starts and ends are trigrams of their own
+     * ("dentist" gives " de", "den", ..., "st ").
+     */
+    static Set<String> trigrams(List<String> words) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : words) {
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /**
+     * One user's tasks and the postings of their title words and trigrams.
+     */
+    static final class UserIndex {
+        private final Map<String, Entry> entries = new HashMap<>();
+        private final Map<String, Set<String>> wordPostings = new HashMap<>();
+        private final Map<String, Set<String>> trigramPostings = new HashMap<>();
+        private final long builtAt = System.currentTimeMillis();
+
+        synchronized void put(TaskResponse task) {
+            remove(task.getId());
+            List<String> words = words(task.getTitle());
+            Entry entry = new Entry(task, new HashSet<>(words), trigrams(words));
+            entries.put(task.getId(), entry);
+            entry.words.forEach(word -> wordPostings.computeIfAbsent(word, w -> new HashSet<>()).add(task.getId()));
+            entry.trigrams.forEach(gram -> trigramPostings.computeIfAbsent(gram, g -> new HashSet<>()).add(task.getId()));
+        }
+
+        synchronized void apply(TasksChangedEvent event) {
+            event.getChanged().forEach(this::put);
+            event.getDeletedIds().forEach(this::remove);
+        }
+
+        synchronized void remove(String taskId) {
+            Entry entry = entries.remove(taskId);
+            if (entry == null) {
+                return;
+            }
+            entry.words.forEach(word -> unpost(wordPostings, word, taskId));
+            entry.trigrams.forEach(gram -> unpost(trigramPostings, gram, taskId));
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized List<TaskResponse> search(String query, int limit) {
+            List<String> queryWords = new ArrayList<>(new LinkedHashSet<>(words(query)));
+            Set<String> queryTrigrams = trigrams(queryWords);
+            if (queryTrigrams.isEmpty()) {
+                return List.of();
+            }
+
+            // Shared trigram and word counts per candidate, from the postings only
+            Map<String, int[]> shared = new HashMap<>();
+            for (String gram : queryTrigrams) {
+                for (String taskId : trigramPostings.getOrDefault(gram, Set.of())) {
+                    shared.computeIfAbsent(taskId, id -> new int[2])[0]++;
+                }
+            }
+            for (String word : queryWords) {
+                for (String taskId : wordPostings.getOrDefault(word, Set.of())) {
+                    shared.computeIfAbsent(taskId, id -> new int[2])[1]++;
+                }
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<Scored> scored = new ArrayList<>();
+            shared.forEach((taskId, counts) -> {
+                Entry entry = entries.get(taskId);
+                double similarity = 2.0 * counts[0] / (queryTrigrams.size() + entry.trigrams.size());
+                double wordShare = (double) counts[1] / queryWords.size();
+                if (similarity < MIN_SIMILARITY && counts[1] == 0) {
+                    return;
+                }
+                double score = 0.6 * similarity + 0.3 * wordShare + 0.1 * recency(entry.task, now);
+                if (entry.task.getStatus() == TaskStatus.DONE) {
+                    score -= 0.1;
+                }
+                scored.add(new Scored(entry.task, score));
+            });
+
+            scored.sort(Comparator.comparingDouble((Scored s) -> s.score).reversed());
+            List<TaskResponse> results = new ArrayList<>();
+            for (int i = 0; i < Math.min(limit, scored.size()); i++) {
+                results.add(scored.get(i).task);
+            }
+            return results;
+        }
+
+        private static double recency(TaskResponse task, LocalDateTime now) {
+            LocalDateTime changed = task.getUpdatedAt() != null ? task.getUpdatedAt() : task.getCreatedAt();
+            if (changed == null) {
+                return 0;
+            }
+            double ageDays = Math.max(0, Duration.between(changed, now).toMillis()) / 86_400_000.0;
+            return Math.pow(0.5, ageDays / RECENCY_HALF_LIFE_DAYS);
+        }
+
+        private static void unpost(Map<String, Set<String>> postings, String key, String taskId) {
+            Set<String> ids = postings.get(key);
+            if (ids != null && ids.remove(taskId) && ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+
+    private static final class PendingBuild {
+        private final List<TasksChangedEvent> missed = new ArrayList<>();
+    }
+
+    private static final class Entry {
+        private final TaskResponse task;
+        private final Set<String> words;
+        private final Set<String> trigrams;
+
+        private Entry(TaskResponse task, Set<String> words, Set<String> trigrams) {
+            this.task = task;
+            this.words = words;
+            this.trigrams = trigrams;
+        }
+    }
+
+    private static final class Scored {
+        private final TaskResponse task;
+        private final double score;
+
+        private Scored(TaskResponse task, double score) {
+            this.task = task;
+            this.score = score;
+        }
+    }
+}
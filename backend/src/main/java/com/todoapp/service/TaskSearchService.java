@@ -0,0 +1,203 @@
+package com.todoapp.service;
+
+import com.mongodb.client.model.IndexOptions;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.dto.TaskSearchResponse;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskStatus;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Searches a user's tasks in Mongo, so that clients no longer filter their full task list.
+ *
+ * Queries are words, "quoted phrases" and prefixes ({@code dent*}). Words and phrases go to a text
+ * index over title and description, keyed by user first so a search only reads that user's
+ * entries; results are ranked by text score, with title matches weighing five times description
+ * matches. Without phrases, a document must contain at least one of the words. With phrases, it
+ * must contain every phrase, and the words only add to its score: Mongo does not require them
+ * then. The text index cannot match prefixes, so each prefix must start a word of the title or
+ * description; that check runs on the user's tasks only. Prefix-only queries list the newest
+ * changes first.
+ *
+ * Structured lists ({@link TaskQuery}, from chat) are served by compound indexes on user, status
+ * and due date.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchService.class);
+
+    static final String TEXT_INDEX = "task_text";
+    static final int MAX_PAGE_SIZE = 100;
+    // Deep pages would have Mongo skip over a lot of matches
+    static final int MAX_OFFSET = 1_000;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private static final Pattern TOKEN = Pattern.compile("\"([^\"]*)\"?|(\\S+)");
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final MongoOperations mongoOperations;
+
+    public TaskSearchService(MongoOperations mongoOperations) {
+        this.mongoOperations = mongoOperations;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        try {
+            mongoOperations.getCollection(mongoOperations.getCollectionName(Task.class)).createIndex(
+                    new Document("userId", 1).append("title", "text").append("description", "text"),
+                    new IndexOptions().name(TEXT_INDEX)
+                            .weights(new Document("title", 10).append("description", 2)));
+            // For structured lists: by status and due date, by due date alone, and newest changes first
+            IndexOperations indexOps = mongoOperations.indexOps(Task.class);
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("status", Sort.Direction.ASC)
+                    .on("dueDate", Sort.Direction.ASC).named("userId_status_dueDate"));
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("dueDate", Sort.Direction.ASC)
+                    .named("userId_dueDate"));
+            indexOps.ensureIndex(new Index().on("userId", Sort.Direction.ASC).on("updatedAt", Sort.Direction.DESC)
+                    .named("userId_updatedAt"));
+        } catch (Exception e) {
+            logger.error("Could not create search indexes on tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * One page of the user's tasks matching {@code text}, filtered by status and priority when
+     * given. A blank query lists all tasks passing the filters, newest changes first.
+     */
+    public TaskSearchResponse search(String userId, String text, TaskStatus status, String priority, int page, int size) {
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("page must be 0 or more and size between 1 and " + MAX_PAGE_SIZE);
+        }
+        if ((long) page * size > MAX_OFFSET) {
+            throw new IllegalArgumentException("Results past the first " + MAX_OFFSET + " are not available; refine the search");
+        }
+
+        SearchTerms terms = SearchTerms.parse(text);
+        Query query;
+        if (terms.hasTextTerms()) {
+            TextCriteria textCriteria = TextCriteria.forDefaultLanguage();
+            if (!terms.words.isEmpty()) {
+                textCriteria.matchingAny(terms.words.toArray(new String[0]));
+            }
+            terms.phrases.forEach(textCriteria::matchingPhrase);
+            query = TextQuery.queryText(textCriteria).sortByScore();
+        } else {
+            query = new Query().with(Sort.by(Sort.Direction.DESC, "updatedAt"));
+        }
+
+        query.addCriteria(Criteria.where("userId").is(userId).and("deletePending").ne(true));
+        if (status != null) {
+            query.addCriteria(Criteria.where("status").is(status));
+        }
+        if (priority != null && !priority.isBlank()) {
+            query.addCriteria(Criteria.where("priority").is(priority.trim().toUpperCase(Locale.ROOT)));
+        }
+        if (!terms.prefixes.isEmpty()) {
+            query.addCriteria(new Criteria().andOperator(terms.prefixes.stream()
+                    .map(TaskSearchService::startsAWord)
+                    .toArray(Criteria[]::new)));
+        }
+        // One extra result tells whether there is a next page
+        query.skip((long) page * size).limit(size + 1);
+
+        List<Task> tasks = mongoOperations.find(query, Task.class);
+        boolean hasMore = tasks.size() > size;
+        List<TaskResponse> results = tasks.stream()
+                .limit(size)
+                .map(TaskResponse::new)
+                .collect(Collectors.toList());
+        return new TaskSearchResponse(results, page, size, hasMore);
+    }
+
+    /**
+     * One page of the user's tasks selected by a structured {@link TaskQuery}.
+     */
+    public TaskSearchResponse list(String userId, TaskQuery taskQuery) {
+        List<Task> tasks = mongoOperations.find(taskQuery.toMongoQuery(userId, LocalDateTime.now()), Task.class);
+        boolean hasMore = tasks.size() > taskQuery.getLimit();
+        List<TaskResponse> results = tasks.stream()
+                .limit(taskQuery.getLimit())
+                .map(TaskResponse::new)
+                .collect(Collectors.toList());
+        return new TaskSearchResponse(results, taskQuery.getPage(), taskQuery.getLimit(), hasMore);
+    }
+
+    private static Criteria startsAWord(String prefix) {
+        // Prefixes hold letters and digits only, so they need no escaping
+        String regex = "(^|[^\\p{L}\\p{N}])" + prefix;
+        return new Criteria().orOperator(
+                Criteria.where("title").regex(regex, "i"),
+                Criteria.where("description").regex(regex, "i"));
+    }
+
+    /**
+     * A search string split into words, quoted phrases and prefixes.
+     */
+    static final class SearchTerms {
+        final Set<String> words = new LinkedHashSet<>();
+        final List<String> phrases = new ArrayList<>();
+        final Set<String> prefixes = new LinkedHashSet<>();
+
+        static SearchTerms parse(String text) {
+            SearchTerms terms = new SearchTerms();
+            if (text == null) {
+                return terms;
+            }
+            Matcher matcher = TOKEN.matcher(text);
+            while (matcher.find()) {
+                if (matcher.group(1) != null) {
+                    String phrase = NON_WORD.matcher(matcher.group(1)).replaceAll(" ").trim();
+                    if (phrase.contains(" ")) {
+                        terms.phrases.add(phrase);
+                    } else if (!phrase.isEmpty()) {
+                        terms.words.add(phrase.toLowerCase(Locale.ROOT));
+                    }
+                    continue;
+                }
+                String token = matcher.group(2);
+                if (token.endsWith("*")) {
+                    String prefix = NON_WORD.matcher(token).replaceAll("").toLowerCase(Locale.ROOT);
+                    if (prefix.length() >= MIN_PREFIX_LENGTH) {
+                        terms.prefixes.add(prefix);
+                        continue;
+                    }
+                }
+                for (String word : NON_WORD.split(token.toLowerCase(Locale.ROOT))) {
+                    if (!word.isEmpty()) {
+                        terms.words.add(word);
+                    }
+                }
+            }
+            return terms;
+        }
+
+        boolean hasTextTerms() {
+            return !words.isEmpty() || !phrases.isEmpty();
+        }
+    }
+}
@@ -1,21 +1,63 @@
 package com.todoapp.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.IndexOptions;
+import com.todoapp.dto.TaskChangeEvent;
+import com.todoapp.dto.TaskPatchRequest;
 import com.todoapp.dto.TaskRequest;
 import com.todoapp.dto.TaskResponse;
+import com.todoapp.dto.TaskResyncResponse;
+import com.todoapp.dto.TaskSyncRequest;
+import com.todoapp.dto.TaskSyncResponse;
+import com.todoapp.exception.TaskVersionConflictException;
+import com.todoapp.model.OutboxEvent;
 import com.todoapp.model.Task;
 import com.todoapp.model.TaskStatus;
 import com.todoapp.repository.TaskRepository;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 public class TaskService {
 
+    private static final Logger logger = LoggerFactory.getLogger(TaskService.class);
+
+    static final String CLIENT_ID_INDEX = "userId_clientId";
+    private static final int DUPLICATE_KEY = 11000;
+    // Guarded writes lost to concurrent writers are rebuilt and tried again this many times in all
+    private static final int MAX_WRITE_ATTEMPTS = 3;
+
     @Autowired
     private TaskRepository taskRepository;
 
@@ -23,29 +65,87 @@ public class TaskService {
     private RedisPublisher redisPublisher;
 
     @Autowired
-    private SequenceGeneratorService sequenceGeneratorService;    public List<TaskResponse> getAllTasksForUser(String userId) {
-        // Try to get from cache first
-        Object cachedTasks = redisPublisher.getCachedUserTasks(userId);
-        if (cachedTasks != null) {
-            try {
-                @SuppressWarnings("unchecked")
-                List<TaskResponse> tasks = (List<TaskResponse>) cachedTasks;
-                return tasks;
-            } catch (Exception e) {
-                // If cache fails, fall back to database
+    private SequenceGeneratorService sequenceGeneratorService;
+
+    @Autowired
+    private TaskOutboxRelay taskOutboxRelay;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TaskListRefresher taskListRefresher;
+
+    @Autowired
+    private MongoOperations mongoOperations;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.tasks.cache.soft-ttl:PT30S}")
+    private Duration cacheSoftTtl;
+
+    private static final TypeReference<Map<String, Object>> EVENT_DATA = new TypeReference<>() {};
+
+    public List<TaskResponse> getAllTasksForUser(String userId) {
+        return getTaskList(userId, null).getTasks();
+    }
+
+    /**
+     * The user's task list with the list version it reflects (null if unknown). A cached list
+     * older than {@code currentVersion}, when the caller has read it, counts as stale.
+     */
+    public RedisPublisher.CachedTasks getTaskList(String userId, Long currentVersion) {
+        RedisPublisher.CachedTasks cached = redisPublisher.getCachedUserTasks(userId);
+        if (cached != null && cached.isFresh()
+                && (currentVersion == null || currentVersion.equals(cached.getListVersion()))) {
+            // Past the soft TTL the list is still served, and one background read replaces it
+            if (cached.getAgeMillis() > cacheSoftTtl.toMillis()) {
+                taskListRefresher.refreshAsync(userId, () -> loadTasks(userId));
             }
+            return cached;
         }
-        
+
+        // Not cached, or a write made the cached list stale: read Mongo, but if that takes too long
+        // serve the stale list rather than wait
+        return taskListRefresher.load(userId, () -> loadTasks(userId), cached);
+    }
+
+    /**
+     * The current version of the user's task list, for ETags, or null if it is not known.
+     */
+    public Long getTaskListVersion(String userId) {
+        return redisPublisher.getTaskListVersion(userId);
+    }
+
+    private RedisPublisher.CachedTasks loadTasks(String userId) {
+        // Read before the tasks, so the list is never older than the version it is cached with
+        Long listVersion = redisPublisher.getTaskListVersion(userId);
         List<Task> tasks = taskRepository.findByUserId(userId);
         List<TaskResponse> taskResponses = tasks.stream()
             .map(TaskResponse::new)
             .collect(Collectors.toList());
             
         // Cache the results
-        redisPublisher.cacheUserTasks(userId, taskResponses);
+        redisPublisher.cacheUserTasks(userId, taskResponses, listVersion);
         
-        return taskResponses;
-    }    public TaskResponse createTask(TaskRequest taskRequest, String userId) {
+        return new RedisPublisher.CachedTasks(taskResponses, System.currentTimeMillis(), true, listVersion);
+    }
+
+    // Makes a CREATE sent again by a sync, after a timeout say, fail instead of storing a second task
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureClientIdIndex() {
+        try {
+            mongoOperations.getCollection(mongoOperations.getCollectionName(Task.class)).createIndex(
+                    new Document("userId", 1).append("clientId", 1),
+                    new IndexOptions().name(CLIENT_ID_INDEX).unique(true)
+                            .partialFilterExpression(new Document("clientId", new Document("$exists", true))));
+        } catch (Exception e) {
+            logger.error("Could not create the client id index on tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    public TaskResponse createTask(TaskRequest taskRequest, String userId) {
         Task task = new Task();
         task.setTitle(sanitizeInput(taskRequest.getTitle()));
         task.setDescription(sanitizeInput(taskRequest.getDescription()));
@@ -57,50 +157,463 @@ public class TaskService {
         // Generate and assign ticket number
         Integer ticketNumber = sequenceGeneratorService.generateSequence("task_ticket");
         task.setTicketNumber(ticketNumber);
+        task.setVersion(1L);
+        // Assigned up front so the CREATE event can be stored in the same write as the task
+        task.setId(new ObjectId().toHexString());
+        task.addPendingEvent(outboxEvent("CREATE", null, new TaskResponse(task)));
 
         Task savedTask = taskRepository.save(task);
-        TaskResponse taskResponse = new TaskResponse(savedTask);
-        
-        // Invalidate cache and publish update
-        redisPublisher.invalidateUserTasksCache(userId);
-        redisPublisher.publishTaskUpdate(userId, savedTask.getId(), "CREATE", taskResponse);
-        
-        return taskResponse;
-    }    public TaskResponse updateTask(String taskId, TaskRequest taskRequest, String userId) {
+        taskOutboxRelay.publishSoon(List.of(savedTask.getId()));
+
+        TaskResponse response = new TaskResponse(savedTask);
+        eventPublisher.publishEvent(TasksChangedEvent.changed(userId, List.of(response)));
+        return response;
+    }
+
+    /**
+     * Sets the fields present in {@code taskRequest}. PUT carries no version, so the request
+     * applies to the task as it is now: the write is guarded by the version just read, and a write
+     * that lands in between is read back and the changed fields recomputed against it, like
+     * {@link #deleteTask}. Use {@link #patchTask} to refuse changes made since the client's read.
+     *
+     * @throws TaskVersionConflictException if the task kept changing while the write was retried
+     */
+    public TaskResponse updateTask(String taskId, TaskRequest taskRequest, String userId) {
         Task task = taskRepository.findByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
+        LocalDateTime now = LocalDateTime.now();
 
-        if (taskRequest.getTitle() != null) {
-            task.setTitle(sanitizeInput(taskRequest.getTitle()));
+        Task updatedTask = writeGuarded(task, MAX_WRITE_ATTEMPTS, current -> {
+            long nextVersion = versionOf(current) + 1;
+            // Only the changed fields are written and published
+            TaskChangeEvent change = new TaskChangeEvent(taskId, nextVersion);
+            Update update = fieldUpdate(change,
+                    ifChanged(sanitizeInput(taskRequest.getTitle()), current.getTitle()),
+                    ifChanged(sanitizeInput(taskRequest.getDescription()), current.getDescription()),
+                    ifChanged(taskRequest.getStatus(), current.getStatus()),
+                    ifChanged(taskRequest.getDueDate(), current.getDueDate()), null);
+            setField(update, change, "updatedAt", now);
+            return withEvent(update, nextVersion, outboxEvent("UPDATE", null, change));
+        });
+        if (updatedTask == null) {
+            throw new RuntimeException("Task not found");
         }
-        if (taskRequest.getDescription() != null) {
-            task.setDescription(sanitizeInput(taskRequest.getDescription()));
+        taskOutboxRelay.publishSoon(List.of(updatedTask.getId()));
+
+        TaskResponse response = new TaskResponse(updatedTask);
+        eventPublisher.publishEvent(TasksChangedEvent.changed(userId, List.of(response)));
+        return response;
+    }
+
+    /**
+     * Sets only the fields present in {@code patch}, in a single findAndModify that matches the
+     * task only at the version the client edited. The new version and the UPDATE outbox event are
+     * written by the same update, so there is no read before the write.
+     *
+     * @throws TaskVersionConflictException if the task has changed since the client read it
+     */
+    public TaskResponse patchTask(String taskId, TaskPatchRequest patch, String userId) {
+        long expectedVersion = patch.getVersion();
+        long nextVersion = expectedVersion + 1;
+        LocalDateTime now = LocalDateTime.now();
+        TaskChangeEvent change = new TaskChangeEvent(taskId, nextVersion);
+        Update update = fieldUpdate(change, patch.getTitle(), patch.getDescription(), patch.getStatus(),
+                patch.getDueDate(), patch.getPriority());
+        setField(update, change, "updatedAt", now);
+        withEvent(update, nextVersion, outboxEvent("UPDATE", null, change));
+
+        Task updatedTask = mongoOperations.findAndModify(versionGuard(taskId, userId, expectedVersion), update,
+                FindAndModifyOptions.options().returnNew(true), Task.class);
+
+        if (updatedTask == null) {
+            // Only a failed write pays for this read: tell a conflict apart from a missing task
+            Task current = taskRepository.findByIdAndUserId(taskId, userId)
+                .orElseThrow(() -> new RuntimeException("Task not found"));
+            throw new TaskVersionConflictException(new TaskResponse(current));
         }
-        if (taskRequest.getStatus() != null) {
-            task.setStatus(taskRequest.getStatus());
+        taskOutboxRelay.publishSoon(List.of(taskId));
+
+        TaskResponse response = new TaskResponse(updatedTask);
+        eventPublisher.publishEvent(TasksChangedEvent.changed(userId, List.of(response)));
+        return response;
+    }
+
+    /**
+     * Applies a batch of offline mutations in order, as one ordered bulk write in which every
+     * UPDATE and DELETE is guarded by version like {@link #patchTask}. The tasks involved are read
+     * once before the write, to check versions and repeated creates, and once after, to answer
+     * with their current state. All events of the batch share a batch id, so they are published
+     * together as one BULK_SYNC event.
+     */
+    public TaskSyncResponse syncTasks(TaskSyncRequest request, String userId) {
+        List<TaskSyncRequest.Mutation> mutations = request.getMutations();
+        TaskSyncResponse.Result[] results = new TaskSyncResponse.Result[mutations.size()];
+        String batchId = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+
+        List<String> taskIds = new ArrayList<>();
+        List<String> createClientIds = new ArrayList<>();
+        for (TaskSyncRequest.Mutation mutation : mutations) {
+            if (mutation != null && mutation.getOp() == TaskSyncRequest.Operation.CREATE) {
+                if (mutation.getClientId() != null) {
+                    createClientIds.add(mutation.getClientId());
+                }
+            } else if (mutation != null && mutation.getTaskId() != null) {
+                taskIds.add(mutation.getTaskId());
+            }
         }
-        if (taskRequest.getDueDate() != null) {
-            task.setDueDate(taskRequest.getDueDate());
+        Map<String, Task> before = findSyncTasks(userId, taskIds, createClientIds);
+        Map<String, Task> createdBefore = new HashMap<>();
+        before.values().stream()
+                .filter(task -> task.getClientId() != null)
+                .forEach(task -> createdBefore.put(task.getClientId(), task));
+
+        // Ticket numbers for the creates that may be inserted, reserved in one increment
+        Set<String> newClientIds = new HashSet<>();
+        for (TaskSyncRequest.Mutation mutation : mutations) {
+            if (mutation != null && mutation.getOp() == TaskSyncRequest.Operation.CREATE
+                    && mutation.getClientId() != null && !mutation.getClientId().isBlank()
+                    && mutation.getTitle() != null && !mutation.getTitle().isBlank()
+                    && !createdBefore.containsKey(mutation.getClientId())) {
+                newClientIds.add(mutation.getClientId());
+            }
         }
-        task.setUpdatedAt(LocalDateTime.now());
+        int nextTicket = newClientIds.isEmpty() ? 0
+                : sequenceGeneratorService.reserveSequence("task_ticket", newClientIds.size());
 
-        Task updatedTask = taskRepository.save(task);
-        TaskResponse taskResponse = new TaskResponse(updatedTask);
-        
-        // Invalidate cache and publish update
-        redisPublisher.invalidateUserTasksCache(userId);
-        redisPublisher.publishTaskUpdate(userId, updatedTask.getId(), "UPDATE", taskResponse);
-        
-        return taskResponse;
-    }    public void deleteTask(String taskId, String userId) {
+        BulkOperations bulk = mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, Task.class);
+        List<SyncWrite> writes = new ArrayList<>();
+        // Where each task stands after the writes planned so far
+        Map<String, Long> versions = new HashMap<>();
+        Set<String> deletedInBatch = new HashSet<>();
+        // Tasks whose first mutation was refused; the later ones cannot build on it
+        Set<String> refused = new HashSet<>();
+        Map<Integer, String> refusedAfter = new HashMap<>();
+        // Server ids of the tasks created by this batch, or by an earlier send of it
+        Map<String, String> createdIds = new HashMap<>();
+
+        for (int i = 0; i < mutations.size(); i++) {
+            TaskSyncRequest.Mutation mutation = mutations.get(i);
+            if (mutation == null || mutation.getOp() == null || mutation.getClientId() == null
+                    || mutation.getClientId().isBlank()) {
+                results[i] = syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, "op and clientId are required");
+                continue;
+            }
+            String clientId = mutation.getClientId();
+
+            if (mutation.getOp() == TaskSyncRequest.Operation.CREATE) {
+                Task existing = createdBefore.get(clientId);
+                if (existing != null) {
+                    createdIds.put(clientId, existing.getId());
+                    results[i] = syncResult(mutation, TaskSyncResponse.Status.APPLIED, existing, null);
+                    continue;
+                }
+                if (createdIds.containsKey(clientId)) {
+                    results[i] = syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, "clientId is used by another create in this batch");
+                    continue;
+                }
+                if (mutation.getTitle() == null || mutation.getTitle().isBlank()) {
+                    results[i] = syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, "Title is required");
+                    continue;
+                }
+                Task task = new Task();
+                task.setTitle(sanitizeInput(mutation.getTitle()));
+                task.setDescription(sanitizeInput(mutation.getDescription()));
+                task.setStatus(mutation.getStatus() != null ? mutation.getStatus() : TaskStatus.TODO);
+                task.setDueDate(mutation.getDueDate());
+                task.setPriority(mutation.getPriority());
+                task.setUserId(userId);
+                task.setClientId(clientId);
+                task.setTicketNumber(nextTicket++);
+                task.setVersion(1L);
+                task.setId(new ObjectId().toHexString());
+                Map<String, Object> data = objectMapper.convertValue(new TaskResponse(task), EVENT_DATA);
+                data.put("created", true);
+                OutboxEvent event = outboxEvent("BULK_SYNC", batchId, data);
+                task.addPendingEvent(event);
+                bulk.insert(task);
+                writes.add(new SyncWrite(i, task.getId(), event.getEventId()));
+                createdIds.put(clientId, task.getId());
+                versions.put(task.getId(), 1L);
+                continue;
+            }
+
+            String taskId = createdIds.getOrDefault(mutation.getTaskId(), mutation.getTaskId());
+            if (taskId == null) {
+                results[i] = syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, "taskId is required");
+                continue;
+            }
+            if (refused.contains(taskId)) {
+                refusedAfter.put(i, taskId);
+                continue;
+            }
+            if (deletedInBatch.contains(taskId)) {
+                results[i] = syncResult(mutation, TaskSyncResponse.Status.NOT_FOUND, null, "Deleted earlier in this batch");
+                continue;
+            }
+            Long expectedVersion = versions.get(taskId);
+            if (expectedVersion == null) {
+                Task current = before.get(taskId);
+                if (current == null || Boolean.TRUE.equals(current.getDeletePending())) {
+                    results[i] = syncResult(mutation, TaskSyncResponse.Status.NOT_FOUND, null, null);
+                    refused.add(taskId);
+                    continue;
+                }
+                long currentVersion = current.getVersion() != null ? current.getVersion() : 0L;
+                if (mutation.getBaseVersion() == null || mutation.getBaseVersion() != currentVersion) {
+                    results[i] = syncResult(mutation, mutation.getBaseVersion() == null
+                            ? TaskSyncResponse.Status.REJECTED : TaskSyncResponse.Status.CONFLICT,
+                            current, mutation.getBaseVersion() == null ? "baseVersion is required" : null);
+                    refused.add(taskId);
+                    continue;
+                }
+                expectedVersion = currentVersion;
+            }
+            if (mutation.getTitle() != null && mutation.getTitle().isBlank()) {
+                results[i] = syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, "Title must not be blank");
+                refused.add(taskId);
+                continue;
+            }
+
+            long nextVersion = expectedVersion + 1;
+            TaskChangeEvent change;
+            Update update;
+            if (mutation.getOp() == TaskSyncRequest.Operation.DELETE) {
+                change = TaskChangeEvent.tombstone(taskId, nextVersion);
+                update = new Update().set("deletePending", true).set("deletedAt", now).set("updatedAt", now);
+                deletedInBatch.add(taskId);
+            } else {
+                change = new TaskChangeEvent(taskId, nextVersion);
+                update = fieldUpdate(change, mutation.getTitle(), mutation.getDescription(), mutation.getStatus(),
+                        mutation.getDueDate(), mutation.getPriority());
+                setField(update, change, "updatedAt", now);
+            }
+            OutboxEvent event = outboxEvent("BULK_SYNC", batchId, change);
+            withEvent(update, nextVersion, event);
+            bulk.updateOne(versionGuard(taskId, userId, expectedVersion), update);
+            writes.add(new SyncWrite(i, taskId, event.getEventId()));
+            versions.put(taskId, nextVersion);
+        }
+
+        // Ordered: a write error stops the batch, and the writes after it are not attempted
+        int attempted = writes.size();
+        boolean allMatched = false;
+        BulkWriteError failure = null;
+        if (!writes.isEmpty()) {
+            try {
+                BulkWriteResult written = bulk.execute();
+                allMatched = written.getInsertedCount() + written.getMatchedCount() == writes.size();
+            } catch (BulkOperationException e) {
+                failure = e.getErrors().get(0);
+                attempted = failure.getIndex();
+            }
+        }
+
+        List<String> writtenIds = writes.stream().map(write -> write.taskId).collect(Collectors.toList());
+        writtenIds.addAll(refusedAfter.values());
+        List<String> failedCreate = failure != null
+                ? List.of(mutations.get(writes.get(attempted).index).getClientId()) : List.of();
+        Map<String, Task> after = findSyncTasks(userId, writtenIds, failedCreate);
+
+        List<String> appliedIds = new ArrayList<>();
+        for (int k = 0; k < writes.size(); k++) {
+            SyncWrite write = writes.get(k);
+            TaskSyncRequest.Mutation mutation = mutations.get(write.index);
+            Task task = after.get(write.taskId);
+            if (k > attempted || (k == attempted && failure != null)) {
+                Task created = failure != null && failure.getCode() == DUPLICATE_KEY && k == attempted
+                        ? findByClientId(after, mutation.getClientId()) : null;
+                results[write.index] = created != null
+                        // Created by another send of this batch in the meantime
+                        ? syncResult(mutation, TaskSyncResponse.Status.APPLIED, created, null)
+                        : syncResult(mutation, TaskSyncResponse.Status.REJECTED, null, k == attempted
+                                ? "Could not be stored" : "Not attempted after an earlier failure; send it again");
+            } else if (allMatched || (task != null && hasEvent(task, write.eventId))) {
+                results[write.index] = syncResult(mutation, TaskSyncResponse.Status.APPLIED, task, null);
+                appliedIds.add(write.taskId);
+            } else {
+                // Another write got to the task between our read and our write
+                results[write.index] = conflictOrMissing(mutation, task);
+            }
+        }
+        refusedAfter.forEach((index, taskId) -> results[index] = conflictOrMissing(mutations.get(index), after.get(taskId)));
+
+        if (!appliedIds.isEmpty()) {
+            List<String> distinctIds = appliedIds.stream().distinct().collect(Collectors.toList());
+            taskOutboxRelay.publishSoon(distinctIds);
+            List<TaskResponse> changed = new ArrayList<>();
+            List<String> deleted = new ArrayList<>();
+            for (String taskId : distinctIds) {
+                Task task = after.get(taskId);
+                if (task == null || Boolean.TRUE.equals(task.getDeletePending())) {
+                    deleted.add(taskId);
+                } else {
+                    changed.add(new TaskResponse(task));
+                }
+            }
+            eventPublisher.publishEvent(new TasksChangedEvent(userId, changed, deleted));
+        }
+        return new TaskSyncResponse(Arrays.asList(results));
+    }
+
+    /**
+     * The user's tasks with the given ids or client ids, tombstones included, by id.
+     */
+    private Map<String, Task> findSyncTasks(String userId, List<String> taskIds, List<String> clientIds) {
+        if (taskIds.isEmpty() && clientIds.isEmpty()) {
+            return new HashMap<>();
+        }
+        Query query = new Query(Criteria.where("userId").is(userId).orOperator(
+                Criteria.where("_id").in(taskIds), Criteria.where("clientId").in(clientIds)));
+        return mongoOperations.find(query, Task.class).stream()
+                .collect(Collectors.toMap(Task::getId, task -> task, (first, second) -> first, HashMap::new));
+    }
+
+    private static Task findByClientId(Map<String, Task> tasks, String clientId) {
+        return tasks.values().stream().filter(task -> clientId.equals(task.getClientId())).findFirst().orElse(null);
+    }
+
+    // Events stay in the task until the relay publishes them, which only starts after this request
+    private static boolean hasEvent(Task task, String eventId) {
+        return task.getPendingEvents() != null
+                && task.getPendingEvents().stream().anyMatch(event -> eventId.equals(event.getEventId()));
+    }
+
+    private static TaskSyncResponse.Result conflictOrMissing(TaskSyncRequest.Mutation mutation, Task current) {
+        return current == null || Boolean.TRUE.equals(current.getDeletePending())
+                ? syncResult(mutation, TaskSyncResponse.Status.NOT_FOUND, null, null)
+                : syncResult(mutation, TaskSyncResponse.Status.CONFLICT, current, null);
+    }
+
+    private static TaskSyncResponse.Result syncResult(TaskSyncRequest.Mutation mutation, TaskSyncResponse.Status status,
+                                                      Task task, String message) {
+        TaskResponse current = task != null && !Boolean.TRUE.equals(task.getDeletePending()) ? new TaskResponse(task) : null;
+        return new TaskSyncResponse.Result(mutation != null ? mutation.getClientId() : null, status, current, message);
+    }
+
+    /**
+     * A write of a sync batch: which mutation it carries out, on which task, and the id of the
+     * event it stores, by which it is recognised afterwards.
+     */
+    private static final class SyncWrite {
+        private final int index;
+        private final String taskId;
+        private final String eventId;
+
+        private SyncWrite(int index, String taskId, String eventId) {
+            this.index = index;
+            this.taskId = taskId;
+            this.eventId = eventId;
+        }
+    }
+
+    /**
+     * Sets the fields that are not null, recording each in {@code change}.
+     */
+    private Update fieldUpdate(TaskChangeEvent change, String title, String description, TaskStatus status,
+                               LocalDateTime dueDate, String priority) {
+        Update update = new Update();
+        if (title != null) {
+            setField(update, change, "title", sanitizeInput(title));
+        }
+        if (description != null) {
+            setField(update, change, "description", sanitizeInput(description));
+        }
+        if (status != null) {
+            setField(update, change, "status", status);
+        }
+        if (dueDate != null) {
+            setField(update, change, "dueDate", dueDate);
+        }
+        if (priority != null) {
+            setField(update, change, "priority", priority);
+        }
+        return update;
+    }
+
+    /**
+     * Matches the user's task only while it is at {@code expectedVersion} and not deleted.
+     */
+    private static Query versionGuard(String taskId, String userId, long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(taskId).and("userId").is(userId).and("deletePending").ne(true);
+        // Tasks written before versioning have no version and count as version 0
+        criteria = expectedVersion == 0
+                ? criteria.and("version").in(Arrays.asList(null, 0L))
+                : criteria.and("version").is(expectedVersion);
+        return new Query(criteria);
+    }
+
+    private static void setField(Update update, TaskChangeEvent change, String field, Object value) {
+        update.set(field, value);
+        change.putChange(field, value);
+    }
+
+    private static <T> T ifChanged(T value, T current) {
+        return value != null && !value.equals(current) ? value : null;
+    }
+
+    private static long versionOf(Task task) {
+        return task.getVersion() != null ? task.getVersion() : 0L;
+    }
+
+    /**
+     * Writes the update that {@code change} builds from the task as last read, guarded by that
+     * task's version like {@link #patchTask}. When another write gets there first, the task is read
+     * again and the update rebuilt, up to {@code maxAttempts} writes in all. Updates set only the
+     * fields they change and push their own outbox event, so concurrent writers never overwrite
+     * each other's fields or events.
+     *
+     * @return the task as written, or null if it was deleted meanwhile or {@code change} returned null
+     * @throws TaskVersionConflictException if the task kept changing
+     */
+    private Task writeGuarded(Task task, int maxAttempts, Function<Task, Update> change) {
+        Task current = task;
+        for (int attempt = 1; ; attempt++) {
+            Update update = change.apply(current);
+            if (update == null) {
+                return null;
+            }
+            Task written = mongoOperations.findAndModify(
+                    versionGuard(current.getId(), current.getUserId(), versionOf(current)), update,
+                    FindAndModifyOptions.options().returnNew(true), Task.class);
+            if (written != null) {
+                return written;
+            }
+            current = taskRepository.findByIdAndUserId(current.getId(), current.getUserId()).orElse(null);
+            if (current == null) {
+                return null;
+            }
+            if (attempt >= maxAttempts) {
+                throw new TaskVersionConflictException(new TaskResponse(current));
+            }
+        }
+    }
+
+    /**
+     * Adds the new version and {@code event} to {@code update}, so both are stored by the same
+     * write as the change they describe. A new task carries its event from the start instead.
+     */
+    private Update withEvent(Update update, long version, OutboxEvent event) {
+        return update.set("version", version).push("pendingEvents", event);
+    }
+
+    public void deleteTask(String taskId, String userId) {
         Task task = taskRepository.findByIdAndUserId(taskId, userId)
             .orElseThrow(() -> new RuntimeException("Task not found"));
-        
-        taskRepository.delete(task);
-        
-        // Invalidate cache and publish update
-        redisPublisher.invalidateUserTasksCache(userId);
-        redisPublisher.publishTaskUpdate(userId, taskId, "DELETE", null);
+        LocalDateTime now = LocalDateTime.now();
+
+        // Hidden from reads now, and kept as a tombstone for delta syncs (TaskChangesService)
+        Task deleted = writeGuarded(task, MAX_WRITE_ATTEMPTS, current -> {
+            long nextVersion = versionOf(current) + 1;
+            Update update = new Update().set("deletePending", true).set("deletedAt", now).set("updatedAt", now);
+            TaskChangeEvent tombstone = TaskChangeEvent.tombstone(taskId, nextVersion);
+            return withEvent(update, nextVersion, outboxEvent("DELETE", null, tombstone));
+        });
+        if (deleted == null) {
+            throw new RuntimeException("Task not found");
+        }
+        taskOutboxRelay.publishSoon(List.of(taskId));
+        eventPublisher.publishEvent(TasksChangedEvent.deleted(userId, taskId));
     }
 
     public TaskResponse getTaskById(String taskId, String userId) {
@@ -117,32 +630,69 @@ public class TaskService {
         return new TaskResponse(task);
     }    public int bulkMarkTasksComplete(String userId) {
         List<Task> tasks = taskRepository.findByUserId(userId);
-        int updatedCount = 0;
-        List<TaskResponse> updatedTasks = new ArrayList<>();
+        // Events sharing a batch id are published as a single bulk update event
+        String batchId = UUID.randomUUID().toString();
+        List<String> updatedIds = new ArrayList<>();
+        List<TaskResponse> updated = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
         
         for (Task task : tasks) {
-            if (task.getStatus() != TaskStatus.DONE) {
-                task.setStatus(TaskStatus.DONE);
-                task.setUpdatedAt(LocalDateTime.now());
-                taskRepository.save(task);
-                updatedCount++;
-                updatedTasks.add(new TaskResponse(task));
+            Task completed;
+            try {
+                completed = writeGuarded(task, MAX_WRITE_ATTEMPTS, current -> {
+                    if (current.getStatus() == TaskStatus.DONE) {
+                        return null;
+                    }
+                    long nextVersion = versionOf(current) + 1;
+                    TaskChangeEvent change = new TaskChangeEvent(current.getId(), nextVersion);
+                    Update update = fieldUpdate(change, null, null, TaskStatus.DONE, null, null);
+                    setField(update, change, "updatedAt", now);
+                    return withEvent(update, nextVersion, outboxEvent("BULK_MARK_COMPLETE", batchId, change));
+                });
+            } catch (TaskVersionConflictException e) {
+                logger.warn("Task {} kept changing; not marked complete", task.getId());
+                continue;
+            }
+            if (completed != null) {
+                updatedIds.add(completed.getId());
+                updated.add(new TaskResponse(completed));
             }
         }
         
-        // Invalidate cache first
-        redisPublisher.invalidateUserTasksCache(userId);
-        
-        // Get fresh data and cache it
-        List<TaskResponse> freshTasks = getAllTasksForUser(userId);
-        redisPublisher.cacheUserTasks(userId, freshTasks);
-        
-        // Publish a single bulk update event
-        if (updatedCount > 0) {
-            redisPublisher.publishBulkTaskUpdate(userId, "BULK_MARK_COMPLETE", updatedTasks);
+        if (!updatedIds.isEmpty()) {
+            taskOutboxRelay.publishSoon(updatedIds);
+            eventPublisher.publishEvent(TasksChangedEvent.changed(userId, updated));
         }
         
-        return updatedCount;
+        return updatedIds.size();
+    }
+
+    /**
+     * Brings a client that detected a version gap back in line. {@code knownVersions} maps the task
+     * ids the client holds to their versions; only tasks that differ are returned in full.
+     */
+    public TaskResyncResponse resyncTasks(String userId, Map<String, Long> knownVersions) {
+        List<TaskResponse> changed = new ArrayList<>();
+        Set<String> missing = new HashSet<>(knownVersions.keySet());
+
+        for (Task task : taskRepository.findByUserId(userId)) {
+            missing.remove(task.getId());
+            TaskResponse current = new TaskResponse(task);
+            if (!current.getVersion().equals(knownVersions.get(task.getId()))) {
+                changed.add(current);
+            }
+        }
+
+        return new TaskResyncResponse(changed, new ArrayList<>(missing));
+    }
+
+    /**
+     * An event for the task's outbox. It is stored in the task itself, by the write that makes the
+     * change it describes; {@link TaskOutboxRelay} publishes it (and invalidates the user's task
+     * cache) after the write.
+     */
+    private OutboxEvent outboxEvent(String action, String batchId, Object data) {
+        return new OutboxEvent(action, batchId, objectMapper.convertValue(data, EVENT_DATA));
     }
 
     private String sanitizeInput(String input) {
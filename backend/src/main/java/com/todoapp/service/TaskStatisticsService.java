@@ -0,0 +1,581 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskStatus;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user task counts kept in Redis and updated on every task write, so a dashboard reads them
+ * without going through the task list.
+ *
+ * A hash holds the totals by status and by priority, and a second hash each task's counted state
+ * ("version|status|priority"). Counts that depend on when they are read come from sorted sets:
+ * open tasks scored by due date (overdue, due today) and done tasks scored by when they were first
+ * counted as done (completed this week); each is one ZCOUNT.
+ *
+ * Writes arrive as {@link TasksChangedEvent}s and are applied off the request thread by a script
+ * that takes the task's previously counted state out before adding the new one. It ignores older
+ * versions than the counted one and tasks already deleted, so replayed or reordered updates from
+ * several nodes leave the counts right. Counts are only kept for users who have read them; they
+ * are rebuilt from Mongo when missing, which is also how they recover from updates lost while
+ * Redis was down. After each batch, online users get the new counts on /user/queue/statistics.
+ */
+@Service
+public class TaskStatisticsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatisticsService.class);
+
+    private static final String TOTAL = "total";
+    private static final String BUILT_AT = "builtAt";
+    private static final String STATUS_PREFIX = "status:";
+    private static final String PRIORITY_PREFIX = "priority:";
+    private static final List<String> PRIORITIES = List.of("HIGH", "MEDIUM", "LOW");
+    private static final int BATCH_MAX = 256;
+
+    // KEYS: counts, counted states, due zset, done zset, tombstones
+    // ARGV: task id, version, status ('' when deleted), priority, due ms, done-at ms, ttl ms, tombstone ttl ms
+    // Returns -1 when the user's counts are not kept, 0 when the update is older than what is counted
+    static final RedisScript<Long> APPLY_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('exists', KEYS[1]) == 0 then return -1 end " +
+            "local id = ARGV[1] " +
+            "if redis.call('hexists', KEYS[5], id) == 1 then return 0 end " +
+            "local prev = redis.call('hget', KEYS[2], id) " +
+            "if prev then " +
+            "  local pv, ps, pp = string.match(prev, '^([^|]*)|([^|]*)|(.*)$') " +
+            "  if ARGV[3] ~= '' and tonumber(pv) > tonumber(ARGV[2]) then return 0 end " +
+            "  redis.call('hincrby', KEYS[1], 'total', -1) " +
+            "  redis.call('hincrby', KEYS[1], 'status:' .. ps, -1) " +
+            "  if pp ~= '' then redis.call('hincrby', KEYS[1], 'priority:' .. pp, -1) end " +
+            "end " +
+            "if ARGV[3] == '' then " +
+            "  redis.call('hdel', KEYS[2], id) " +
+            "  redis.call('zrem', KEYS[3], id) " +
+            "  redis.call('zrem', KEYS[4], id) " +
+            "  redis.call('hset', KEYS[5], id, '1') " +
+            "  redis.call('pexpire', KEYS[5], ARGV[8]) " +
+            "else " +
+            "  redis.call('hset', KEYS[2], id, ARGV[2] .. '|' .. ARGV[3] .. '|' .. ARGV[4]) " +
+            "  redis.call('hincrby', KEYS[1], 'total', 1) " +
+            "  redis.call('hincrby', KEYS[1], 'status:' .. ARGV[3], 1) " +
+            "  if ARGV[4] ~= '' then redis.call('hincrby', KEYS[1], 'priority:' .. ARGV[4], 1) end " +
+            "  if ARGV[3] ~= 'DONE' and ARGV[5] ~= '' then redis.call('zadd', KEYS[3], ARGV[5], id) " +
+            "  else redis.call('zrem', KEYS[3], id) end " +
+            "  if ARGV[3] == 'DONE' then redis.call('zadd', KEYS[4], 'NX', ARGV[6], id) " +
+            "  else redis.call('zrem', KEYS[4], id) end " +
+            "end " +
+            "for i = 1, 4 do redis.call('pexpire', KEYS[i], ARGV[7]) end " +
+            "return 1",
+            Long.class);
+
+    // Clears the counts for a rebuild and marks them as being built by this caller, unless they are
+    // built already or another node's rebuild started less than the rebuild timeout ago: the
+    // building marker is the cluster-wide rebuild lock.
+    // KEYS: counts, counted states, due zset, done zset; ARGV: now ms, ttl ms, marker, timeout ms
+    // Returns 1 if the caller may rebuild
+    private static final RedisScript<Long> RESET_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hexists', KEYS[1], 'builtAt') == 1 then return 0 end " +
+            "local building = redis.call('hget', KEYS[1], 'building') " +
+            "if building then " +
+            "  local since = tonumber(string.match(building, '^(%d+)')) " +
+            "  if since and since > tonumber(ARGV[1]) - tonumber(ARGV[4]) then return 0 end " +
+            "end " +
+            "redis.call('del', KEYS[1], KEYS[2], KEYS[3], KEYS[4]) " +
+            "redis.call('hset', KEYS[1], 'building', ARGV[3]) " +
+            "redis.call('pexpire', KEYS[1], ARGV[2]) " +
+            "return 1",
+            Long.class);
+
+    // Marks the counts built, only if the caller's rebuild is still the current one
+    // KEYS: counts; ARGV: marker, now ms
+    private static final RedisScript<Long> FINISH_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('hget', KEYS[1], 'building') ~= ARGV[1] then return 0 end " +
+            "redis.call('hset', KEYS[1], 'builtAt', ARGV[2]) " +
+            "redis.call('hdel', KEYS[1], 'building') " +
+            "return 1",
+            Long.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final MongoOperations mongoOperations;
+    private final RedisCircuitBreaker circuitBreaker;
+    private final RedisPublisher redisPublisher;
+    private final PresenceService presenceService;
+
+    @Value("${app.tasks.stats.ttl:P1D}")
+    private Duration ttl;
+
+    @Value("${app.tasks.stats.tombstone-ttl:PT1H}")
+    private Duration tombstoneTtl;
+
+    @Value("${app.tasks.stats.rebuild-timeout:PT1M}")
+    private Duration rebuildTimeout;
+
+    @Value("${app.redis.breaker.max-pending-invalidations:100000}")
+    private int maxStaleUsers;
+
+    private final Queue<TasksChangedEvent> queued = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "task-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Users whose updates could not be applied; their counts are dropped once Redis is back
+    private final Set<String> staleUsers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Object> rebuildLocks = new ConcurrentHashMap<>();
+
+    private final AtomicLong updatesApplied = new AtomicLong();
+    private final AtomicLong updatesSkipped = new AtomicLong();
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong mongoReads = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+    private final AtomicLong droppedStaleUsers = new AtomicLong();
+
+    public TaskStatisticsService(RedisTemplate<String, Object> redisTemplate, MongoOperations mongoOperations,
+                                 RedisCircuitBreaker circuitBreaker, RedisPublisher redisPublisher,
+                                 PresenceService presenceService) {
+        this.redisTemplate = redisTemplate;
+        this.mongoOperations = mongoOperations;
+        this.circuitBreaker = circuitBreaker;
+        this.redisPublisher = redisPublisher;
+        this.presenceService = presenceService;
+    }
+
+    @PostConstruct
+    public void registerRecoveryListener() {
+        circuitBreaker.addRecoveryListener(() -> executor.execute(this::dropStaleCounts));
+    }
+
+    /**
+     * The user's task counts: {@code total}, {@code byStatus}, {@code byPriority}, {@code overdue},
+     * {@code dueToday} and {@code completedThisWeek}. Counted in Mongo while Redis is unavailable.
+     */
+    public Map<String, Object> getStatistics(String userId) {
+        Map<String, Object> statistics = circuitBreaker.call(() -> readCounts(userId), () -> null);
+        if (statistics != null) {
+            return statistics;
+        }
+        if (!circuitBreaker.isOpen()) {
+            // Not kept yet, expired or dropped
+            try {
+                rebuild(userId);
+                statistics = readCounts(userId);
+                if (statistics != null) {
+                    return statistics;
+                }
+            } catch (RuntimeException e) {
+                circuitBreaker.recordFailure();
+                logger.warn("Could not rebuild task statistics of user {}: {}", userId, e.getMessage());
+            }
+        }
+        mongoReads.incrementAndGet();
+        return countTasks(loadTasks(userId), LocalDateTime.now());
+    }
+
+    @EventListener
+    public void onTasksChanged(TasksChangedEvent event) {
+        queued.add(event);
+        if (draining.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!queued.isEmpty()) {
+                List<TasksChangedEvent> batch = new ArrayList<>();
+                TasksChangedEvent event;
+                while (batch.size() < BATCH_MAX && (event = queued.poll()) != null) {
+                    batch.add(event);
+                }
+                Set<String> updated = apply(batch);
+                updated.forEach(this::push);
+            }
+        } finally {
+            draining.set(false);
+            // Events queued after the last isEmpty check would otherwise wait for the next write
+            if (!queued.isEmpty() && draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    /**
+     * Applies a batch of task changes in one pipeline.
+     *
+     * @return the users whose counts changed
+     */
+    Set<String> apply(List<TasksChangedEvent> batch) {
+        List<String> users = new ArrayList<>();
+        List<List<String>> argsList = new ArrayList<>();
+        for (TasksChangedEvent event : batch) {
+            for (TaskResponse task : event.getChanged()) {
+                users.add(event.getUserId());
+                argsList.add(applyArgs(task.getId(), task));
+            }
+            for (String taskId : event.getDeletedIds()) {
+                users.add(event.getUserId());
+                argsList.add(applyArgs(taskId, null));
+            }
+        }
+        Set<String> updated = new LinkedHashSet<>();
+        if (users.isEmpty()) {
+            return updated;
+        }
+        if (!circuitBreaker.allowRequest()) {
+            markStale(users);
+            return updated;
+        }
+
+        List<Object> results;
+        try {
+            results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (int i = 0; i < users.size(); i++) {
+                    eval(connection, APPLY_SCRIPT, keys(users.get(i)), argsList.get(i));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            markStale(users);
+            logger.warn("Could not update task statistics of {} users: {}", new LinkedHashSet<>(users).size(), e.getMessage());
+            return updated;
+        }
+        circuitBreaker.recordResult(0);
+
+        for (int i = 0; i < users.size(); i++) {
+            Object result = i < results.size() ? results.get(i) : null;
+            if (result instanceof Long applied && applied == 1) {
+                updatesApplied.incrementAndGet();
+                updated.add(users.get(i));
+            } else {
+                updatesSkipped.incrementAndGet();
+            }
+        }
+        return updated;
+    }
+
+    private void push(String userId) {
+        if (!presenceService.isOnline(userId)) {
+            return;
+        }
+        Map<String, Object> statistics = circuitBreaker.call(() -> readCounts(userId), () -> null);
+        if (statistics != null) {
+            redisPublisher.publishTaskStatistics(userId, statistics);
+            pushes.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reads the user's counts in one pipeline, or returns null if they are not kept.
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readCounts(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate today = now.toLocalDate();
+        double nowMillis = millis(now);
+        double todayStart = millis(today.atStartOfDay());
+        double tomorrowStart = millis(today.plusDays(1).atStartOfDay());
+        double weekStart = millis(startOfWeek(today));
+
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            connection.hashCommands().hGetAll(bytes(RedisKeys.taskStats(userId)));
+            byte[] due = bytes(RedisKeys.taskStatsDue(userId));
+            connection.zSetCommands().zCount(due, Double.NEGATIVE_INFINITY, nowMillis - 1);
+            connection.zSetCommands().zCount(due, todayStart, tomorrowStart - 1);
+            connection.zSetCommands().zCount(bytes(RedisKeys.taskStatsDone(userId)), weekStart, Double.POSITIVE_INFINITY);
+            return null;
+        });
+        if (results.size() < 4 || !(results.get(0) instanceof Map)) {
+            return null;
+        }
+        Map<Object, Object> counts = (Map<Object, Object>) results.get(0);
+        if (!counts.containsKey(BUILT_AT)) {
+            return null;
+        }
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status.name(), count(counts.get(STATUS_PREFIX + status.name())));
+        }
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        for (String priority : PRIORITIES) {
+            byPriority.put(priority, count(counts.get(PRIORITY_PREFIX + priority)));
+        }
+        return statistics(count(counts.get(TOTAL)), byStatus, byPriority,
+                count(results.get(1)), count(results.get(2)), count(results.get(3)));
+    }
+
+    /**
+     * Recounts the user's tasks from Mongo. Updates applied meanwhile are kept: the counts are
+     * cleared before Mongo is read, and the script skips tasks already counted at a later version.
+     * Only one node rebuilds a user's counts at a time (see RESET_SCRIPT); the others read Mongo
+     * until the counts are built.
+     */
+    private void rebuild(String userId) {
+        Object lock = rebuildLocks.computeIfAbsent(userId, id -> new Object());
+        synchronized (lock) {
+            try {
+                String marker = System.currentTimeMillis() + ":" + UUID.randomUUID();
+                Long reset = redisTemplate.execute(RESET_SCRIPT, keys(userId).subList(0, 4),
+                        String.valueOf(System.currentTimeMillis()), String.valueOf(ttl.toMillis()), marker,
+                        String.valueOf(rebuildTimeout.toMillis()));
+                if (reset == null || reset != 1) {
+                    return;
+                }
+                List<Task> tasks = loadTasks(userId);
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    List<String> keys = keys(userId);
+                    for (Task task : tasks) {
+                        eval(connection, APPLY_SCRIPT, keys, applyArgs(task.getId(), new TaskResponse(task)));
+                    }
+                    eval(connection, FINISH_SCRIPT, keys.subList(0, 1),
+                            List.of(marker, String.valueOf(System.currentTimeMillis())));
+                    return null;
+                });
+                rebuilds.incrementAndGet();
+                logger.debug("Rebuilt task statistics of user {} from {} tasks", userId, tasks.size());
+            } finally {
+                rebuildLocks.remove(userId, lock);
+            }
+        }
+    }
+
+    private List<Task> loadTasks(String userId) {
+        Query query = new Query(Criteria.where("userId").is(userId).and("deletePending").ne(true));
+        query.fields().include("status", "priority", "dueDate", "updatedAt", "version", "userId");
+        return mongoOperations.find(query, Task.class);
+    }
+
+    /**
+     * The statistics of {@code tasks} counted directly, as they would be read from Redis.
+     */
+    static Map<String, Object> countTasks(List<Task> tasks, LocalDateTime now) {
+        LocalDate today = now.toLocalDate();
+        LocalDateTime todayStart = today.atStartOfDay();
+        LocalDateTime tomorrowStart = today.plusDays(1).atStartOfDay();
+        LocalDateTime weekStart = startOfWeek(today);
+
+        Map<String, Long> byStatus = new LinkedHashMap<>();
+        for (TaskStatus status : TaskStatus.values()) {
+            byStatus.put(status.name(), 0L);
+        }
+        Map<String, Long> byPriority = new LinkedHashMap<>();
+        PRIORITIES.forEach(priority -> byPriority.put(priority, 0L));
+        long overdue = 0;
+        long dueToday = 0;
+        long completedThisWeek = 0;
+        for (Task task : tasks) {
+            TaskStatus status = task.getStatus() != null ? task.getStatus() : TaskStatus.TODO;
+            byStatus.merge(status.name(), 1L, Long::sum);
+            if (task.getPriority() != null) {
+                byPriority.merge(task.getPriority(), 1L, Long::sum);
+            }
+            if (status == TaskStatus.DONE) {
+                if (task.getUpdatedAt() != null && !task.getUpdatedAt().isBefore(weekStart)) {
+                    completedThisWeek++;
+                }
+            } else if (task.getDueDate() != null) {
+                if (task.getDueDate().isBefore(now)) {
+                    overdue++;
+                }
+                if (!task.getDueDate().isBefore(todayStart) && task.getDueDate().isBefore(tomorrowStart)) {
+                    dueToday++;
+                }
+            }
+        }
+        return statistics(tasks.size(), byStatus, byPriority, overdue, dueToday, completedThisWeek);
+    }
+
+    private static Map<String, Object> statistics(long total, Map<String, Long> byStatus, Map<String, Long> byPriority,
+                                                  long overdue, long dueToday, long completedThisWeek) {
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("total", total);
+        statistics.put("byStatus", byStatus);
+        statistics.put("byPriority", byPriority);
+        statistics.put("overdue", overdue);
+        statistics.put("dueToday", dueToday);
+        statistics.put("completedThisWeek", completedThisWeek);
+        statistics.put("computedAt", System.currentTimeMillis());
+        return statistics;
+    }
+
+    /**
+     * Script arguments counting {@code task} as it is now, or its deletion when it is null.
+     */
+    List<String> applyArgs(String taskId, TaskResponse task) {
+        List<String> args = new ArrayList<>(8);
+        args.add(taskId);
+        if (task == null) {
+            args.add("0");
+            args.add("");
+            args.add("");
+            args.add("");
+            args.add("");
+        } else {
+            TaskStatus status = task.getStatus() != null ? task.getStatus() : TaskStatus.TODO;
+            args.add(String.valueOf(task.getVersion() != null ? task.getVersion() : 0L));
+            args.add(status.name());
+            args.add(task.getPriority() != null ? task.getPriority() : "");
+            args.add(task.getDueDate() != null ? String.valueOf((long) millis(task.getDueDate())) : "");
+            // The first time a task is counted as done; later updates keep it (ZADD NX)
+            LocalDateTime doneAt = task.getUpdatedAt() != null ? task.getUpdatedAt() : LocalDateTime.now();
+            args.add(String.valueOf((long) millis(doneAt)));
+        }
+        args.add(String.valueOf(ttl.toMillis()));
+        args.add(String.valueOf(tombstoneTtl.toMillis()));
+        return args;
+    }
+
+    private void markStale(List<String> users) {
+        for (String userId : users) {
+            if (staleUsers.size() >= maxStaleUsers && !staleUsers.contains(userId)) {
+                // Such a user's counts may be off until they expire (app.tasks.stats.ttl)
+                droppedStaleUsers.incrementAndGet();
+            } else {
+                staleUsers.add(userId);
+            }
+        }
+    }
+
+    /**
+     * Drops the counts of users whose updates were lost, so their next read rebuilds them. Also
+     * probes Redis while the breaker is open, like the task cache invalidation replay.
+     */
+    @Scheduled(fixedDelayString = "${app.redis.breaker.open-duration:PT10S}")
+    public void retryStaleCounts() {
+        if (!staleUsers.isEmpty()) {
+            dropStaleCounts();
+        }
+    }
+
+    void dropStaleCounts() {
+        List<String> batch = new ArrayList<>();
+        for (String userId : staleUsers) {
+            batch.add(userId);
+            if (batch.size() >= BATCH_MAX) {
+                if (!deleteCounts(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            deleteCounts(batch);
+        }
+    }
+
+    private boolean deleteCounts(List<String> userIds) {
+        if (!circuitBreaker.allowRequest()) {
+            return false;
+        }
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                for (String userId : userIds) {
+                    connection.keyCommands().del(bytes(RedisKeys.taskStats(userId)));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            logger.warn("Could not drop stale task statistics of {} users: {}", userIds.size(), e.getMessage());
+            return false;
+        }
+        circuitBreaker.recordResult(0);
+        userIds.forEach(staleUsers::remove);
+        return true;
+    }
+
+    private static List<String> keys(String userId) {
+        return List.of(RedisKeys.taskStats(userId), RedisKeys.taskStatsEntries(userId), RedisKeys.taskStatsDue(userId),
+                RedisKeys.taskStatsDone(userId), RedisKeys.taskStatsDeleted(userId));
+    }
+
+    private static void eval(RedisConnection connection, RedisScript<Long> script, List<String> keys, List<String> args) {
+        byte[][] keysAndArgs = new byte[keys.size() + args.size()][];
+        int i = 0;
+        for (String key : keys) {
+            keysAndArgs[i++] = bytes(key);
+        }
+        for (String arg : args) {
+            keysAndArgs[i++] = bytes(arg);
+        }
+        connection.scriptingCommands().eval(bytes(script.getScriptAsString()), ReturnType.INTEGER, keys.size(), keysAndArgs);
+    }
+
+    private static LocalDateTime startOfWeek(LocalDate today) {
+        return today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+    }
+
+    private static double millis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static long count(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("queued", queued.size());
+        stats.put("updatesApplied", updatesApplied.get());
+        stats.put("updatesSkipped", updatesSkipped.get());
+        stats.put("rebuilds", rebuilds.get());
+        stats.put("mongoReads", mongoReads.get());
+        stats.put("pushes", pushes.get());
+        stats.put("staleUsers", staleUsers.size());
+        stats.put("droppedStaleUsers", droppedStaleUsers.get());
+        return stats;
+    }
+}
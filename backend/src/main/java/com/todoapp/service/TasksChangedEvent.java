@@ -0,0 +1,42 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+
+import java.util.List;
+
+/**
+ * Application event for task writes seen by this node: the tasks as they are now, and the ids of
+ * deleted ones. Published after the write is stored.
+ */
+public class TasksChangedEvent {
+
+    private final String userId;
+    private final List<TaskResponse> changed;
+    private final List<String> deletedIds;
+
+    public TasksChangedEvent(String userId, List<TaskResponse> changed, List<String> deletedIds) {
+        this.userId = userId;
+        this.changed = changed;
+        this.deletedIds = deletedIds;
+    }
+
+    public static TasksChangedEvent changed(String userId, List<TaskResponse> tasks) {
+        return new TasksChangedEvent(userId, tasks, List.of());
+    }
+
+    public static TasksChangedEvent deleted(String userId, String taskId) {
+        return new TasksChangedEvent(userId, List.of(), List.of(taskId));
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public List<TaskResponse> getChanged() {
+        return changed;
+    }
+
+    public List<String> getDeletedIds() {
+        return deletedIds;
+    }
+}
@@ -0,0 +1,231 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers user events to STOMP sessions, holding task events for a short per-user window so a
+ * burst becomes one frame.
+ *
+ * The window slides with each new event but a buffer is never held longer than the max latency.
+ * A buffer holding a single event is forwarded as the original bytes; several events are sent as
+ * one TASK_BATCH frame in which consecutive deltas for the same task are merged.
+ */
+@Component
+public class UserEventCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventCoalescer.class);
+
+    private static final String TASK_DESTINATION = "/queue/tasks";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ObjectMapper objectMapper;
+    private final long windowMillis;
+    private final long maxLatencyMillis;
+    private final int maxEvents;
+
+    private final Map<String, Buffer> buffers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+
+    private final AtomicLong eventsIn = new AtomicLong();
+    private final AtomicLong framesOut = new AtomicLong();
+    private final AtomicLong eventsMerged = new AtomicLong();
+
+    public UserEventCoalescer(SimpMessagingTemplate messagingTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${app.websocket.coalesce.window:50ms}") Duration window,
+                              @Value("${app.websocket.coalesce.max-latency:250ms}") Duration maxLatency,
+                              @Value("${app.websocket.coalesce.max-events:100}") int maxEvents) {
+        this.messagingTemplate = messagingTemplate;
+        this.objectMapper = objectMapper;
+        this.windowMillis = window.toMillis();
+        this.maxLatencyMillis = Math.max(maxLatency.toMillis(), windowMillis);
+        this.maxEvents = maxEvents;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ws-coalescer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends {@code body} (pre-serialized JSON) to the user's destination, immediately or after the
+     * coalescing window for task events.
+     */
+    public void dispatch(String userId, String destination, byte[] body) {
+        eventsIn.incrementAndGet();
+        if (windowMillis <= 0 || !TASK_DESTINATION.equals(destination)) {
+            send(userId, destination, body);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        Buffer[] full = new Buffer[1];
+        buffers.compute(userId, (id, buffer) -> {
+            if (buffer == null) {
+                buffer = new Buffer(now);
+                flusher.schedule(() -> flushIfDue(id), windowMillis, TimeUnit.MILLISECONDS);
+            }
+            buffer.events.add(body);
+            buffer.lastEventAt = now;
+            if (buffer.events.size() >= maxEvents) {
+                full[0] = buffer;
+                return null;
+            }
+            return buffer;
+        });
+        if (full[0] != null) {
+            flush(userId, full[0]);
+        }
+    }
+
+    private void flushIfDue(String userId) {
+        long now = System.currentTimeMillis();
+        Buffer[] due = new Buffer[1];
+        buffers.computeIfPresent(userId, (id, buffer) -> {
+            long quietUntil = buffer.lastEventAt + windowMillis;
+            long deadline = buffer.firstEventAt + maxLatencyMillis;
+            if (now < quietUntil && now < deadline) {
+                flusher.schedule(() -> flushIfDue(id), Math.min(quietUntil, deadline) - now, TimeUnit.MILLISECONDS);
+                return buffer;
+            }
+            due[0] = buffer;
+            return null;
+        });
+        if (due[0] != null) {
+            flush(userId, due[0]);
+        }
+    }
+
+    private void flush(String userId, Buffer buffer) {
+        try {
+            if (buffer.events.size() == 1) {
+                send(userId, TASK_DESTINATION, buffer.events.get(0));
+                return;
+            }
+            Map<String, Object> batch = new LinkedHashMap<>();
+            batch.put("type", "TASK_BATCH");
+            batch.put("userId", userId);
+            batch.put("events", merge(buffer.events));
+            batch.put("timestamp", System.currentTimeMillis());
+            send(userId, TASK_DESTINATION, objectMapper.writeValueAsBytes(batch));
+        } catch (Exception e) {
+            logger.error("Error flushing coalesced events for user {}: {}", userId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Merges consecutive changes to the same task into one event. A bulk event is an ordering
+     * barrier: a later delta is never folded into one sent before it.
+     */
+    @SuppressWarnings("unchecked")
+    List<Map<String, Object>> merge(List<byte[]> events) throws IOException {
+        List<Map<String, Object>> merged = new ArrayList<>();
+        Map<String, Map<String, Object>> openByTask = new HashMap<>();
+
+        for (byte[] raw : events) {
+            Map<String, Object> event = objectMapper.readValue(raw, Map.class);
+            String taskId = (String) event.get("taskId");
+            if (!"TASK_UPDATE".equals(event.get("type")) || taskId == null) {
+                openByTask.clear();
+                merged.add(event);
+                continue;
+            }
+
+            Map<String, Object> previous = openByTask.get(taskId);
+            if (previous == null || "DELETE".equals(previous.get("action"))) {
+                openByTask.put(taskId, event);
+                merged.add(event);
+                continue;
+            }
+
+            eventsMerged.incrementAndGet();
+            Map<String, Object> previousData = (Map<String, Object>) previous.get("data");
+            if (!previous.containsKey("baseVersion") && previousData != null && previousData.get("version") instanceof Number v) {
+                // Lets the client accept a delta that spans several versions without resyncing
+                previous.put("baseVersion", v.longValue() - 1);
+            }
+            if ("DELETE".equals(event.get("action"))) {
+                previous.put("action", "DELETE");
+                previous.put("data", event.get("data"));
+            } else if (previousData != null && event.get("data") instanceof Map<?, ?> data) {
+                previousData.putAll((Map<String, Object>) data);
+            }
+            previous.put("timestamp", event.get("timestamp"));
+            if (event.containsKey("eventId")) {
+                previous.put("eventId", event.get("eventId"));
+            }
+        }
+        return merged;
+    }
+
+    private void send(String userId, String destination, byte[] body) {
+        // Same destination convertAndSendToUser would build, but the payload skips the converters
+        String userDestination = messagingTemplate.getUserDestinationPrefix()
+                + userId.replace("/", "%2F") + destination;
+        messagingTemplate.send(userDestination, jsonMessage(body));
+        framesOut.incrementAndGet();
+    }
+
+    public static Message<byte[]> jsonMessage(byte[] body) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(body, accessor.getMessageHeaders());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdownNow();
+        for (String userId : List.copyOf(buffers.keySet())) {
+            Buffer buffer = buffers.remove(userId);
+            if (buffer != null) {
+                flush(userId, buffer);
+            }
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("windowMs", windowMillis);
+        stats.put("maxLatencyMs", maxLatencyMillis);
+        stats.put("pendingUsers", buffers.size());
+        stats.put("eventsIn", eventsIn.get());
+        stats.put("framesOut", framesOut.get());
+        stats.put("eventsMerged", eventsMerged.get());
+        return stats;
+    }
+
+    private static final class Buffer {
+        private final long firstEventAt;
+        private long lastEventAt;
+        private final List<byte[]> events = new ArrayList<>();
+
+        private Buffer(long firstEventAt) {
+            this.firstEventAt = firstEventAt;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package com.todoapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Durable per-user log of real-time events, kept in a Redis stream {@code events:{userId}}.
+ *
+ * Every user event is appended (length-capped, with an idle expiry) and published in one script,
+ * and the published copy carries the stream entry id as {@code eventId}. A reconnecting client
+ * sends the last id it saw and is replayed only the entries after it. When those entries have
+ * already been trimmed the client is told to resync instead.
+ */
+@Service
+public class UserEventLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEventLog.class);
+
+    private static final String FIELD = "e";
+
+    // KEYS[1] stream; ARGV: maxlen, event json, ttl ms, channel, publish flag, publish command
+    // (publish or spublish). Returns the entry id, or nil when the user is offline and has no recent
+    // log (a client that far behind resyncs anyway).
+    private static final RedisScript<String> APPEND_SCRIPT = new DefaultRedisScript<>(
+            "if ARGV[5] == '0' and redis.call('exists', KEYS[1]) == 0 then return false end " +
+            "local id = redis.call('xadd', KEYS[1], 'MAXLEN', '~', ARGV[1], '*', 'e', ARGV[2]) " +
+            "redis.call('pexpire', KEYS[1], ARGV[3]) " +
+            "if ARGV[5] == '1' then " +
+            "  redis.call(ARGV[6], ARGV[4], string.sub(ARGV[2], 1, -2) .. ',\"eventId\":\"' .. id .. '\"}') " +
+            "end " +
+            "return id",
+            String.class);
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    // Sharded channels share the hash slot of the user's stream, so SPUBLISH is allowed in the script
+    @Value("${app.redis.pubsub.sharded:false}")
+    private boolean sharded;
+
+    @Value("${app.events.log.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.events.log.max-len:1000}")
+    private long maxLen;
+
+    @Value("${app.events.log.retention:PT24H}")
+    private Duration retention;
+
+    @Value("${app.events.log.replay-max:500}")
+    private int replayMax;
+
+    public UserEventLog(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends {@code json} (a JSON object) to the user's log and, if {@code publish} is set,
+     * publishes it with its eventId to {@code channel}.
+     *
+     * @return the entry id, or null if the event was not logged
+     */
+    public String append(String userId, String json, String channel, boolean publish) {
+        return redisTemplate.execute(APPEND_SCRIPT, Collections.singletonList(streamKey(userId)),
+                String.valueOf(maxLen), json, String.valueOf(retention.toMillis()), channel, publish ? "1" : "0", publishCommand());
+    }
+
+    /**
+     * Same as {@link #append(String, String, String, boolean)}, queued on {@code connection} so
+     * that several appends can share one pipeline. The reply is returned by the pipeline.
+     */
+    public void append(RedisConnection connection, String userId, String json, String channel, boolean publish) {
+        connection.scriptingCommands().eval(bytes(APPEND_SCRIPT.getScriptAsString()), ReturnType.VALUE, 1,
+                bytes(streamKey(userId)), bytes(String.valueOf(maxLen)), bytes(json),
+                bytes(String.valueOf(retention.toMillis())), bytes(channel), bytes(publish ? "1" : "0"),
+                bytes(publishCommand()));
+    }
+
+    /**
+     * Entries logged after {@code lastEventId}, with their eventIds, oldest first.
+     */
+    public Replay readAfter(String userId, String lastEventId) {
+        RecordId last = parseId(lastEventId);
+        if (last == null) {
+            return Replay.resync();
+        }
+
+        String key = streamKey(userId);
+        // Read one past the cap so an overflow is detectable; the range includes lastEventId itself
+        List<MapRecord<String, Object, Object>> records = redisTemplate.opsForStream().range(key,
+                Range.rightUnbounded(Range.Bound.inclusive(lastEventId)), Limit.limit().count(replayMax + 2));
+        if (records == null || records.isEmpty() || compare(records.get(0).getId(), last) > 0) {
+            // lastEventId is no longer in the log: either it was trimmed or the log expired
+            return Replay.resync();
+        }
+
+        List<String> events = new ArrayList<>();
+        for (MapRecord<String, Object, Object> record : records) {
+            if (compare(record.getId(), last) <= 0) {
+                continue;
+            }
+            Object json = record.getValue().get(FIELD);
+            if (json != null) {
+                events.add(withEventId(json.toString(), record.getId().getValue()));
+            }
+        }
+        if (events.size() > replayMax) {
+            return Replay.resync();
+        }
+        return new Replay(events, false);
+    }
+
+    public void savePosition(String userId, String clientId, String eventId) {
+        if (parseId(eventId) == null) {
+            return;
+        }
+        String key = positionsKey(userId);
+        redisTemplate.opsForHash().put(key, clientId, eventId);
+        redisTemplate.expire(key, retention);
+    }
+
+    public String getPosition(String userId, String clientId) {
+        Object position = redisTemplate.opsForHash().get(positionsKey(userId), clientId);
+        return position != null ? position.toString() : null;
+    }
+
+    static String withEventId(String json, String eventId) {
+        return json.substring(0, json.length() - 1) + ",\"eventId\":\"" + eventId + "\"}";
+    }
+
+    private static RecordId parseId(String eventId) {
+        if (eventId == null || eventId.isBlank()) {
+            return null;
+        }
+        try {
+            RecordId id = RecordId.of(eventId);
+            return id.shouldBeAutoGenerated() ? null : id;
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring malformed event id {}", eventId);
+            return null;
+        }
+    }
+
+    private static int compare(RecordId a, RecordId b) {
+        int byTime = Long.compare(a.getTimestamp(), b.getTimestamp());
+        return byTime != 0 ? byTime : Long.compare(a.getSequence(), b.getSequence());
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String publishCommand() {
+        return sharded ? "spublish" : "publish";
+    }
+
+    private String streamKey(String userId) {
+        return RedisKeys.eventLog(userId);
+    }
+
+    private String positionsKey(String userId) {
+        return RedisKeys.eventPositions(userId);
+    }
+
+    public static final class Replay {
+        private final List<String> events;
+        private final boolean resyncRequired;
+
+        Replay(List<String> events, boolean resyncRequired) {
+            this.events = events;
+            this.resyncRequired = resyncRequired;
+        }
+
+        static Replay resync() {
+            return new Replay(List.of(), true);
+        }
+
+        public List<String> getEvents() {
+            return events;
+        }
+
+        public boolean isResyncRequired() {
+            return resyncRequired;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.todoapp.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks which users have STOMP sessions on this node.
+ *
+ * Every node sees every Redis event, but only the node holding a user's session should deliver it;
+ * with a broker relay, delivering from every node would duplicate frames. Spring's SimpUserRegistry
+ * cannot answer this in relay mode because it also lists sessions of other nodes.
+ *
+ * Listeners are told when a user gets their first session on this node and when the last one
+ * closes, so per-user Redis subscriptions follow the sessions this node actually holds. They
+ * subscribe over the network, so they run outside the map's locks, holding only the user's entry;
+ * a user whose last session closes keeps the entry until the listeners are done, so a reconnect
+ * meanwhile waits for them and subscribes again.
+ */
+@Component
+public class WebSocketSessionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketSessionRegistry.class);
+
+    private final Map<String, UserSessions> sessionsByUser = new ConcurrentHashMap<>();
+    private final Map<String, String> userBySession = new ConcurrentHashMap<>();
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    public interface Listener {
+        void onFirstSession(String userId);
+
+        void onLastSessionClosed(String userId);
+    }
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        Principal user = event.getUser();
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (user == null || sessionId == null) {
+            return;
+        }
+        register(user.getName(), sessionId);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        unregister(event.getSessionId());
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void register(String userId, String sessionId) {
+        userBySession.put(sessionId, userId);
+        UserSessions entry = sessionsByUser.compute(userId, (id, sessions) -> {
+            if (sessions == null) {
+                sessions = new UserSessions();
+            }
+            sessions.sessionIds.add(sessionId);
+            return sessions;
+        });
+        syncListeners(userId, entry);
+        logger.debug("Registered WebSocket session {} for user {}", sessionId, userId);
+    }
+
+    public void unregister(String sessionId) {
+        String userId = userBySession.remove(sessionId);
+        if (userId == null) {
+            return;
+        }
+        UserSessions entry = sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            sessions.sessionIds.remove(sessionId);
+            return sessions;
+        });
+        if (entry != null) {
+            syncListeners(userId, entry);
+        }
+        logger.debug("Unregistered WebSocket session {} for user {}", sessionId, userId);
+    }
+
+    /**
+     * Brings the listeners in line with the user's sessions. The entry's lock orders a connect and
+     * a disconnect of the same user; other users are not held up.
+     */
+    private void syncListeners(String userId, UserSessions entry) {
+        synchronized (entry) {
+            if (!entry.sessionIds.isEmpty()) {
+                if (!entry.notified) {
+                    entry.notified = true;
+                    notifyListeners(userId, true);
+                }
+                return;
+            }
+            if (entry.notified) {
+                entry.notified = false;
+                notifyListeners(userId, false);
+            }
+            // Unless a session arrived meanwhile; its register call then notifies again
+            sessionsByUser.computeIfPresent(userId,
+                    (id, sessions) -> sessions == entry && sessions.sessionIds.isEmpty() ? null : sessions);
+        }
+    }
+
+    private void notifyListeners(String userId, boolean first) {
+        for (Listener listener : listeners) {
+            try {
+                if (first) {
+                    listener.onFirstSession(userId);
+                } else {
+                    listener.onLastSessionClosed(userId);
+                }
+            } catch (Exception e) {
+                logger.error("Session listener failed for user {}: {}", userId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Snapshot of sessionId to userId for the sessions held by this node.
+     */
+    public Map<String, String> getLocalSessionUsers() {
+        return Map.copyOf(userBySession);
+    }
+
+    public boolean hasLocalSessions(String userId) {
+        if (userId == null) {
+            return false;
+        }
+        UserSessions entry = sessionsByUser.get(userId);
+        return entry != null && !entry.sessionIds.isEmpty();
+    }
+
+    public int getLocalUserCount() {
+        return sessionsByUser.size();
+    }
+
+    public int getLocalSessionCount() {
+        return userBySession.size();
+    }
+
+    private static final class UserSessions {
+        private final Set<String> sessionIds = ConcurrentHashMap.newKeySet();
+        // Whether listeners were told about the first session and not yet about the last; guarded by this
+        private boolean notified;
+    }
+}
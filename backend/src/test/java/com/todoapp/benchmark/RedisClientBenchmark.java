@@ -0,0 +1,126 @@
+package com.todoapp.benchmark;
+
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.clients.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Compares throughput of the Jedis pool (max-active 8, the default configuration) against a shared
+ * Lettuce connection under the cache/publish mix the backend issues: a SET with expiry, a GET and
+ * a PUBLISH per iteration, from many threads at once.
+ *
+ * Not run by the build. Start a local Redis and run:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.todoapp.benchmark.RedisClientBenchmark -Dexec.args="64 10"
+ * </pre>
+ * Arguments: thread count (default 64) and seconds per client (default 10). REDIS_HOST and
+ * REDIS_PORT select the server.
+ */
+public class RedisClientBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        RedisStandaloneConfiguration server = new RedisStandaloneConfiguration(
+                System.getenv().getOrDefault("REDIS_HOST", "localhost"),
+                Integer.parseInt(System.getenv().getOrDefault("REDIS_PORT", "6379")));
+
+        JedisPoolConfig poolConfig = new JedisPoolConfig();
+        poolConfig.setMaxTotal(8);
+        poolConfig.setMaxIdle(8);
+        JedisConnectionFactory jedis = new JedisConnectionFactory(server,
+                JedisClientConfiguration.builder().usePooling().poolConfig(poolConfig).build());
+        jedis.afterPropertiesSet();
+
+        LettuceConnectionFactory lettuce = new LettuceConnectionFactory(server);
+        lettuce.setShareNativeConnection(true);
+        lettuce.afterPropertiesSet();
+
+        try {
+            System.out.printf("%d threads, %d s per client%n", threads, seconds);
+            // A short untimed round first so JIT and connection setup do not count
+            run("warm-up", template(jedis), threads, 2);
+            run("warm-up", template(lettuce), threads, 2);
+            run("jedis pool (8)", template(jedis), threads, seconds);
+            run("lettuce shared", template(lettuce), threads, seconds);
+        } finally {
+            jedis.destroy();
+            lettuce.destroy();
+        }
+    }
+
+    private static StringRedisTemplate template(RedisConnectionFactory factory) {
+        StringRedisTemplate template = new StringRedisTemplate(factory);
+        template.afterPropertiesSet();
+        return template;
+    }
+
+    private static void run(String label, StringRedisTemplate template, int threads, int seconds) throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch done = new CountDownLatch(threads);
+        List<long[]> samples = new ArrayList<>();
+        long[] operations = new long[threads];
+
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            // Every 16th iteration's latency is kept, which is plenty for percentiles
+            long[] latencies = new long[1 << 16];
+            samples.add(latencies);
+            Thread thread = new Thread(() -> {
+                int sampled = 0;
+                long count = 0;
+                String key = "bench:" + worker;
+                try {
+                    while (running.get()) {
+                        long started = System.nanoTime();
+                        template.opsForValue().set(key, "value-" + count, Duration.ofMinutes(1));
+                        template.opsForValue().get(key);
+                        template.convertAndSend("bench_channel", key);
+                        if ((count & 15) == 0 && sampled < latencies.length - 1) {
+                            latencies[sampled++] = System.nanoTime() - started;
+                        }
+                        count++;
+                    }
+                } finally {
+                    operations[worker] = count;
+                    latencies[latencies.length - 1] = sampled;
+                    done.countDown();
+                }
+            });
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        TimeUnit.SECONDS.sleep(seconds);
+        running.set(false);
+        done.await();
+
+        long iterations = Arrays.stream(operations).sum();
+        long[] all = samples.stream()
+                .flatMapToLong(latencies -> Arrays.stream(latencies, 0, (int) latencies[latencies.length - 1]))
+                .sorted()
+                .toArray();
+        System.out.printf("%-16s %10.0f commands/s   p50 %6d us   p99 %6d us (per SET+GET+PUBLISH)%n",
+                label, iterations * 3.0 / seconds, percentileMicros(all, 0.50), percentileMicros(all, 0.99));
+    }
+
+    private static long percentileMicros(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(sorted.length * percentile))] / 1_000;
+    }
+}
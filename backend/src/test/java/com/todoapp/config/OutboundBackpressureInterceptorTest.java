@@ -0,0 +1,70 @@
+package com.todoapp.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundBackpressureInterceptorTest {
+
+    private OutboundBackpressureInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new OutboundBackpressureInterceptor(2, List.of("/queue/statistics"));
+    }
+
+    @Test
+    void preSend_SessionQueueFull_DropsFurtherFrames() {
+        // Given
+        Message<?> first = interceptor.preSend(frame("s1", "/queue/tasks-users1"), null);
+        Message<?> second = interceptor.preSend(frame("s1", "/queue/tasks-users1"), null);
+
+        // When
+        Message<?> third = interceptor.preSend(frame("s1", "/queue/tasks-users1"), null);
+        Message<?> otherSession = interceptor.preSend(frame("s2", "/queue/tasks-users2"), null);
+
+        // Then
+        assertNotNull(first);
+        assertNotNull(second);
+        assertNull(third);
+        assertNotNull(otherSession);
+        assertEquals(1L, interceptor.getStats().get("droppedFrames"));
+
+        // When a frame is written, the session has room again
+        interceptor.afterMessageHandled(first, null, null, null);
+
+        // Then
+        assertNotNull(interceptor.preSend(frame("s1", "/queue/tasks-users1"), null));
+    }
+
+    @Test
+    void beforeHandle_NewerSnapshotQueued_SkipsOlderOne() {
+        // Given
+        Message<?> older = interceptor.preSend(frame("s1", "/queue/statistics-users1"), null);
+        Message<?> newer = interceptor.preSend(frame("s1", "/queue/statistics-users1"), null);
+
+        // When
+        Message<?> olderHandled = interceptor.beforeHandle(older, null, null);
+        Message<?> newerHandled = interceptor.beforeHandle(newer, null, null);
+
+        // Then
+        assertNull(olderHandled);
+        assertNotNull(newerHandled);
+        assertEquals(1L, interceptor.getStats().get("supersededFrames"));
+        assertEquals(1, interceptor.getStats().get("pendingFrames"));
+    }
+
+    private Message<byte[]> frame(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
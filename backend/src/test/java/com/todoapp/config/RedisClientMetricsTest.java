@@ -0,0 +1,33 @@
+package com.todoapp.config;
+
+import io.lettuce.core.protocol.CommandType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisClientMetricsTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void recordCommandLatency_ReportsCountMeanAndPercentileBounds() {
+        // Given
+        RedisClientMetrics metrics = new RedisClientMetrics();
+
+        // When: 99 fast GETs (~100us) and one slow one (~50ms)
+        for (int i = 0; i < 99; i++) {
+            metrics.recordCommandLatency(null, null, CommandType.GET, 90_000, 100_000);
+        }
+        metrics.recordCommandLatency(null, null, CommandType.GET, 50_000_000, 50_000_000);
+
+        // Then
+        Map<String, Object> commands = (Map<String, Object>) metrics.getStats().get("commands");
+        Map<String, Object> get = (Map<String, Object>) commands.get("GET");
+        assertEquals(100L, get.get("count"));
+        assertEquals(128L, get.get("p50Micros"));
+        assertEquals(128L, get.get("p99Micros"));
+        assertEquals(50_000L, get.get("maxMicros"));
+        assertFalse(metrics.getStats().containsKey("pool"));
+    }
+}
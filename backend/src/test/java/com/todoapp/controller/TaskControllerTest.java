@@ -4,10 +4,13 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.todoapp.dto.TaskRequest;
 import com.todoapp.dto.TaskResponse;
+import com.todoapp.dto.TaskSyncRequest;
+import com.todoapp.exception.TaskVersionConflictException;
 import com.todoapp.model.Task;
 import com.todoapp.model.TaskStatus;
 import com.todoapp.model.User;
 import com.todoapp.repository.UserRepository;
+import com.todoapp.service.RedisPublisher;
 import com.todoapp.service.TaskService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -80,27 +83,58 @@ class TaskControllerTest {
 
         // Setup security context
         SecurityContextHolder.setContext(securityContext);
-        when(securityContext.getAuthentication()).thenReturn(authentication);
-        when(authentication.getName()).thenReturn("test@example.com");
-        when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
+        lenient().when(securityContext.getAuthentication()).thenReturn(authentication);
+        lenient().when(authentication.getName()).thenReturn("test@example.com");
+        lenient().when(userRepository.findByEmail("test@example.com")).thenReturn(Optional.of(testUser));
     }
 
     @Test
     void getAllTasks_ReturnsTaskList() throws Exception {
         // Given
-        List<TaskResponse> tasks = Arrays.asList(testTaskResponse);
-        when(taskService.getAllTasksForUser("user123")).thenReturn(tasks);
+        RedisPublisher.CachedTasks tasks = mock(RedisPublisher.CachedTasks.class);
+        when(tasks.getTasks()).thenReturn(Arrays.asList(testTaskResponse));
+        when(tasks.getListVersion()).thenReturn(7L);
+        when(taskService.getTaskListVersion("user123")).thenReturn(8L);
+        when(taskService.getTaskList("user123", 8L)).thenReturn(tasks);
 
         // When & Then
-        mockMvc.perform(get("/api/tasks"))
+        mockMvc.perform(get("/api/tasks").header("If-None-Match", "\"6\""))
                 .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"7\""))
                 .andExpect(jsonPath("$").isArray())
                 .andExpect(jsonPath("$[0].id").value("task123"))
                 .andExpect(jsonPath("$[0].title").value("Test Task"))
                 .andExpect(jsonPath("$[0].description").value("Test Description"))
                 .andExpect(jsonPath("$[0].status").value("TODO"));
 
-        verify(taskService, times(1)).getAllTasksForUser("user123");
+        verify(taskService, times(1)).getTaskList("user123", 8L);
+    }
+
+    @Test
+    void getAllTasks_MatchingETag_ReturnsNotModifiedWithoutReadingTheList() throws Exception {
+        // Given
+        when(taskService.getTaskListVersion("user123")).thenReturn(8L);
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks").header("If-None-Match", "W/\"7\", W/\"8\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"8\""))
+                .andExpect(content().string(""));
+
+        verify(taskService, never()).getTaskList(anyString(), any());
+    }
+
+    @Test
+    void getTask_UnknownListVersion_ServesTaskWithoutETag() throws Exception {
+        // Given
+        when(taskService.getTaskListVersion("user123")).thenReturn(null);
+        when(taskService.getTaskById("task123", "user123")).thenReturn(testTaskResponse);
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/task123").header("If-None-Match", "\"8\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.id").value("task123"));
     }
 
     @Test
@@ -189,6 +223,24 @@ class TaskControllerTest {
         verify(taskService, times(1)).updateTask(eq("nonexistent"), any(TaskRequest.class), eq("user123"));
     }
 
+    @Test
+    void updateTask_KeptChanging_ReturnsConflictWithCurrentTask() throws Exception {
+        // Given
+        TaskRequest taskRequest = new TaskRequest();
+        taskRequest.setTitle("Updated Task");
+        testTaskResponse.setVersion(6L);
+
+        when(taskService.updateTask(eq("task123"), any(TaskRequest.class), eq("user123")))
+                .thenThrow(new TaskVersionConflictException(testTaskResponse));
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/task123")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(taskRequest)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.current.version").value(6));
+    }
+
     @Test
     void deleteTask_ValidId_ReturnsSuccessMessage() throws Exception {
         // Given
@@ -242,6 +294,25 @@ class TaskControllerTest {
         verify(taskService, times(1)).getTaskById("nonexistent", "user123");
     }
 
+    @Test
+    void syncTasks_OversizedTitle_ReturnsBadRequest() throws Exception {
+        // Given
+        TaskSyncRequest.Mutation mutation = new TaskSyncRequest.Mutation();
+        mutation.setClientId("c1");
+        mutation.setOp(TaskSyncRequest.Operation.CREATE);
+        mutation.setTitle("x".repeat(101));
+        TaskSyncRequest syncRequest = new TaskSyncRequest();
+        syncRequest.setMutations(List.of(mutation));
+
+        // When & Then
+        mockMvc.perform(post("/api/tasks/sync")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(syncRequest)))
+                .andExpect(status().isBadRequest());
+
+        verify(taskService, never()).syncTasks(any(TaskSyncRequest.class), anyString());
+    }
+
     @Test
     void getAllTasks_UserNotAuthenticated_ThrowsException() throws Exception {
         // Given
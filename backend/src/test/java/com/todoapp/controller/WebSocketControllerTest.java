@@ -0,0 +1,107 @@
+package com.todoapp.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.service.UserEventCoalescer;
+import com.todoapp.service.UserEventLog;
+import com.todoapp.service.WebSocketSessionRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketControllerTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Mock
+    private WebSocketSessionRegistry sessionRegistry;
+
+    @Mock
+    private UserEventCoalescer eventCoalescer;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Mock
+    private UserEventLog userEventLog;
+
+    @InjectMocks
+    private WebSocketController webSocketController;
+
+    @Test
+    void onMessage_TaskEvent_ForwardsOriginalBytesToUserQueue() {
+        // Given
+        byte[] body = "{\"data\":{\"nested\":{\"type\":\"X\"}},\"type\":\"TASK_UPDATE\",\"userId\":\"user1\"}"
+                .getBytes(StandardCharsets.UTF_8);
+        when(sessionRegistry.hasLocalSessions("user1")).thenReturn(true);
+
+        // When
+        webSocketController.onMessage(new DefaultMessage("user:{user1}".getBytes(), body), null);
+
+        // Then
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(eventCoalescer).dispatch(eq("user1"), eq("/queue/tasks"), captor.capture());
+        assertArrayEquals(body, captor.getValue());
+    }
+
+    @Test
+    void onMessage_NoLocalSession_DropsWithoutParsing() throws Exception {
+        // Given
+        when(sessionRegistry.hasLocalSessions("user2")).thenReturn(false);
+
+        // When
+        webSocketController.onMessage(new DefaultMessage("user:{user2}".getBytes(),
+                "{\"type\":\"USER_UPDATE\"}".getBytes(StandardCharsets.UTF_8)), null);
+
+        // Then
+        verify(eventCoalescer, never()).dispatch(anyString(), anyString(), any());
+        verify(objectMapper, never()).getFactory();
+    }
+
+    @Test
+    void replayMissedEvents_RunsTheReplayRequestedAtConnectOnce() {
+        // Given
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setSessionId("session1");
+        connect.setNativeHeader("last-event-id", "100-0");
+        Principal user = () -> "user1";
+        byte[] event = "{\"type\":\"TASK_UPDATE\",\"eventId\":\"105-1\"}".getBytes(StandardCharsets.UTF_8);
+        UserEventLog.Replay replay = mock(UserEventLog.Replay.class);
+        when(userEventLog.isEnabled()).thenReturn(true);
+        when(userEventLog.readAfter("user1", "100-0")).thenReturn(replay);
+        when(replay.getEvents()).thenReturn(List.of(new String(event, StandardCharsets.UTF_8)));
+        SimpMessageHeaderAccessor request = SimpMessageHeaderAccessor.create();
+        request.setSessionId("session1");
+
+        // When
+        webSocketController.onSessionConnect(new SessionConnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], connect.getMessageHeaders()), user));
+        webSocketController.replayMissedEvents(request);
+        webSocketController.replayMissedEvents(request);
+
+        // Then
+        ArgumentCaptor<byte[]> captor = ArgumentCaptor.forClass(byte[].class);
+        verify(eventCoalescer, times(1)).dispatch(eq("user1"), eq("/queue/tasks"), captor.capture());
+        assertArrayEquals(event, captor.getValue());
+    }
+}
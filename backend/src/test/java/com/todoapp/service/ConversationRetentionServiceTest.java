@@ -0,0 +1,94 @@
+package com.todoapp.service;
+
+import com.mongodb.client.result.DeleteResult;
+import com.todoapp.dto.RetentionRunReport;
+import com.todoapp.exception.LeaseLostException;
+import com.todoapp.model.ChatConversation;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationRetentionServiceTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private JobContext jobContext;
+
+    @Mock
+    private ConversationRetentionPolicy policy;
+
+    @InjectMocks
+    private ConversationRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(policy.getBatchSize()).thenReturn(2);
+        lenient().when(policy.getMaxBatchesPerRun()).thenReturn(3);
+        lenient().when(mongoOperations.getCollectionName(ChatConversation.class)).thenReturn("chat_conversations");
+    }
+
+    @Test
+    void purge_LeaseLost_StopsBeforeNextBatch() {
+        // Given
+        doThrow(new LeaseLostException("lease lost")).when(jobContext).checkpoint();
+
+        // When & Then
+        assertThrows(LeaseLostException.class, () -> retentionService.purgeExpiredConversations(jobContext));
+
+        verify(mongoOperations, never()).remove(any(Query.class), anyString());
+        assertEquals(RetentionRunReport.Outcome.PARTIAL, retentionService.getLastRun().getOutcome());
+    }
+
+    @Test
+    void purge_DeletesInBatchesUntilShortBatch() {
+        // Given
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("chat_conversations")))
+                .thenReturn(List.of(new Document("_id", "a"), new Document("_id", "b")))
+                .thenReturn(List.of(new Document("_id", "c")));
+        when(mongoOperations.remove(any(Query.class), eq("chat_conversations")))
+                .thenReturn(DeleteResult.acknowledged(2))
+                .thenReturn(DeleteResult.acknowledged(1));
+
+        // When
+        RetentionRunReport report = retentionService.purgeExpiredConversations(jobContext);
+
+        // Then
+        assertEquals(RetentionRunReport.Outcome.COMPLETED, report.getOutcome());
+        assertEquals(3, report.getDeleted());
+        assertEquals(2, report.getBatches());
+        assertEquals(3, retentionService.getTotalDeleted());
+        verify(jobContext, times(2)).checkpoint();
+    }
+
+    @Test
+    void purge_BatchBudgetExhausted_ReportsPartial() {
+        // Given
+        when(mongoOperations.find(any(Query.class), eq(Document.class), eq("chat_conversations")))
+                .thenReturn(List.of(new Document("_id", "a"), new Document("_id", "b")));
+        when(mongoOperations.remove(any(Query.class), eq("chat_conversations")))
+                .thenReturn(DeleteResult.acknowledged(2));
+
+        // When
+        RetentionRunReport report = retentionService.purgeExpiredConversations(jobContext);
+
+        // Then
+        assertEquals(RetentionRunReport.Outcome.PARTIAL, report.getOutcome());
+        assertEquals(3, report.getBatches());
+        assertEquals(6, report.getDeleted());
+    }
+}
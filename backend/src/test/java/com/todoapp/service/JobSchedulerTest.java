@@ -0,0 +1,149 @@
+package com.todoapp.service;
+
+import com.todoapp.exception.LeaseLostException;
+import com.todoapp.model.JobRun;
+import com.todoapp.repository.JobRunRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class JobSchedulerTest {
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private JobRunRepository jobRunRepository;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private ClusterJob job;
+
+    private JobScheduler jobScheduler;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(job.getName()).thenReturn("test-job");
+        lenient().when(job.getInterval()).thenReturn(Duration.ofHours(1));
+        lenient().when(job.getJitter()).thenReturn(Duration.ZERO);
+        lenient().when(job.getLeaseTtl()).thenReturn(Duration.ofMinutes(1));
+        lenient().when(job.isEnabled()).thenReturn(true);
+
+        jobScheduler = new JobScheduler(List.of(job), leaseService, jobRunRepository, mongoOperations,
+                new ClusterNode("node-a"));
+        ReflectionTestUtils.setField(jobScheduler, "enabled", true);
+        ReflectionTestUtils.setField(jobScheduler, "poolSize", 2);
+        ReflectionTestUtils.setField(jobScheduler, "historyRetention", Duration.ofDays(1));
+        jobScheduler.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobScheduler.stop();
+    }
+
+    @Test
+    void execute_LeaseHeldByAnotherNode_SkipsWithoutRecordingHistory() throws Exception {
+        // Given
+        when(leaseService.tryAcquire(eq("test-job"), any())).thenReturn(null);
+
+        // When
+        jobScheduler.execute(job);
+
+        // Then
+        verify(job, never()).run(any());
+        verify(jobRunRepository, never()).save(any());
+        assertEquals(1L, jobStatus().get("skippedNotLeader"));
+    }
+
+    @Test
+    void execute_LeaseAcquired_RunsJobAndRecordsFencedRun() throws Exception {
+        // Given
+        LeaseService.Lease lease = new LeaseService.Lease("test-job", "owner", 42L,
+                System.currentTimeMillis() + 60_000);
+        when(leaseService.tryAcquire(eq("test-job"), any())).thenReturn(lease);
+        doAnswer(invocation -> {
+            ((JobContext) invocation.getArgument(0)).addProcessed(7);
+            return null;
+        }).when(job).run(any());
+
+        // When
+        jobScheduler.execute(job);
+
+        // Then
+        ArgumentCaptor<JobRun> runCaptor = ArgumentCaptor.forClass(JobRun.class);
+        verify(jobRunRepository).save(runCaptor.capture());
+        JobRun run = runCaptor.getValue();
+        assertEquals(JobRun.Status.SUCCEEDED, run.getStatus());
+        assertEquals(42L, run.getFencingToken());
+        assertEquals("node-a", run.getNodeId());
+        assertEquals(7L, run.getProcessed());
+        // Held to the end of the hourly slot, so replicas firing later in it skip
+        ArgumentCaptor<Instant> heldUntil = ArgumentCaptor.forClass(Instant.class);
+        verify(leaseService).holdUntil(eq(lease), heldUntil.capture());
+        verify(leaseService, never()).release(any());
+        assertTrue(heldUntil.getValue().isAfter(Instant.now().plus(Duration.ofMinutes(59))));
+    }
+
+    @Test
+    void slotEnd_CronJob_EndsJustBeforeTheNextFiring() {
+        // Given
+        when(job.getCron()).thenReturn("0 */5 * * * *");
+        Instant firedAt = Instant.parse("2024-01-01T10:00:07Z");
+
+        // When
+        Instant end = JobScheduler.slotEnd(job, firedAt);
+
+        // Then
+        Instant nextFiring = Instant.parse("2024-01-01T10:05:00Z");
+        assertTrue(end.isBefore(nextFiring));
+        assertTrue(end.isAfter(nextFiring.minusSeconds(2)));
+    }
+
+    @Test
+    void execute_LeaseLostDuringRun_RecordsLeaseLostAndKeepsLease() throws Exception {
+        // Given
+        LeaseService.Lease lease = new LeaseService.Lease("test-job", "owner", 3L,
+                System.currentTimeMillis() + 60_000);
+        when(leaseService.tryAcquire(eq("test-job"), any())).thenReturn(lease);
+        doAnswer(invocation -> {
+            JobContext context = invocation.getArgument(0);
+            context.markLeaseLost();
+            context.checkpoint();
+            return null;
+        }).when(job).run(any());
+
+        // When
+        jobScheduler.execute(job);
+
+        // Then
+        ArgumentCaptor<JobRun> runCaptor = ArgumentCaptor.forClass(JobRun.class);
+        verify(jobRunRepository).save(runCaptor.capture());
+        assertEquals(JobRun.Status.LEASE_LOST, runCaptor.getValue().getStatus());
+        verify(leaseService, never()).release(any());
+        verify(leaseService, never()).holdUntil(any(), any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> jobStatus() {
+        return (Map<String, Object>) jobScheduler.getJobStatus().get("test-job");
+    }
+}
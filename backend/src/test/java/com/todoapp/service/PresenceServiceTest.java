@@ -0,0 +1,77 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PresenceServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ZSetOperations<String, Object> zSetOperations;
+
+    @Mock
+    private WebSocketSessionRegistry sessionRegistry;
+
+    private PresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new PresenceService(redisTemplate, sessionRegistry, new ClusterNode("node-a"));
+        ReflectionTestUtils.setField(presenceService, "enabled", true);
+        ReflectionTestUtils.setField(presenceService, "sessionTtl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(presenceService, "cacheTtl", Duration.ofSeconds(30));
+        lenient().when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    void isOnline_LocalSession_DoesNotAskRedis() {
+        // Given
+        when(sessionRegistry.hasLocalSessions("user1")).thenReturn(true);
+
+        // When & Then
+        assertTrue(presenceService.isOnline("user1"));
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void isOnline_NoLiveSessions_ReturnsFalseAndCachesResult() {
+        // Given
+        when(zSetOperations.count(eq("presence:{user1}"), anyDouble(), eq(Double.POSITIVE_INFINITY))).thenReturn(0L);
+
+        // When
+        boolean first = presenceService.isOnline("user1");
+        boolean second = presenceService.isOnline("user1");
+
+        // Then
+        assertFalse(first);
+        assertFalse(second);
+        verify(zSetOperations, times(1)).count(anyString(), anyDouble(), anyDouble());
+        assertEquals(1L, presenceService.getStats().get("cacheHits"));
+    }
+
+    @Test
+    void isOnline_RedisUnavailable_FailsOpen() {
+        // Given
+        when(zSetOperations.count(anyString(), anyDouble(), anyDouble()))
+                .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When & Then
+        assertTrue(presenceService.isOnline("user1"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisCircuitBreakerTest {
+
+    private RedisCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        breaker = new RedisCircuitBreaker();
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 3);
+        ReflectionTestUtils.setField(breaker, "openDuration", Duration.ofMillis(50));
+        ReflectionTestUtils.setField(breaker, "slowCall", Duration.ofMillis(500));
+    }
+
+    @Test
+    void call_OpensAfterConsecutiveFailuresAndSkipsRedis() {
+        // Given
+        AtomicInteger attempts = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            breaker.call(() -> {
+                attempts.incrementAndGet();
+                throw new IllegalStateException("timeout");
+            }, () -> "fallback");
+        }
+
+        // Then
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(3, attempts.get());
+        assertEquals("fallback", breaker.call(() -> "redis", () -> "fallback"));
+    }
+
+    @Test
+    void allowRequest_AfterOpenDuration_LetsOneProbeThroughAndClosesOnSuccess() throws InterruptedException {
+        // Given
+        AtomicInteger recoveries = new AtomicInteger();
+        breaker.addRecoveryListener(recoveries::incrementAndGet);
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(60);
+
+        // When
+        boolean probe = breaker.allowRequest();
+        boolean second = breaker.allowRequest();
+        breaker.recordResult(1_000);
+
+        // Then
+        assertTrue(probe);
+        assertFalse(second);
+        assertEquals(RedisCircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(1, recoveries.get());
+    }
+
+    @Test
+    void recordResult_SlowProbe_ReopensBreaker() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure();
+        }
+        Thread.sleep(60);
+
+        // When
+        breaker.allowRequest();
+        breaker.recordResult(Duration.ofSeconds(2).toNanos());
+
+        // Then
+        assertEquals(RedisCircuitBreaker.State.OPEN, breaker.getState());
+    }
+}
@@ -0,0 +1,32 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RedisKeysTest {
+
+    @Test
+    void userKeysAndChannel_ShareOneHashSlot() {
+        // Given
+        int slot = ClusterSlotHashUtil.calculateSlot(RedisKeys.eventLog("user1"));
+
+        // Then
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.taskCache("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.taskListVersion("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.presence("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.eventPositions("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.userChannel("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.taskStats("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.taskStatsEntries("user1")));
+        assertEquals(slot, ClusterSlotHashUtil.calculateSlot(RedisKeys.taskStatsDeleted("user1")));
+    }
+
+    @Test
+    void userIdOfChannel_ReadsOnlyUserChannels() {
+        assertEquals("user1", RedisKeys.userIdOfChannel(RedisKeys.userChannel("user1")));
+        assertNull(RedisKeys.userIdOfChannel("system_notifications"));
+        assertNull(RedisKeys.userIdOfChannel("user_user1"));
+    }
+}
@@ -0,0 +1,264 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.config.JacksonConfig;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.exception.RedisUnavailableException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisHashCommands;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedisPublisherTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private PresenceService presenceService;
+
+    @Mock
+    private UserEventLog userEventLog;
+
+    @Mock
+    private RedisConnection connection;
+
+    @Mock
+    private RedisHashCommands hashCommands;
+
+    @Mock
+    private RedisScriptingCommands scriptingCommands;
+
+    @Mock
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Spy
+    private ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @InjectMocks
+    private RedisPublisher redisPublisher;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(redisPublisher, "publishBatchMax", 256);
+        ReflectionTestUtils.setField(redisPublisher, "localCacheSize", 1000);
+        ReflectionTestUtils.setField(redisPublisher, "localCacheTtl", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(redisPublisher, "maxPendingInvalidations", 100);
+        ReflectionTestUtils.setField(redisPublisher, "taskCacheTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(redisPublisher, "listVersionTtl", Duration.ofDays(7));
+        lenient().when(circuitBreaker.allowRequest()).thenReturn(true);
+        lenient().when(circuitBreaker.call(any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        lenient().when(presenceService.isOnline(anyString())).thenReturn(true);
+        lenient().when(userEventLog.isEnabled()).thenReturn(true);
+        lenient().when(connection.hashCommands()).thenReturn(hashCommands);
+        lenient().when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+        lenient().when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        lenient().when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cacheUserTasks_WritesListAndExpiryInOneScriptCheckedAgainstTheListVersion() {
+        // When
+        redisPublisher.cacheUserTasks("user1", List.of(), 42L);
+
+        // Then
+        ArgumentCaptor<RedisScript<Long>> script = ArgumentCaptor.forClass(RedisScript.class);
+        verify(redisTemplate).execute(script.capture(), eq(List.of("user_tasks:{user1}", "task_list_version:{user1}")),
+                eq("[]"), anyString(), eq("3600000"), eq("42"));
+        assertTrue(script.getValue().getScriptAsString().startsWith(
+                "if ARGV[4] == '' or redis.call('get', KEYS[2]) ~= ARGV[4] then return 0 end"));
+    }
+
+    @Test
+    void getCachedUserTasks_WithoutFreshFlag_ReturnsStaleList() {
+        // Given
+        TaskResponse task = new TaskResponse();
+        task.setId("task1");
+        when(hashOperations.multiGet("user_tasks:{user1}", List.of("tasks", "readAt", "fresh", "version")))
+                .thenReturn(Arrays.asList("[{\"id\":\"task1\"}]", "1700000000000", null, "7"));
+
+        // When
+        RedisPublisher.CachedTasks cached = redisPublisher.getCachedUserTasks("user1");
+
+        // Then
+        assertFalse(cached.isFresh());
+        assertEquals("task1", cached.getTasks().get(0).getId());
+        assertEquals(7L, cached.getListVersion());
+    }
+
+    @Test
+    void publishUserEvents_InvalidatesCachesBeforeLoggingEventsInOnePipeline() {
+        // When
+        redisPublisher.publishUserEvents(Map.of("user1", List.of("{\"a\":1}", "{\"b\":2}")), Set.of("user1"));
+
+        // Then
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        InOrder order = inOrder(hashCommands, userEventLog);
+        order.verify(hashCommands).hDel("user_tasks:{user1}".getBytes(StandardCharsets.UTF_8),
+                "fresh".getBytes(StandardCharsets.UTF_8));
+        order.verify(userEventLog).append(connection, "user1", "{\"a\":1}", "user:{user1}", true);
+        order.verify(userEventLog).append(connection, "user1", "{\"b\":2}", "user:{user1}", true);
+    }
+
+    @Test
+    void publishUserEvents_BumpsTheListVersionWithTheInvalidation() {
+        // When
+        redisPublisher.publishUserEvents(Map.of("user1", List.of("{\"a\":1}")), Set.of("user1"));
+
+        // Then
+        verify(scriptingCommands).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                eq("task_list_version:{user1}".getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+                eq("604800000".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onTasksChanged_HidesTheListVersionAtOnceAndBumpsItFromThePublisherThread() {
+        // Given
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        CountDownLatch written = new CountDownLatch(1);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenAnswer(invocation -> {
+            // Holds the bump back until the writer has returned
+            written.await(2, TimeUnit.SECONDS);
+            threads.add(Thread.currentThread().getName());
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        });
+
+        // When
+        redisPublisher.onTasksChanged(TasksChangedEvent.deleted("user1", "task1"));
+        Long version = redisPublisher.getTaskListVersion("user1");
+        written.countDown();
+
+        // Then
+        assertNull(version);
+        verify(scriptingCommands, timeout(2000)).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                eq("task_list_version:{user1}".getBytes(StandardCharsets.UTF_8)), any(byte[].class),
+                eq("604800000".getBytes(StandardCharsets.UTF_8)));
+        verify(hashCommands).hDel("user_tasks:{user1}".getBytes(StandardCharsets.UTF_8),
+                "fresh".getBytes(StandardCharsets.UTF_8));
+        assertEquals(Set.of("redis-publisher"), threads);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), any(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void getTaskListVersion_UnknownWhileAnInvalidationWaitsForReplay() {
+        // Given
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("task_list_version:{user2}")), anyString(), anyString()))
+                .thenReturn("1700000000000005");
+        when(circuitBreaker.allowRequest()).thenReturn(false);
+        assertThrows(RedisUnavailableException.class,
+                () -> redisPublisher.publishUserEvents(Map.of(), Set.of("user1")));
+
+        // When
+        Long pending = redisPublisher.getTaskListVersion("user1");
+        Long other = redisPublisher.getTaskListVersion("user2");
+
+        // Then
+        assertNull(pending);
+        assertEquals(1700000000000005L, other);
+        verify(redisTemplate, never()).execute(any(RedisScript.class), eq(List.of("task_list_version:{user1}")), any(), any());
+    }
+
+    @Test
+    void publishTaskChange_IsSentFromTheFlusherThread() {
+        // When
+        redisPublisher.publishTaskChange("user1", "task1", "REPLACE", Map.of("id", "task1"));
+
+        // Then
+        verify(userEventLog, timeout(2000)).append(eq(connection), eq("user1"),
+                contains("\"action\":\"REPLACE\""), eq("user:{user1}"), eq(true));
+        verify(hashCommands).hDel("user_tasks:{user1}".getBytes(StandardCharsets.UTF_8),
+                "fresh".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void publishUserEvents_ShardedWithoutLog_PublishesThroughScriptKeyedByChannel() {
+        // Given
+        ReflectionTestUtils.setField(redisPublisher, "shardedPubSub", true);
+        when(userEventLog.isEnabled()).thenReturn(false);
+        when(connection.scriptingCommands()).thenReturn(scriptingCommands);
+
+        // When
+        redisPublisher.publishUserEvents(Map.of("user1", List.of("{\"a\":1}")), Set.of());
+
+        // Then
+        verify(scriptingCommands).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                eq("user:{user1}".getBytes(StandardCharsets.UTF_8)), eq("{\"a\":1}".getBytes(StandardCharsets.UTF_8)));
+        verify(connection, never()).publish(any(byte[].class), any(byte[].class));
+    }
+
+    @Test
+    void getCachedUserTasks_BreakerOpen_ServesLocalCopyOfMongoRead() {
+        // Given
+        doAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get()).when(circuitBreaker).call(any(), any());
+        List<TaskResponse> tasks = List.of(new TaskResponse());
+
+        // When
+        redisPublisher.cacheUserTasks("user1", tasks, null);
+        RedisPublisher.CachedTasks cached = redisPublisher.getCachedUserTasks("user1");
+
+        // Then
+        assertSame(tasks, cached.getTasks());
+        assertTrue(cached.isFresh());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void publishUserEvents_BreakerOpen_QueuesInvalidationForReplayOnRecovery() {
+        // Given
+        when(circuitBreaker.allowRequest()).thenReturn(false, true);
+
+        // When
+        assertThrows(RedisUnavailableException.class,
+                () -> redisPublisher.publishUserEvents(Map.of("user1", List.of("{\"a\":1}")), Set.of("user1")));
+        RedisPublisher.CachedTasks cached = redisPublisher.getCachedUserTasks("user1");
+        redisPublisher.replayInvalidations();
+
+        // Then
+        assertNull(cached);
+        verifyNoInteractions(presenceService);
+        verify(hashCommands).hDel("user_tasks:{user1}".getBytes(StandardCharsets.UTF_8),
+                "fresh".getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, redisPublisher.getFallbackStats().get("pendingInvalidations"));
+    }
+}
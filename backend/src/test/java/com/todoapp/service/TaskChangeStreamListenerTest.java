@@ -0,0 +1,161 @@
+package com.todoapp.service;
+
+import com.mongodb.client.model.changestream.UpdateDescription;
+import com.todoapp.dto.TaskChangeEvent;
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import org.bson.BsonBoolean;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskChangeStreamListenerTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private MongoConverter converter;
+
+    @Mock
+    private RedisPublisher redisPublisher;
+
+    @Mock
+    private LeaseService leaseService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private TaskChangeStreamListener listener;
+
+    private final BsonDocument key = new BsonDocument("_id", new BsonString("task1"));
+
+    @BeforeEach
+    void setUp() {
+        listener = new TaskChangeStreamListener(mongoOperations, redisPublisher, leaseService, eventPublisher);
+        lenient().when(mongoOperations.getConverter()).thenReturn(converter);
+    }
+
+    @Test
+    void handle_ApiWriteWithOutboxEvents_IsLeftToRelay() {
+        // Given
+        Document saved = new Document("_id", "task1").append("pendingEvents", List.of(new Document("action", "UPDATE")));
+
+        // When
+        listener.handle("replace", key, saved, null, null);
+
+        // Then
+        verifyNoInteractions(redisPublisher);
+    }
+
+    @Test
+    void handle_RelayAcknowledgement_IsSkipped() {
+        // Given
+        UpdateDescription pull = new UpdateDescription(null, new BsonDocument("pendingEvents", new BsonDocument()));
+
+        // When
+        listener.handle("update", key, new Document("_id", "task1"), null, pull);
+
+        // Then
+        verifyNoInteractions(redisPublisher);
+    }
+
+    @Test
+    void handle_UpdateRecordingAnOutboxEvent_IsLeftToTheRelay() {
+        // Given
+        BsonDocument fields = new BsonDocument("title", new BsonString("Renamed"))
+                .append("pendingEvents.0", new BsonDocument());
+        UpdateDescription patch = new UpdateDescription(null, fields);
+
+        // When
+        listener.handle("update", key, new Document("_id", "task1"), null, patch);
+
+        // Then
+        verifyNoInteractions(redisPublisher);
+    }
+
+    @Test
+    void handle_ExternalUpdate_InvalidatesCacheAndPublishesWholeTask() {
+        // Given
+        Document current = new Document("_id", "task1").append("title", "Renamed");
+        UpdateDescription set = new UpdateDescription(null, new BsonDocument("title", new BsonString("Renamed")));
+        when(converter.read(Task.class, current)).thenReturn(task("task1", 3L));
+
+        // When
+        listener.handle("update", key, current, null, set);
+
+        // Then
+        ArgumentCaptor<Object> data = ArgumentCaptor.forClass(Object.class);
+        verify(redisPublisher).publishTaskChange(eq("user1"), eq("task1"), eq("REPLACE"), data.capture());
+        assertEquals("Renamed", ((TaskResponse) data.getValue()).getTitle());
+    }
+
+    @Test
+    void handle_Delete_PublishesTombstoneUnlessRelayRemovedIt() {
+        // Given
+        Document external = new Document("_id", "task1");
+        Document relayed = new Document("_id", "task1").append("deletePending", true);
+        when(converter.read(Task.class, external)).thenReturn(task("task1", 3L));
+
+        // When
+        listener.handle("delete", key, null, relayed, null);
+        listener.handle("delete", key, null, external, null);
+
+        // Then
+        ArgumentCaptor<Object> data = ArgumentCaptor.forClass(Object.class);
+        verify(redisPublisher, times(1)).publishTaskChange(eq("user1"), eq("task1"), eq("DELETE"), data.capture());
+        TaskChangeEvent tombstone = (TaskChangeEvent) data.getValue();
+        assertTrue(tombstone.getDeleted());
+        assertEquals(4L, tombstone.getVersion());
+    }
+
+    @Test
+    void handle_WriteToATombstone_IsNotPublishedAsALiveTask() {
+        // Given
+        Document tombstone = new Document("_id", "task1").append("deletePending", true);
+        Document live = new Document("_id", "task1");
+        UpdateDescription backfill = new UpdateDescription(null, new BsonDocument("deletedAt", new BsonString("2026-01-01")));
+        UpdateDescription softDelete = new UpdateDescription(null, new BsonDocument("deletePending", BsonBoolean.TRUE));
+        when(converter.read(Task.class, tombstone)).thenReturn(task("task1", 3L));
+
+        // When
+        listener.handle("update", key, tombstone, null, backfill);
+        listener.handle("replace", key, tombstone, tombstone, null);
+        listener.handle("insert", key, tombstone, null, null);
+        listener.handle("update", key, tombstone, null, softDelete);
+        listener.handle("replace", key, tombstone, live, null);
+
+        // Then
+        ArgumentCaptor<Object> data = ArgumentCaptor.forClass(Object.class);
+        verify(redisPublisher, times(2)).publishTaskChange(eq("user1"), eq("task1"), eq("DELETE"), data.capture());
+        verify(redisPublisher, never()).publishTaskChange(anyString(), anyString(), eq("REPLACE"), any());
+        verify(redisPublisher, never()).publishTaskChange(anyString(), anyString(), eq("CREATE"), any());
+        assertTrue(data.getAllValues().stream().allMatch(event -> ((TaskChangeEvent) event).getDeleted()));
+        verify(eventPublisher, times(2)).publishEvent(any(TasksChangedEvent.class));
+    }
+
+    private Task task(String id, Long version) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUserId("user1");
+        task.setTitle("Renamed");
+        task.setVersion(version);
+        return task;
+    }
+}
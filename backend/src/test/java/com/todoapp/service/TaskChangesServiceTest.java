@@ -0,0 +1,121 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskChangesResponse;
+import com.todoapp.model.Task;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskChangesServiceTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    private TaskChangesService changesService;
+
+    @BeforeEach
+    void setUp() {
+        changesService = new TaskChangesService(mongoOperations);
+        ReflectionTestUtils.setField(changesService, "tombstoneRetention", Duration.ofDays(30));
+        ReflectionTestUtils.setField(changesService, "settleTime", Duration.ofSeconds(5));
+    }
+
+    @Test
+    void getChanges_WithoutCursor_StartsFullSyncAndPagesFromTheLastTask() {
+        // Given
+        LocalDateTime updatedAt = LocalDateTime.now().minusDays(60).truncatedTo(ChronoUnit.MILLIS);
+        when(mongoOperations.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(task("t1", updatedAt, false), task("t2", updatedAt, false), task("t3", updatedAt, false)));
+
+        // When
+        TaskChangesResponse first = changesService.getChanges("user1", null, 2);
+        TaskChangesResponse second = changesService.getChanges("user1", first.getCursor(), 2);
+
+        // Then
+        assertTrue(first.isReset());
+        assertTrue(first.isHasMore());
+        assertEquals(2, first.getChanged().size());
+        // The same full sync goes on, although its position is older than the tombstone retention
+        assertFalse(second.isReset());
+        TaskChangesService.SyncCursor cursor = TaskChangesService.SyncCursor.decode(first.getCursor());
+        assertEquals(updatedAt, cursor.updatedAt);
+        assertEquals("t2", cursor.id);
+        assertTrue(cursor.isFullSync());
+    }
+
+    @Test
+    void getChanges_CaughtUp_ReportsTombstonesAndHoldsCursorBackBySettleTime() {
+        // Given
+        LocalDateTime since = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        Task deleted = task("t2", LocalDateTime.now(), true);
+        deleted.setVersion(4L);
+        when(mongoOperations.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(task("t1", since.plusMinutes(1), false), deleted));
+
+        // When
+        TaskChangesResponse changes = changesService.getChanges("user1",
+                new TaskChangesService.SyncCursor(since, "t0", null).encode(), 100);
+
+        // Then
+        assertFalse(changes.isReset());
+        assertFalse(changes.isHasMore());
+        assertEquals("t1", changes.getChanged().get(0).getId());
+        assertEquals("t2", changes.getDeleted().get(0).getId());
+        assertEquals(4L, changes.getDeleted().get(0).getVersion());
+        TaskChangesService.SyncCursor next = TaskChangesService.SyncCursor.decode(changes.getCursor());
+        assertNull(next.id);
+        assertTrue(next.updatedAt.isBefore(LocalDateTime.now().minusSeconds(4)));
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(Task.class));
+        assertFalse(query.getValue().getQueryObject().containsKey("$or"));
+        assertEquals(101, query.getValue().getLimit());
+    }
+
+    @Test
+    void getChanges_CursorOlderThanTombstones_ResetsAndRejectsForgedCursors() {
+        // Given
+        String expired = new TaskChangesService.SyncCursor(LocalDateTime.now().minusDays(31), null, null).encode();
+
+        // When
+        TaskChangesResponse changes = changesService.getChanges("user1", expired, 100);
+
+        // Then
+        assertTrue(changes.isReset());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(query.capture(), eq(Task.class));
+        Document criteria = query.getValue().getQueryObject();
+        assertTrue(criteria.containsKey("$or"));
+        assertFalse(criteria.containsKey("$and"));
+        assertThrows(IllegalArgumentException.class, () -> changesService.getChanges("user1", "not-a-cursor", 100));
+    }
+
+    private Task task(String id, LocalDateTime updatedAt, boolean deleted) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUserId("user1");
+        task.setUpdatedAt(updatedAt);
+        if (deleted) {
+            task.setDeletePending(true);
+            task.setDeletedAt(updatedAt);
+        }
+        return task;
+    }
+}
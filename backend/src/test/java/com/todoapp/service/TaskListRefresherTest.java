@@ -0,0 +1,96 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskListRefresherTest {
+
+    private TaskListRefresher refresher;
+
+    private final RedisPublisher.CachedTasks stale =
+            new RedisPublisher.CachedTasks(List.of(new TaskResponse()), 0, false, 1L);
+    private final RedisPublisher.CachedTasks freshList =
+            new RedisPublisher.CachedTasks(List.of(new TaskResponse(), new TaskResponse()), 0, true, 2L);
+
+    @BeforeEach
+    void setUp() {
+        refresher = new TaskListRefresher(2, 10);
+        ReflectionTestUtils.setField(refresher, "mongoDeadline", Duration.ofMillis(50));
+    }
+
+    @AfterEach
+    void tearDown() {
+        refresher.shutdown();
+    }
+
+    @Test
+    void load_SlowMongo_ServesStaleListAfterDeadline() {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        long started = System.nanoTime();
+        RedisPublisher.CachedTasks result = refresher.load("user1", () -> {
+            await(release);
+            return freshList;
+        }, stale);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        release.countDown();
+
+        // Then
+        assertSame(stale, result);
+        assertEquals(1L, result.getListVersion());
+        assertTrue(elapsedMs < 1000, "waited " + elapsedMs + " ms");
+        assertEquals(1L, refresher.getStats().get("staleServed"));
+    }
+
+    @Test
+    void load_FastMongo_ReturnsFreshList() {
+        // When
+        RedisPublisher.CachedTasks result = refresher.load("user1", () -> freshList, stale);
+
+        // Then
+        assertSame(freshList, result);
+    }
+
+    @Test
+    void refreshAsync_ConcurrentRequests_RunOneLoad() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            refresher.refreshAsync("user1", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return freshList;
+            });
+        }
+        release.countDown();
+        Thread.sleep(100);
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(4L, refresher.getStats().get("sharedLoads"));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.todoapp.service;
+
+import com.todoapp.model.OutboxEvent;
+import com.todoapp.model.Task;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskOutboxRelayTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private RedisPublisher redisPublisher;
+
+    @Mock
+    private BulkOperations bulkOperations;
+
+    private TaskOutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        relay = new TaskOutboxRelay(mongoOperations, redisPublisher);
+        ReflectionTestUtils.setField(relay, "batchSize", 100);
+        lenient().when(mongoOperations.bulkOps(BulkOperations.BulkMode.UNORDERED, Task.class)).thenReturn(bulkOperations);
+        lenient().when(redisPublisher.taskUpdateMessage(anyString(), anyString(), anyString(), any()))
+                .thenAnswer(invocation -> "task:" + invocation.getArgument(1) + ":" + invocation.getArgument(2));
+        lenient().when(redisPublisher.bulkTaskUpdateMessage(anyString(), anyString(), any()))
+                .thenAnswer(invocation -> "bulk:" + ((List<?>) invocation.getArgument(2)).size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void publish_GroupsBulkEventsAndKeepsOrder() {
+        // Given
+        LocalDateTime now = LocalDateTime.now();
+        Task first = task("t1", event("UPDATE", null, now.minusSeconds(3)),
+                event("BULK_MARK_COMPLETE", "b1", now.minusSeconds(2)));
+        Task second = task("t2", event("BULK_MARK_COMPLETE", "b1", now.minusSeconds(2)),
+                event("UPDATE", null, now.minusSeconds(1)));
+
+        // When
+        int published = relay.publish(List.of(first, second));
+
+        // Then
+        assertEquals(4, published);
+        ArgumentCaptor<Map<String, List<String>>> messages = ArgumentCaptor.forClass(Map.class);
+        verify(redisPublisher).publishUserEvents(messages.capture(), eq(Set.of("user1")));
+        assertEquals(List.of("task:t1:UPDATE", "bulk:2", "task:t2:UPDATE"), messages.getValue().get("user1"));
+        verify(bulkOperations, times(2)).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations).execute();
+    }
+
+    @Test
+    void publishSoon_WriteLargerThanBatchSize_IsReadInOneBatch() {
+        // Given
+        ReflectionTestUtils.setField(relay, "batchSize", 2);
+        List<String> taskIds = List.of("t1", "t2", "t3");
+
+        // When
+        relay.publishSoon(taskIds);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations, timeout(1000)).find(query.capture(), eq(Task.class));
+        Document idFilter = (Document) query.getValue().getQueryObject().get("_id");
+        assertEquals(taskIds, idFilter.get("$in"));
+    }
+
+    @Test
+    void publish_KeepsTombstoneOnceItIsPublished() {
+        // Given
+        Task deleted = task("t1", event("DELETE", null, LocalDateTime.now()));
+        deleted.setDeletePending(true);
+
+        // When
+        relay.publish(List.of(deleted));
+
+        // Then
+        verify(bulkOperations).updateOne(any(Query.class), any(Update.class));
+        verify(bulkOperations, never()).remove(any(Query.class));
+    }
+
+    @Test
+    void publish_RedisFailure_LeavesEventsPending() {
+        // Given
+        Task task = task("t1", event("UPDATE", null, LocalDateTime.now()));
+        doThrow(new RuntimeException("Redis down")).when(redisPublisher).publishUserEvents(any(), any());
+
+        // When & Then
+        assertThrows(RuntimeException.class, () -> relay.publish(List.of(task)));
+        verifyNoInteractions(bulkOperations);
+    }
+
+    private Task task(String id, OutboxEvent... events) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUserId("user1");
+        for (OutboxEvent event : events) {
+            task.addPendingEvent(event);
+        }
+        return task;
+    }
+
+    private OutboxEvent event(String action, String batchId, LocalDateTime createdAt) {
+        OutboxEvent event = new OutboxEvent(action, batchId, Map.of("id", "x"));
+        event.setCreatedAt(createdAt);
+        return event;
+    }
+}
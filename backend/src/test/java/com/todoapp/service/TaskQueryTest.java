@@ -0,0 +1,89 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todoapp.model.TaskStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskQueryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 5, 15); // a Wednesday
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void fromListFilter_OverdueExcludesDoneAndSortsByDueDate() throws Exception {
+        // Given
+        JsonNode filter = objectMapper.readTree("{\"due\": \"overdue\", \"priority\": \"high\"}");
+        LocalDateTime now = TODAY.atTime(9, 0);
+
+        // When
+        Query query = TaskQuery.fromListFilter(filter, TODAY).toMongoQuery("user1", now);
+
+        // Then
+        Document criteria = query.getQueryObject();
+        assertEquals("user1", criteria.get("userId"));
+        assertEquals(new Document("$ne", TaskStatus.DONE), criteria.get("status"));
+        assertEquals("HIGH", criteria.get("priority"));
+        assertEquals(new Document("$lt", now), criteria.get("dueDate"));
+        assertEquals(1, query.getSortObject().get("dueDate"));
+        assertEquals(TaskQuery.DEFAULT_LIMIT + 1, query.getLimit());
+    }
+
+    @Test
+    void fromListFilter_ThisWeekRunsToSundayAndPagesAreBounded() throws Exception {
+        // Given
+        JsonNode filter = objectMapper.readTree("{\"due\": \"THIS_WEEK\", \"limit\": 500, \"page\": 3}");
+
+        // When
+        TaskQuery taskQuery = TaskQuery.fromListFilter(filter, TODAY);
+        Query query = taskQuery.toMongoQuery("user1", TODAY.atStartOfDay());
+
+        // Then
+        Document due = (Document) query.getQueryObject().get("dueDate");
+        assertEquals(TODAY.atStartOfDay(), due.get("$gte"));
+        assertEquals(LocalDate.of(2024, 5, 20).atStartOfDay(), due.get("$lt"));
+        assertEquals(TaskQuery.MAX_LIMIT, taskQuery.getLimit());
+        assertEquals(2L * TaskQuery.MAX_LIMIT, query.getSkip());
+        assertEquals("tasks due 2024-05-15 to 2024-05-19", taskQuery.describe());
+    }
+
+    @Test
+    void fromListFilter_IgnoresUnknownValuesAndListsRecentChanges() throws Exception {
+        // Given
+        JsonNode filter = objectMapper.readTree("{\"status\": \"someday\", \"priority\": \"urgent\", \"sort\": \"fun\"}");
+
+        // When
+        TaskQuery taskQuery = TaskQuery.fromListFilter(filter, TODAY);
+        Query query = taskQuery.toMongoQuery("user1", TODAY.atStartOfDay());
+
+        // Then
+        assertFalse(taskQuery.isFiltered());
+        assertFalse(query.getQueryObject().containsKey("status"));
+        assertFalse(query.getQueryObject().containsKey("priority"));
+        assertEquals(-1, query.getSortObject().get("updatedAt"));
+    }
+
+    @Test
+    void fromListFilter_DueDateOrderWithoutDueFilter_ListsOnlyDatedTasks() throws Exception {
+        // Given
+        JsonNode filter = objectMapper.readTree("{\"sort\": \"due date\"}");
+
+        // When
+        TaskQuery taskQuery = TaskQuery.fromListFilter(filter, TODAY);
+        Query query = taskQuery.toMongoQuery("user1", TODAY.atStartOfDay());
+
+        // Then
+        assertEquals(new Document("$ne", null), query.getQueryObject().get("dueDate"));
+        assertEquals(1, query.getSortObject().get("dueDate"));
+        assertTrue(taskQuery.isFiltered());
+        assertEquals("tasks with a due date", taskQuery.describe());
+    }
+}
@@ -0,0 +1,111 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskStatus;
+import com.todoapp.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSearchIndexTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    private TaskSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new TaskSearchIndex(taskRepository);
+        ReflectionTestUtils.setField(index, "maxUsers", 100);
+        ReflectionTestUtils.setField(index, "maxAge", Duration.ofMinutes(10));
+    }
+
+    @Test
+    void findBestMatch_PrefersOpenRecentTaskOverFirstSubstringMatch() {
+        // Given
+        when(taskRepository.findByUserId("user1")).thenReturn(List.of(
+                task("t1", "Pay dentist invoice", TaskStatus.DONE, 90),
+                task("t2", "Buy groceries", TaskStatus.TODO, 1),
+                task("t3", "Dentist appointment", TaskStatus.TODO, 1)));
+
+        // When
+        TaskResponse match = index.findBestMatch("user1", "the dentist task").orElseThrow();
+
+        // Then
+        assertEquals("t3", match.getId());
+    }
+
+    @Test
+    void findBestMatch_ToleratesTyposAndRejectsUnrelatedQueries() {
+        // Given
+        when(taskRepository.findByUserId("user1")).thenReturn(List.of(
+                task("t1", "Renew passport", TaskStatus.TODO, 2),
+                task("t2", "Call plumber", TaskStatus.TODO, 2)));
+
+        // Then
+        assertEquals("t1", index.findBestMatch("user1", "pasport").orElseThrow().getId());
+        assertTrue(index.findBestMatch("user1", "quarterly taxes").isEmpty());
+    }
+
+    @Test
+    void onTasksChanged_UpdatesExistingIndexWithoutRebuilding() {
+        // Given
+        when(taskRepository.findByUserId("user1")).thenReturn(List.of(task("t1", "Call plumber", TaskStatus.TODO, 2)));
+        index.search("user1", "plumber", 5);
+        TaskResponse renamed = new TaskResponse(task("t1", "Call electrician", TaskStatus.TODO, 0));
+
+        // When
+        index.onTasksChanged(TasksChangedEvent.changed("user1", List.of(renamed)));
+        index.onTasksChanged(TasksChangedEvent.changed("user1", List.of(new TaskResponse(task("t2", "Fix plumbing leak", TaskStatus.TODO, 0)))));
+
+        // Then
+        assertEquals("t1", index.findBestMatch("user1", "electrician").orElseThrow().getId());
+        assertEquals("t2", index.findBestMatch("user1", "plumbing").orElseThrow().getId());
+        index.onTasksChanged(TasksChangedEvent.deleted("user1", "t2"));
+        assertTrue(index.findBestMatch("user1", "plumbing leak").isEmpty());
+        verify(taskRepository, times(1)).findByUserId("user1");
+    }
+
+    @Test
+    void search_WriteDuringIndexBuild_IsAppliedToTheNewIndex() {
+        // Given
+        TaskResponse added = new TaskResponse(task("t2", "Book flights", TaskStatus.TODO, 0));
+        when(taskRepository.findByUserId("user1")).thenAnswer(invocation -> {
+            // Stored after the build read the tasks, announced before the index is in place
+            index.onTasksChanged(TasksChangedEvent.changed("user1", List.of(added)));
+            return List.of(task("t1", "Renew passport", TaskStatus.TODO, 2));
+        });
+
+        // When
+        index.search("user1", "passport", 5);
+
+        // Then
+        assertEquals("t2", index.findBestMatch("user1", "flights").orElseThrow().getId());
+        verify(taskRepository, times(1)).findByUserId("user1");
+    }
+
+    private Task task(String id, String title, TaskStatus status, int daysOld) {
+        Task task = new Task();
+        task.setId(id);
+        task.setUserId("user1");
+        task.setTitle(title);
+        task.setStatus(status);
+        task.setVersion(1L);
+        task.setCreatedAt(LocalDateTime.now().minusDays(daysOld));
+        task.setUpdatedAt(LocalDateTime.now().minusDays(daysOld));
+        return task;
+    }
+}
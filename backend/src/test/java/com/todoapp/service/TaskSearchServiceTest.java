@@ -0,0 +1,111 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskSearchResponse;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskStatus;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskSearchServiceTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    private TaskSearchService searchService;
+
+    @BeforeEach
+    void setUp() {
+        searchService = new TaskSearchService(mongoOperations);
+    }
+
+    @Test
+    void parse_SplitsWordsPhrasesAndPrefixes() {
+        // When
+        TaskSearchService.SearchTerms terms =
+                TaskSearchService.SearchTerms.parse("Dentist \"call the office\" appoint* x* \"solo\"");
+
+        // Then
+        assertEquals(List.of("dentist", "x", "solo"), new ArrayList<>(terms.words));
+        assertEquals(List.of("call the office"), terms.phrases);
+        assertEquals(List.of("appoint"), new ArrayList<>(terms.prefixes));
+    }
+
+    @Test
+    void search_UsesTextIndexAndFiltersAndPagesWithOneExtraResult() {
+        // Given
+        when(mongoOperations.find(any(Query.class), eq(Task.class))).thenReturn(tasks(3));
+
+        // When
+        TaskSearchResponse response = searchService.search("user1", "dentist \"call back\" app*",
+                TaskStatus.TODO, "high", 1, 2);
+
+        // Then
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(captor.capture(), eq(Task.class));
+        Query query = captor.getValue();
+        Document filter = query.getQueryObject();
+        assertEquals("dentist \"call back\"", ((Document) filter.get("$text")).get("$search"));
+        assertEquals("user1", filter.get("userId"));
+        assertEquals(TaskStatus.TODO, filter.get("status"));
+        assertEquals("HIGH", filter.get("priority"));
+        assertTrue(filter.containsKey("$and"));
+        assertTrue(query.getSortObject().containsKey("score"));
+        assertEquals(2, query.getSkip());
+        assertEquals(3, query.getLimit());
+
+        assertEquals(2, response.getResults().size());
+        assertTrue(response.isHasMore());
+    }
+
+    @Test
+    void search_WithOnlyPrefixesSortsByLastChange() {
+        // Given
+        when(mongoOperations.find(any(Query.class), eq(Task.class))).thenReturn(tasks(1));
+
+        // When
+        TaskSearchResponse response = searchService.search("user1", "dent*", null, null, 0, 20);
+
+        // Then
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations).find(captor.capture(), eq(Task.class));
+        assertFalse(captor.getValue().getQueryObject().containsKey("$text"));
+        assertEquals(-1, captor.getValue().getSortObject().get("updatedAt"));
+        assertFalse(response.isHasMore());
+    }
+
+    @Test
+    void search_RejectsOversizedPagesAndDeepOffsets() {
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("user1", "x", null, null, 0, TaskSearchService.MAX_PAGE_SIZE + 1));
+        assertThrows(IllegalArgumentException.class,
+                () -> searchService.search("user1", "x", null, null, 51, 20));
+        verifyNoInteractions(mongoOperations);
+    }
+
+    private List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            Task task = new Task();
+            task.setId("t" + i);
+            task.setTitle("Task " + i);
+            task.setUserId("user1");
+            tasks.add(task);
+        }
+        return tasks;
+    }
+}
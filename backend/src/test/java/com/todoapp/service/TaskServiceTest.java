@@ -1,21 +1,45 @@
 package com.todoapp.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.bulk.BulkWriteResult;
+import com.todoapp.config.JacksonConfig;
+import com.todoapp.dto.TaskPatchRequest;
 import com.todoapp.dto.TaskRequest;
 import com.todoapp.dto.TaskResponse;
+import com.todoapp.dto.TaskResyncResponse;
+import com.todoapp.dto.TaskSyncRequest;
+import com.todoapp.dto.TaskSyncResponse;
+import com.todoapp.exception.TaskVersionConflictException;
+import com.todoapp.model.OutboxEvent;
 import com.todoapp.model.Task;
 import com.todoapp.model.TaskStatus;
 import com.todoapp.repository.TaskRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +52,24 @@ class TaskServiceTest {    @Mock
     @Mock
     private RedisPublisher redisPublisher;
 
+    @Mock
+    private SequenceGeneratorService sequenceGeneratorService;
+
+    @Mock
+    private TaskOutboxRelay taskOutboxRelay;
+
+    @Mock
+    private TaskListRefresher taskListRefresher;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Spy
+    private ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
     @InjectMocks
     private TaskService taskService;
 
@@ -51,8 +93,60 @@ class TaskServiceTest {    @Mock
         taskRequest.setDueDate(LocalDateTime.now().plusDays(1));        // Mock RedisPublisher methods - lenient to avoid unnecessary stubbing errors
         lenient().doNothing().when(redisPublisher).invalidateUserTasksCache(anyString());
         lenient().doNothing().when(redisPublisher).publishTaskUpdate(anyString(), anyString(), anyString(), any());
-        lenient().doNothing().when(redisPublisher).cacheUserTasks(anyString(), any());
+        lenient().doNothing().when(redisPublisher).cacheUserTasks(anyString(), any(), any());
         lenient().when(redisPublisher.getCachedUserTasks(anyString())).thenReturn(null); // No cached data by default
+        lenient().when(taskListRefresher.load(anyString(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(1).get());
+        ReflectionTestUtils.setField(taskService, "cacheSoftTtl", Duration.ofSeconds(30));
+    }
+
+    @Test
+    void getAllTasksForUser_FreshCacheOlderThanSoftTtl_ServesCacheAndRefreshesInBackground() {
+        // Given
+        List<TaskResponse> cachedList = List.of(new TaskResponse(testTask));
+        long readAt = System.currentTimeMillis() - Duration.ofMinutes(1).toMillis();
+        when(redisPublisher.getCachedUserTasks(userId)).thenReturn(new RedisPublisher.CachedTasks(cachedList, readAt, true));
+
+        // When
+        List<TaskResponse> result = taskService.getAllTasksForUser(userId);
+
+        // Then
+        assertSame(cachedList, result);
+        verify(taskListRefresher).refreshAsync(eq(userId), any());
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    void getAllTasksForUser_StaleCache_LoadsWithStaleFallback() {
+        // Given
+        RedisPublisher.CachedTasks stale = new RedisPublisher.CachedTasks(List.of(), System.currentTimeMillis(), false);
+        when(redisPublisher.getCachedUserTasks(userId)).thenReturn(stale);
+        when(taskRepository.findByUserId(userId)).thenReturn(List.of(testTask));
+
+        // When
+        List<TaskResponse> result = taskService.getAllTasksForUser(userId);
+
+        // Then
+        assertEquals(1, result.size());
+        verify(taskListRefresher).load(eq(userId), any(), same(stale));
+        verify(redisPublisher).cacheUserTasks(eq(userId), anyList(), any());
+    }
+
+    @Test
+    void getTaskList_FreshCacheFromAnOlderListVersion_IsReloaded() {
+        // Given
+        RedisPublisher.CachedTasks cached = new RedisPublisher.CachedTasks(List.of(), System.currentTimeMillis(), true, 4L);
+        when(redisPublisher.getCachedUserTasks(userId)).thenReturn(cached);
+        when(redisPublisher.getTaskListVersion(userId)).thenReturn(5L);
+        when(taskRepository.findByUserId(userId)).thenReturn(List.of(testTask));
+
+        // When
+        RedisPublisher.CachedTasks result = taskService.getTaskList(userId, 5L);
+
+        // Then
+        assertEquals(1, result.getTasks().size());
+        assertEquals(5L, result.getListVersion());
+        verify(redisPublisher).cacheUserTasks(eq(userId), anyList(), eq(5L));
     }
 
     @Test
@@ -180,7 +274,8 @@ class TaskServiceTest {    @Mock
         updatedTask.setStatus(TaskStatus.IN_PROGRESS);
         updatedTask.setUserId(userId);
 
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(updatedTask);
 
         // When
         TaskResponse result = taskService.updateTask(taskId, taskRequest, userId);
@@ -191,7 +286,7 @@ class TaskServiceTest {    @Mock
         assertEquals(TaskStatus.IN_PROGRESS, result.getStatus());
 
         verify(taskRepository, times(1)).findByIdAndUserId(taskId, userId);
-        verify(taskRepository, times(1)).save(any(Task.class));
+        verify(taskRepository, never()).save(any(Task.class));
     }
 
     @Test
@@ -208,7 +303,61 @@ class TaskServiceTest {    @Mock
         assertEquals("Task not found", exception.getMessage());
 
         verify(taskRepository, times(1)).findByIdAndUserId(taskId, userId);
+        verifyNoInteractions(mongoOperations);
+    }
+
+    @Test
+    void patchTask_SetsOnlyProvidedFieldsAtTheExpectedVersion() {
+        // Given
+        TaskPatchRequest patch = new TaskPatchRequest();
+        patch.setStatus(TaskStatus.DONE);
+        patch.setVersion(3L);
+        testTask.setStatus(TaskStatus.DONE);
+        testTask.setVersion(4L);
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(testTask);
+
+        // When
+        TaskResponse result = taskService.patchTask("task123", patch, userId);
+
+        // Then
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Task.class));
+        assertEquals(3L, query.getValue().getQueryObject().get("version"));
+        Map<String, Object> set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("status", "updatedAt", "version"), set.keySet());
+        assertEquals(4L, set.get("version"));
+        OutboxEvent event = (OutboxEvent) update.getValue().getUpdateObject().get("$push", Document.class).get("pendingEvents");
+        assertEquals("UPDATE", event.getAction());
+        assertEquals("DONE", event.getData().get("status"));
+        assertFalse(event.getData().containsKey("title"));
+
+        assertEquals(4L, result.getVersion());
+        verify(taskRepository, never()).findByIdAndUserId(anyString(), anyString());
         verify(taskRepository, never()).save(any(Task.class));
+        verify(taskOutboxRelay).publishSoon(List.of("task123"));
+    }
+
+    @Test
+    void patchTask_VersionMismatch_ThrowsConflictWithCurrentTask() {
+        // Given
+        TaskPatchRequest patch = new TaskPatchRequest();
+        patch.setTitle("Mine");
+        patch.setVersion(1L);
+        testTask.setVersion(2L);
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(null);
+        when(taskRepository.findByIdAndUserId("task123", userId)).thenReturn(Optional.of(testTask));
+
+        // When
+        TaskVersionConflictException conflict = assertThrows(TaskVersionConflictException.class,
+                () -> taskService.patchTask("task123", patch, userId));
+
+        // Then
+        assertEquals(2L, conflict.getCurrent().getVersion());
+        verify(taskOutboxRelay, never()).publishSoon(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
@@ -228,7 +377,8 @@ class TaskServiceTest {    @Mock
         updatedTask.setStatus(TaskStatus.TODO); // Original status preserved
         updatedTask.setUserId(userId);
 
-        when(taskRepository.save(any(Task.class))).thenReturn(updatedTask);
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(updatedTask);
 
         // When
         TaskResponse result = taskService.updateTask(taskId, partialRequest, userId);
@@ -239,8 +389,130 @@ class TaskServiceTest {    @Mock
         assertEquals("Test Description", result.getDescription());
         assertEquals(TaskStatus.TODO, result.getStatus());
 
-        verify(taskRepository, times(1)).findByIdAndUserId(taskId, userId);
-        verify(taskRepository, times(1)).save(any(Task.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Task.class));
+        Map<String, Object> set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(Set.of("title", "updatedAt", "version"), set.keySet());
+    }
+
+    @Test
+    void updateTask_PublishesOnlyChangedFieldsWithNextVersion() {
+        // Given
+        String taskId = "task123";
+        testTask.setVersion(4L);
+        TaskRequest statusOnly = new TaskRequest();
+        statusOnly.setStatus(TaskStatus.DONE);
+        statusOnly.setTitle("Test Task");
+
+        when(taskRepository.findByIdAndUserId(taskId, userId)).thenReturn(Optional.of(testTask));
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenAnswer(invocation -> {
+                    testTask.setStatus(TaskStatus.DONE);
+                    testTask.setVersion(5L);
+                    return testTask;
+                });
+
+        // When
+        TaskResponse result = taskService.updateTask(taskId, statusOnly, userId);
+
+        // Then
+        assertEquals(5L, result.getVersion());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(query.capture(), update.capture(), any(FindAndModifyOptions.class), eq(Task.class));
+        assertEquals(4L, query.getValue().getQueryObject().get("version"));
+        OutboxEvent event = (OutboxEvent) update.getValue().getUpdateObject().get("$push", Document.class).get("pendingEvents");
+        assertEquals("UPDATE", event.getAction());
+        // The unchanged title is neither written nor published
+        assertEquals(Set.of("id", "version", "status", "updatedAt"), event.getData().keySet());
+        assertEquals(5, ((Number) event.getData().get("version")).intValue());
+        assertEquals("DONE", event.getData().get("status"));
+        verify(taskRepository, never()).save(any(Task.class));
+        verify(taskOutboxRelay).publishSoon(List.of(taskId));
+        verifyNoInteractions(redisPublisher);
+    }
+
+    @Test
+    void updateTask_LostRace_RetriesAgainstTheTaskAsItIsNow() {
+        // Given
+        String taskId = "task123";
+        testTask.setVersion(4L);
+        Task current = new Task();
+        current.setId(taskId);
+        current.setUserId(userId);
+        current.setTitle("Renamed meanwhile");
+        current.setStatus(TaskStatus.TODO);
+        current.setVersion(5L);
+        TaskRequest statusOnly = new TaskRequest();
+        statusOnly.setStatus(TaskStatus.DONE);
+
+        when(taskRepository.findByIdAndUserId(taskId, userId))
+                .thenReturn(Optional.of(testTask))
+                .thenReturn(Optional.of(current));
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(null)
+                .thenReturn(current);
+
+        // When
+        TaskResponse result = taskService.updateTask(taskId, statusOnly, userId);
+
+        // Then
+        assertEquals("Renamed meanwhile", result.getTitle());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations, times(2)).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class));
+        assertEquals(4L, query.getAllValues().get(0).getQueryObject().get("version"));
+        assertEquals(5L, query.getAllValues().get(1).getQueryObject().get("version"));
+        verify(taskOutboxRelay).publishSoon(List.of(taskId));
+    }
+
+    @Test
+    void updateTask_KeepsLosingRaces_ThrowsConflictWithCurrentTask() {
+        // Given
+        String taskId = "task123";
+        Task current = new Task();
+        current.setId(taskId);
+        current.setUserId(userId);
+        current.setTitle("Renamed meanwhile");
+        current.setVersion(5L);
+        TaskRequest statusOnly = new TaskRequest();
+        statusOnly.setStatus(TaskStatus.DONE);
+
+        when(taskRepository.findByIdAndUserId(taskId, userId))
+                .thenReturn(Optional.of(testTask))
+                .thenReturn(Optional.of(current));
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(null);
+
+        // When
+        TaskVersionConflictException conflict = assertThrows(TaskVersionConflictException.class,
+                () -> taskService.updateTask(taskId, statusOnly, userId));
+
+        // Then
+        assertEquals(5L, conflict.getCurrent().getVersion());
+        verify(mongoOperations, times(3)).findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class));
+        verify(taskOutboxRelay, never()).publishSoon(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void resyncTasks_ReturnsChangedUnknownAndDeletedTasks() {
+        // Given
+        testTask.setVersion(3L);
+        Task current = new Task();
+        current.setId("task456");
+        current.setVersion(2L);
+        Task unknown = new Task();
+        unknown.setId("task789");
+        when(taskRepository.findByUserId(userId)).thenReturn(List.of(testTask, current, unknown));
+
+        // When
+        TaskResyncResponse result = taskService.resyncTasks(userId,
+                Map.of("task123", 2L, "task456", 2L, "gone", 7L));
+
+        // Then
+        assertEquals(List.of("task123", "task789"),
+                result.getChanged().stream().map(TaskResponse::getId).toList());
+        assertEquals(List.of("gone"), result.getDeleted());
     }
 
     @Test
@@ -248,13 +520,25 @@ class TaskServiceTest {    @Mock
         // Given
         String taskId = "task123";
         when(taskRepository.findByIdAndUserId(taskId, userId)).thenReturn(Optional.of(testTask));
+        when(mongoOperations.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(Task.class)))
+                .thenReturn(testTask);
 
         // When
         taskService.deleteTask(taskId, userId);
 
         // Then
         verify(taskRepository, times(1)).findByIdAndUserId(taskId, userId);
-        verify(taskRepository, times(1)).delete(testTask);
+        // Removed by the outbox relay once the tombstone is published
+        verify(taskRepository, never()).delete(any(Task.class));
+        verify(taskRepository, never()).save(any(Task.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoOperations).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class), eq(Task.class));
+        Map<String, Object> set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(true, set.get("deletePending"));
+        OutboxEvent event = (OutboxEvent) update.getValue().getUpdateObject().get("$push", Document.class).get("pendingEvents");
+        assertEquals("DELETE", event.getAction());
+        assertEquals(true, event.getData().get("deleted"));
+        verify(taskOutboxRelay).publishSoon(List.of(taskId));
     }
 
     @Test
@@ -272,6 +556,7 @@ class TaskServiceTest {    @Mock
 
         verify(taskRepository, times(1)).findByIdAndUserId(taskId, userId);
         verify(taskRepository, never()).delete(any(Task.class));
+        verifyNoInteractions(mongoOperations);
     }
 
     @Test
@@ -335,4 +620,104 @@ class TaskServiceTest {    @Mock
 
         verify(taskRepository, times(1)).save(any(Task.class));
     }
+
+    @Test
+    void syncTasks_AppliesBatchInOneOrderedBulkWrite() {
+        // Given
+        testTask.setVersion(3L);
+        Task other = new Task();
+        other.setId("task456");
+        other.setUserId(userId);
+        other.setVersion(2L);
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, Task.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(written);
+        when(written.getInsertedCount()).thenReturn(1);
+        when(written.getMatchedCount()).thenReturn(2);
+        when(mongoOperations.find(any(Query.class), eq(Task.class))).thenReturn(List.of(testTask, other));
+
+        // When
+        TaskSyncResponse response = taskService.syncTasks(syncRequest(
+                mutation("c1", TaskSyncRequest.Operation.CREATE, null, null, "Offline task"),
+                mutation("c2", TaskSyncRequest.Operation.UPDATE, "task123", 3L, "Renamed"),
+                mutation("c3", TaskSyncRequest.Operation.DELETE, "task123", 3L, null),
+                mutation("c4", TaskSyncRequest.Operation.UPDATE, "task456", 1L, "Stale")), userId);
+
+        // Then
+        List<TaskSyncResponse.Result> results = response.getResults();
+        assertEquals(TaskSyncResponse.Status.APPLIED, results.get(0).getStatus());
+        assertEquals(TaskSyncResponse.Status.APPLIED, results.get(1).getStatus());
+        assertEquals(TaskSyncResponse.Status.APPLIED, results.get(2).getStatus());
+        assertEquals(TaskSyncResponse.Status.CONFLICT, results.get(3).getStatus());
+        assertEquals(2L, results.get(3).getTask().getVersion());
+
+        ArgumentCaptor<Query> guards = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(sequenceGeneratorService).reserveSequence("task_ticket", 1);
+        verify(sequenceGeneratorService, never()).generateSequence(anyString());
+        verify(bulk).insert(any(Task.class));
+        verify(bulk, times(2)).updateOne(guards.capture(), updates.capture());
+        // The delete builds on the update before it
+        assertEquals(4L, guards.getAllValues().get(1).getQueryObject().get("version"));
+        OutboxEvent event = (OutboxEvent) ((Map<?, ?>) updates.getAllValues().get(1).getUpdateObject().get("$push")).get("pendingEvents");
+        assertEquals("BULK_SYNC", event.getAction());
+        assertEquals(true, event.getData().get("deleted"));
+        verify(bulk, times(1)).execute();
+        verify(taskOutboxRelay).publishSoon(argThat(ids -> ids.size() == 2 && ids.contains("task123")));
+        verify(eventPublisher, times(1)).publishEvent(any(TasksChangedEvent.class));
+    }
+
+    @Test
+    void syncTasks_LostRaceIsAConflictAndRepeatedCreateIsNotStoredTwice() {
+        // Given
+        testTask.setVersion(3L);
+        Task created = new Task();
+        created.setId("task789");
+        created.setUserId(userId);
+        created.setClientId("c1");
+        Task raced = new Task();
+        raced.setId("task123");
+        raced.setUserId(userId);
+        raced.setVersion(4L);
+        BulkOperations bulk = mock(BulkOperations.class);
+        BulkWriteResult written = mock(BulkWriteResult.class);
+        when(mongoOperations.bulkOps(BulkOperations.BulkMode.ORDERED, Task.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(written);
+        when(mongoOperations.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(testTask, created))
+                .thenReturn(List.of(raced));
+
+        // When
+        TaskSyncResponse response = taskService.syncTasks(syncRequest(
+                mutation("c1", TaskSyncRequest.Operation.CREATE, null, null, "Offline task"),
+                mutation("c2", TaskSyncRequest.Operation.UPDATE, "task123", 3L, "Renamed")), userId);
+
+        // Then
+        assertEquals(TaskSyncResponse.Status.APPLIED, response.getResults().get(0).getStatus());
+        assertEquals("task789", response.getResults().get(0).getTask().getId());
+        assertEquals(TaskSyncResponse.Status.CONFLICT, response.getResults().get(1).getStatus());
+        assertEquals(4L, response.getResults().get(1).getTask().getVersion());
+        verify(sequenceGeneratorService, never()).reserveSequence(anyString(), anyInt());
+        verify(bulk, never()).insert(any(Task.class));
+        verify(taskOutboxRelay, never()).publishSoon(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static TaskSyncRequest syncRequest(TaskSyncRequest.Mutation... mutations) {
+        TaskSyncRequest request = new TaskSyncRequest();
+        request.setMutations(List.of(mutations));
+        return request;
+    }
+
+    private static TaskSyncRequest.Mutation mutation(String clientId, TaskSyncRequest.Operation op, String taskId,
+                                                     Long baseVersion, String title) {
+        TaskSyncRequest.Mutation mutation = new TaskSyncRequest.Mutation();
+        mutation.setClientId(clientId);
+        mutation.setOp(op);
+        mutation.setTaskId(taskId);
+        mutation.setBaseVersion(baseVersion);
+        mutation.setTitle(title);
+        return mutation;
+    }
 }
@@ -0,0 +1,199 @@
+package com.todoapp.service;
+
+import com.todoapp.dto.TaskResponse;
+import com.todoapp.model.Task;
+import com.todoapp.model.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskStatisticsServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private RedisCircuitBreaker circuitBreaker;
+
+    @Mock
+    private RedisPublisher redisPublisher;
+
+    @Mock
+    private PresenceService presenceService;
+
+    private TaskStatisticsService statisticsService;
+
+    @BeforeEach
+    void setUp() {
+        statisticsService = new TaskStatisticsService(redisTemplate, mongoOperations, circuitBreaker,
+                redisPublisher, presenceService);
+        ReflectionTestUtils.setField(statisticsService, "ttl", Duration.ofDays(1));
+        ReflectionTestUtils.setField(statisticsService, "tombstoneTtl", Duration.ofHours(1));
+        ReflectionTestUtils.setField(statisticsService, "maxStaleUsers", 100);
+        ReflectionTestUtils.setField(statisticsService, "rebuildTimeout", Duration.ofMinutes(1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void countTasks_CountsStatusPriorityAndDueDates() {
+        // Given
+        LocalDateTime now = LocalDateTime.of(2024, 5, 15, 12, 0); // a Wednesday
+        List<Task> tasks = List.of(
+                task(TaskStatus.TODO, "HIGH", now.minusDays(1), now.minusDays(2)),    // overdue
+                task(TaskStatus.IN_PROGRESS, "LOW", now.plusHours(3), now),           // due today
+                task(TaskStatus.TODO, "HIGH", now.minusHours(1), now),                // overdue, due today
+                task(TaskStatus.DONE, "MEDIUM", now.minusDays(3), now.minusDays(1)),  // done this week
+                task(TaskStatus.DONE, null, null, now.minusDays(10)));                // done last week
+
+        // When
+        Map<String, Object> statistics = TaskStatisticsService.countTasks(tasks, now);
+
+        // Then
+        assertEquals(5L, statistics.get("total"));
+        Map<String, Long> byStatus = (Map<String, Long>) statistics.get("byStatus");
+        assertEquals(2L, byStatus.get("TODO"));
+        assertEquals(2L, byStatus.get("DONE"));
+        assertEquals(0L, byStatus.get("PENDING"));
+        assertEquals(2L, ((Map<String, Long>) statistics.get("byPriority")).get("HIGH"));
+        assertEquals(2L, statistics.get("overdue"));
+        assertEquals(2L, statistics.get("dueToday"));
+        assertEquals(1L, statistics.get("completedThisWeek"));
+    }
+
+    @Test
+    void applyArgs_EncodesChangesAndDeletions() {
+        // Given
+        TaskResponse task = new TaskResponse(task(TaskStatus.DONE, "HIGH", null, LocalDateTime.now()));
+        task.setVersion(7L);
+
+        // When
+        List<String> changed = statisticsService.applyArgs("t1", task);
+        List<String> deleted = statisticsService.applyArgs("t2", null);
+
+        // Then
+        assertEquals(List.of("t1", "7", "DONE", "HIGH", ""), changed.subList(0, 5));
+        assertEquals(8, changed.size());
+        assertEquals(List.of("t2", "0", "", "", "", "", "86400000", "3600000"), deleted);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void apply_ReportsOnlyUsersWhoseCountsChanged() {
+        // Given
+        when(circuitBreaker.allowRequest()).thenReturn(true);
+        when(redisTemplate.executePipelined(any(RedisCallback.class))).thenReturn(List.of(1L, -1L));
+
+        // When
+        Set<String> updated = statisticsService.apply(List.of(
+                TasksChangedEvent.changed("user1", List.of(new TaskResponse(task(TaskStatus.TODO, "LOW", null, null)))),
+                TasksChangedEvent.deleted("user2", "t9")));
+
+        // Then
+        assertEquals(Set.of("user1"), updated);
+        verify(circuitBreaker).recordResult(0);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void apply_WhileRedisIsDownDropsTheCountsOnceItIsBack() {
+        // Given
+        when(circuitBreaker.allowRequest()).thenReturn(false, true);
+
+        // When
+        Set<String> updated = statisticsService.apply(List.of(TasksChangedEvent.deleted("user1", "t1")));
+        statisticsService.dropStaleCounts();
+
+        // Then
+        assertTrue(updated.isEmpty());
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+        assertEquals(0, statisticsService.getStats().get("staleUsers"));
+    }
+
+    @Test
+    void getStatistics_AnotherNodeIsRebuilding_CountsInMongoWithoutResetting() {
+        // Given
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(), any(), any(), any(), any()))
+                .thenReturn(0L);
+        when(mongoOperations.find(any(Query.class), eq(Task.class)))
+                .thenReturn(List.of(task(TaskStatus.TODO, "LOW", null, null)));
+
+        // When
+        Map<String, Object> statistics = statisticsService.getStatistics("user1");
+
+        // Then
+        assertEquals(1L, statistics.get("total"));
+        // Read once for the answer, never for a rebuild
+        verify(mongoOperations, times(1)).find(any(Query.class), eq(Task.class));
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        verify(redisTemplate).execute(ArgumentMatchers.<RedisScript<Long>>any(), eq(List.of("task_stats:{user1}",
+                "task_stats:{user1}:tasks", "task_stats:{user1}:due", "task_stats:{user1}:done")),
+                args.capture(), args.capture(), args.capture(), args.capture());
+        assertEquals("60000", args.getAllValues().get(3));
+    }
+
+    @Test
+    void getStatistics_Rebuilding_MarksTheCountsBuiltOnlyUnderItsOwnMarker() throws Exception {
+        // Given
+        ArgumentCaptor<Object> args = ArgumentCaptor.forClass(Object.class);
+        when(redisTemplate.execute(ArgumentMatchers.<RedisScript<Long>>any(), anyList(),
+                args.capture(), args.capture(), args.capture(), args.capture())).thenReturn(1L);
+        when(mongoOperations.find(any(Query.class), eq(Task.class))).thenReturn(List.of());
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+        when(connection.scriptingCommands()).thenReturn(scripting);
+        when(redisTemplate.executePipelined(ArgumentMatchers.<RedisCallback<Object>>any())).thenAnswer(invocation -> {
+            invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection);
+            return List.of();
+        }).thenReturn(List.of());
+
+        // When
+        statisticsService.getStatistics("user1");
+
+        // Then
+        String marker = (String) args.getAllValues().get(2);
+        ArgumentCaptor<byte[]> keysAndArgs = ArgumentCaptor.forClass(byte[].class);
+        verify(scripting).eval(any(byte[].class), eq(ReturnType.INTEGER), eq(1),
+                keysAndArgs.capture(), keysAndArgs.capture(), keysAndArgs.capture());
+        assertEquals("task_stats:{user1}", new String(keysAndArgs.getAllValues().get(0), StandardCharsets.UTF_8));
+        assertEquals(marker, new String(keysAndArgs.getAllValues().get(1), StandardCharsets.UTF_8));
+    }
+
+    private Task task(TaskStatus status, String priority, LocalDateTime dueDate, LocalDateTime updatedAt) {
+        Task task = new Task();
+        task.setId("t" + System.nanoTime());
+        task.setUserId("user1");
+        task.setStatus(status);
+        task.setPriority(priority);
+        task.setDueDate(dueDate);
+        task.setUpdatedAt(updatedAt);
+        return task;
+    }
+}
@@ -0,0 +1,98 @@
+package com.todoapp.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventCoalescerTest {
+
+    @Mock
+    private SimpMessagingTemplate messagingTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private UserEventCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(messagingTemplate.getUserDestinationPrefix()).thenReturn("/user/");
+        coalescer = new UserEventCoalescer(messagingTemplate, objectMapper,
+                Duration.ofMillis(30), Duration.ofMillis(200), 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coalescer.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatch_SingleEventInWindow_ForwardsOriginalBytes() {
+        // Given
+        byte[] body = update("t1", 2, "status", "DONE");
+
+        // When
+        coalescer.dispatch("user1", "/queue/tasks", body);
+
+        // Then
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, timeout(1000)).send(eq("/user/user1/queue/tasks"), captor.capture());
+        assertArrayEquals(body, captor.getValue().getPayload());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dispatch_BurstForSameTask_SendsOneMergedBatch() throws Exception {
+        // When
+        coalescer.dispatch("user1", "/queue/tasks", update("t1", 2, "status", "IN_PROGRESS"));
+        coalescer.dispatch("user1", "/queue/tasks", update("t1", 3, "title", "Renamed"));
+        coalescer.dispatch("user1", "/queue/tasks", update("t2", 5, "status", "DONE"));
+
+        // Then
+        ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+        verify(messagingTemplate, timeout(1000)).send(eq("/user/user1/queue/tasks"), captor.capture());
+        Map<String, Object> batch = objectMapper.readValue(captor.getValue().getPayload(), Map.class);
+        assertEquals("TASK_BATCH", batch.get("type"));
+
+        List<Map<String, Object>> events = (List<Map<String, Object>>) batch.get("events");
+        assertEquals(2, events.size());
+        Map<String, Object> data = (Map<String, Object>) events.get(0).get("data");
+        assertEquals(Map.of("id", "t1", "version", 3, "status", "IN_PROGRESS", "title", "Renamed"), data);
+        assertEquals(1, events.get(0).get("baseVersion"));
+        assertEquals(1L, coalescer.getStats().get("framesOut"));
+    }
+
+    @Test
+    void dispatch_NonTaskDestination_SendsImmediately() {
+        // When
+        coalescer.dispatch("user1", "/queue/profile", "{\"type\":\"USER_UPDATE\"}".getBytes(StandardCharsets.UTF_8));
+
+        // Then
+        verify(messagingTemplate).send(eq("/user/user1/queue/profile"), any());
+    }
+
+    private byte[] update(String taskId, int version, String field, Object value) {
+        String json = String.format(
+                "{\"type\":\"TASK_UPDATE\",\"userId\":\"user1\",\"taskId\":\"%s\",\"action\":\"UPDATE\","
+                        + "\"data\":{\"id\":\"%s\",\"version\":%d,\"%s\":\"%s\"},\"timestamp\":1}",
+                taskId, taskId, version, field, value);
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
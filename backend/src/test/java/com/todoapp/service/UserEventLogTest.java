@@ -0,0 +1,77 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StreamOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventLogTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StreamOperations<String, Object, Object> streamOperations;
+
+    private UserEventLog userEventLog;
+
+    @BeforeEach
+    void setUp() {
+        userEventLog = new UserEventLog(redisTemplate);
+        ReflectionTestUtils.setField(userEventLog, "replayMax", 10);
+        lenient().when(redisTemplate.opsForStream()).thenReturn(streamOperations);
+    }
+
+    @Test
+    void readAfter_LastEventStillLogged_ReturnsOnlyLaterEventsWithIds() {
+        // Given
+        when(streamOperations.range(eq("events:{user1}"), ArgumentMatchers.<Range<String>>any(), any(Limit.class)))
+                .thenReturn(List.of(record("100-0", "{\"type\":\"TASK_UPDATE\"}"),
+                        record("105-1", "{\"type\":\"TASK_UPDATE\",\"taskId\":\"t1\"}")));
+
+        // When
+        UserEventLog.Replay replay = userEventLog.readAfter("user1", "100-0");
+
+        // Then
+        assertFalse(replay.isResyncRequired());
+        assertEquals(List.of("{\"type\":\"TASK_UPDATE\",\"taskId\":\"t1\",\"eventId\":\"105-1\"}"), replay.getEvents());
+    }
+
+    @Test
+    void readAfter_LastEventTrimmed_RequiresResync() {
+        // Given
+        when(streamOperations.range(eq("events:{user1}"), ArgumentMatchers.<Range<String>>any(), any(Limit.class)))
+                .thenReturn(List.of(record("200-0", "{\"type\":\"TASK_UPDATE\"}")));
+
+        // When
+        UserEventLog.Replay replay = userEventLog.readAfter("user1", "100-0");
+
+        // Then
+        assertTrue(replay.isResyncRequired());
+        assertTrue(replay.getEvents().isEmpty());
+    }
+
+    private MapRecord<String, Object, Object> record(String id, String json) {
+        return StreamRecords.<String, Object, Object>mapBacked(Map.of("e", json))
+                .withStreamKey("events:{user1}")
+                .withId(RecordId.of(id));
+    }
+}
@@ -0,0 +1,83 @@
+package com.todoapp.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebSocketSessionRegistryTest {
+
+    @Mock
+    private WebSocketSessionRegistry.Listener listener;
+
+    private WebSocketSessionRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new WebSocketSessionRegistry();
+        registry.addListener(listener);
+    }
+
+    @Test
+    void register_NotifiesOnlyOnFirstSessionOfUser() {
+        // When
+        registry.register("user1", "s1");
+        registry.register("user1", "s2");
+
+        // Then
+        verify(listener, times(1)).onFirstSession("user1");
+        assertTrue(registry.hasLocalSessions("user1"));
+        assertEquals(1, registry.getLocalUserCount());
+        assertEquals(2, registry.getLocalSessionCount());
+    }
+
+    @Test
+    void unregister_NotifiesOnlyWhenLastSessionCloses() {
+        // Given
+        registry.register("user1", "s1");
+        registry.register("user1", "s2");
+
+        // When
+        registry.unregister("s1");
+
+        // Then
+        verify(listener, never()).onLastSessionClosed(anyString());
+        assertTrue(registry.hasLocalSessions("user1"));
+
+        // When
+        registry.unregister("s2");
+        registry.unregister("s2");
+
+        // Then
+        verify(listener, times(1)).onLastSessionClosed("user1");
+        assertFalse(registry.hasLocalSessions("user1"));
+    }
+
+    @Test
+    void register_ListenersRunAfterTheSessionMapIsUpdated() {
+        // Given
+        doAnswer(invocation -> {
+            // Inside the map's compute the new entry would not be visible yet
+            assertTrue(registry.hasLocalSessions("user1"));
+            registry.register("user2", "s9");
+            return null;
+        }).when(listener).onFirstSession("user1");
+
+        // When
+        registry.register("user1", "s1");
+        registry.unregister("s1");
+        registry.register("user1", "s2");
+
+        // Then
+        verify(listener, times(2)).onFirstSession("user1");
+        verify(listener, times(1)).onLastSessionClosed("user1");
+        verify(listener, times(1)).onFirstSession("user2");
+        assertTrue(registry.hasLocalSessions("user1"));
+        assertEquals(2, registry.getLocalUserCount());
+    }
+}
@@ -1,6 +1,7 @@
-import { useState, useEffect, useCallback } from 'react';
+import { useState, useEffect, useCallback, useRef } from 'react';
 import { useAuth } from '../context/AuthContext';
 import webSocketService from '../services/webSocketService';
+import { taskService } from '../services/taskService';
 import notificationService from '../utils/notificationService';
 import Logger from '../utils/logger';
 
@@ -9,6 +10,10 @@ export const useRealTimeTasks = (initialTasks = []) => {
   const [isConnected, setIsConnected] = useState(false);
   const [connectionError] = useState(null);
   const { user } = useAuth();
+  // Set by the setTasks updaters below when an event was missed. Updaters must stay free of side
+  // effects (StrictMode runs them twice), so the resync itself starts from an effect.
+  const resyncNeeded = useRef(false);
+  const [eventsHandled, setEventsHandled] = useState(0);
 
   // Check WebSocket connection status periodically
   useEffect(() => {
@@ -24,33 +29,120 @@ export const useRealTimeTasks = (initialTasks = []) => {
     const interval = setInterval(checkConnection, 2000);
 
     return () => clearInterval(interval);
-  }, []);  // Handle real-time task updates
+  }, []);
+
+  // Fetch only what differs from the versions we hold, after a missed event was detected
+  const resyncTasks = useCallback(async (currentTasks) => {
+    const knownVersions = {};
+    currentTasks.forEach(task => {
+      knownVersions[task.id] = task.version ?? 0;
+    });
+    try {
+      const { data } = await taskService.resyncTasks(knownVersions);
+      setTasks(prevTasks => {
+        const changedById = new Map(data.changed.map(task => [task.id, task]));
+        const merged = prevTasks
+          .filter(task => !data.deleted.includes(task.id))
+          .map(task => changedById.get(task.id) || task);
+        const added = data.changed.filter(task => !prevTasks.some(t => t.id === task.id));
+        return [...merged, ...added];
+      });
+    } catch (error) {
+      Logger.error('Task resync failed:', error);
+    }
+  }, []);
+
+  // Runs after every handled event, including those that left the list as it was
+  useEffect(() => {
+    if (resyncNeeded.current) {
+      resyncNeeded.current = false;
+      resyncTasks(tasks);
+    }
+  }, [tasks, eventsHandled, resyncTasks]);
+
+  // Merges a delta ({ id, version, ...changedFields }) into the task list. Returns null when the
+  // delta skips a version, meaning an event was missed and the list must be resynced. A delta merged
+  // by the server's coalescing window spans several versions and says which one it starts from.
+  const applyDelta = (prevTasks, delta, baseVersion = delta.version - 1) => {
+    const existing = prevTasks.find(task => task.id === delta.id);
+    if (!existing) {
+      return null;
+    }
+    const knownVersion = existing.version ?? 0;
+    if (delta.version <= knownVersion) {
+      return prevTasks; // Stale or duplicate event
+    }
+    if (baseVersion > knownVersion) {
+      return null;
+    }
+    return prevTasks.map(task => task.id === delta.id ? { ...task, ...delta } : task);
+  };
+
+  // Handle real-time task updates
   const handleTaskUpdate = useCallback((message) => {
     Logger.debug('Frontend received task update:', message);
-    const { action, data, taskId, type } = message;
+    const { action, data, taskId, type, baseVersion } = message;
+
+    // Events after our last-event-id were trimmed from the server's log
+    if (type === 'RESYNC_REQUIRED') {
+      resyncNeeded.current = true;
+      setEventsHandled(count => count + 1);
+      return;
+    }
+
+    // Events coalesced by the server into one frame; React batches the resulting state updates
+    if (type === 'TASK_BATCH') {
+      message.events.forEach(event => handleTaskUpdate(event));
+      return;
+    }
     
     // Handle bulk updates
     if (type === 'BULK_TASK_UPDATE') {
       Logger.debug('Processing bulk task update:', action, data);
       setTasks(prevTasks => {
         switch (action) {        case 'BULK_MARK_COMPLETE': {
-          // Mark all specified tasks as complete
-          const updatedTaskIds = data.map(task => task.id);
-          const updatedTasks = prevTasks.map(task => 
-            updatedTaskIds.includes(task.id) 
-              ? { ...task, status: 'DONE' }
-              : task
-          );
+          // Apply each task's delta; any version gap triggers a resync
+          let updatedTasks = prevTasks;
+          for (const delta of data) {
+            const next = applyDelta(updatedTasks, delta);
+            if (next === null) {
+              resyncNeeded.current = true;
+              return prevTasks;
+            }
+            updatedTasks = next;
+          }
           // Show less intrusive notification for bulk completion
           if (data.length > 1) {
             notificationService.taskUpdate(`${data.length} tasks completed`);
           }
           return updatedTasks;
+        }
+        case 'BULK_SYNC': {
+          // Offline changes a device uploaded in one batch, in the order it made them
+          let updatedTasks = prevTasks;
+          for (const item of data) {
+            let next;
+            if (item.deleted) {
+              next = updatedTasks.filter(task => task.id !== item.id);
+            } else if (item.created) {
+              const { created, ...task } = item;
+              next = updatedTasks.some(existing => existing.id === task.id) ? updatedTasks : [...updatedTasks, task];
+            } else {
+              next = applyDelta(updatedTasks, item);
+            }
+            if (next === null) {
+              resyncNeeded.current = true;
+              return prevTasks;
+            }
+            updatedTasks = next;
+          }
+          return updatedTasks;
         }
           default:
             return prevTasks;
         }
       });
+      setEventsHandled(count => count + 1);
       return;
     }
     
@@ -69,14 +161,24 @@ export const useRealTimeTasks = (initialTasks = []) => {
       }
         
       case 'UPDATE': {
-        // Update existing task
-        const updatedTasks = prevTasks.map(task => 
-          task.id === data.id ? { ...task, ...data } : task
-        );
+        // Merge the changed fields; a missed version means our copy is stale
+        const updatedTasks = applyDelta(prevTasks, data, baseVersion);
+        if (updatedTasks === null) {
+          resyncNeeded.current = true;
+          return prevTasks;
+        }
         // Don't show notification for real-time updates to reduce noise
         return updatedTasks;
       }
         
+      case 'REPLACE': {
+        // Written outside the API (scripts, migrations), which does not bump versions: take it whole
+        const exists = prevTasks.some(task => task.id === data.id);
+        return exists
+          ? prevTasks.map(task => task.id === data.id ? data : task)
+          : [...prevTasks, data];
+      }
+        
       case 'DELETE': {
         // Remove deleted task
         const filteredTasks = prevTasks.filter(task => task.id !== taskId);
@@ -90,6 +192,7 @@ export const useRealTimeTasks = (initialTasks = []) => {
         return prevTasks;
     }
   });
+  setEventsHandled(count => count + 1);
   }, [user?.id]);
 
   // Handle notifications
@@ -144,10 +247,9 @@ export const useRealTimeTasks = (initialTasks = []) => {
 
   // Function to manually refresh tasks (fallback)
   const refreshTasks = useCallback(async () => {
-    // This would typically call your task service to fetch fresh data
-    // You can implement this based on your existing task fetching logic
     Logger.debug('Refreshing tasks...');
-  }, []);
+    await resyncTasks(tasks);
+  }, [resyncTasks, tasks]);
 
   return {
     tasks,
@@ -5,6 +5,7 @@ export const taskService = {
   updateTask: jest.fn(),
   deleteTask: jest.fn(),
   getTaskById: jest.fn(),
+  resyncTasks: jest.fn(),
 };
 
 export default taskService;
@@ -5,14 +5,31 @@ export const taskService = {
     return api.get('/api/tasks');
   },
 
+  // params: { q, status, priority, page, size }; q takes words, "quoted phrases" and prefixes (dent*)
+  searchTasks: (params) => {
+    return api.get('/api/tasks/search', { params });
+  },
+
+  // Counts by status and priority, overdue, due today and completed this week
+  getTaskStats: () => {
+    return api.get('/api/tasks/stats');
+  },
+
   createTask: (taskData) => {
     return api.post('/api/tasks', taskData);
   },
 
+  // Applies to the task as it is now; answers 409 with { current } only if the task kept changing
+  // while the server retried the write
   updateTask: (taskId, taskData) => {
     return api.put(`/api/tasks/${taskId}`, taskData);
   },
 
+  // Sends only the changed fields; answers 409 with { current } if the task is no longer at version
+  patchTask: (taskId, changes, version) => {
+    return api.patch(`/api/tasks/${taskId}`, { ...changes, version });
+  },
+
   deleteTask: (taskId) => {
     return api.delete(`/api/tasks/${taskId}`);
   },
@@ -20,4 +37,9 @@ export const taskService = {
   getTask: (taskId) => {
     return api.get(`/api/tasks/${taskId}`);
   },
+
+  // knownVersions: { [taskId]: version } for the tasks currently held
+  resyncTasks: (knownVersions) => {
+    return api.post('/api/tasks/resync', knownVersions);
+  },
 };
@@ -10,6 +10,14 @@ class WebSocketService {
     this.reconnectAttempts = 0;
     this.maxReconnectAttempts = 5;
     this.reconnectDelay = 1000; // Start with 1 second
+    // Id of the newest event applied; sent on reconnect so the server replays only what was missed
+    this.lastEventId = null;
+    this.ackTimer = null;
+    this.clientId = localStorage.getItem('wsClientId');
+    if (!this.clientId) {
+      this.clientId = `${Date.now().toString(36)}-${Math.random().toString(36).slice(2, 10)}`;
+      localStorage.setItem('wsClientId', this.clientId);
+    }
   }  connect(userId, onConnected, onError) {
     if (this.connected) {
       return;
@@ -38,8 +46,12 @@ class WebSocketService {
     // Pass the JWT token in the connection headers
     const headers = {
       'Authorization': `Bearer ${token}`,
-      'X-User-ID': userId
+      'X-User-ID': userId,
+      'client-id': this.clientId
     };
+    if (this.lastEventId) {
+      headers['last-event-id'] = this.lastEventId;
+    }
 
     console.log('🔐 Connecting with headers:', { 'Authorization': 'Bearer ***', 'X-User-ID': userId });    this.stompClient.connect(
       headers,
@@ -97,12 +109,23 @@ class WebSocketService {
     // Subscribe to user-specific task updates
     this.subscribe(`/user/${userId}/queue/tasks`, (message) => {
       console.log('📨 Received task update message:', message.body);
-      this.handleMessage('tasks', JSON.parse(message.body));
+      const event = this.trackEventIds(JSON.parse(message.body));
+      if (event) {
+        this.handleMessage('tasks', event);
+      }
     });
 
     // Subscribe to user-specific profile updates
     this.subscribe(`/user/${userId}/queue/profile`, (message) => {
-      this.handleMessage('profile', JSON.parse(message.body));
+      const event = this.trackEventIds(JSON.parse(message.body));
+      if (event) {
+        this.handleMessage('profile', event);
+      }
+    });
+
+    // Subscribe to task statistics; each message replaces the previous counts
+    this.subscribe(`/user/${userId}/queue/statistics`, (message) => {
+      this.handleMessage('statistics', JSON.parse(message.body));
     });
 
     // Subscribe to user-specific notifications
@@ -110,23 +133,65 @@ class WebSocketService {
       this.handleMessage('notifications', JSON.parse(message.body));
     });
 
-    // Subscribe to user-specific general updates
-    this.subscribe(`/user/${userId}/queue/updates`, (message) => {
-      this.handleMessage('updates', JSON.parse(message.body));
-    });
-
     // Subscribe to system-wide notifications
     this.subscribe('/topic/notifications', (message) => {
       this.handleMessage('system-notifications', JSON.parse(message.body));
-    });    // Subscribe to general task updates (for dashboard)
-    this.subscribe('/topic/tasks', (message) => {
-      console.log('📨 Received message from /topic/tasks:', message.body);
-      const parsedMessage = JSON.parse(message.body);
-      console.log('🔍 Parsed message:', parsedMessage);
-      console.log('🔍 Message type from payload:', parsedMessage.type);
-      this.handleMessage('tasks', parsedMessage);
     });
+
+    // Only now that every queue is subscribed can the events missed while away be delivered
+    this.sendMessage('/app/events/replay', {});
+  }
+  // Stream ids look like "<ms>-<seq>"
+  compareEventIds(a, b) {
+    const [aMs, aSeq] = a.split('-').map(Number);
+    const [bMs, bSeq] = b.split('-').map(Number);
+    return aMs !== bMs ? aMs - bMs : aSeq - bSeq;
+  }
+
+  isNewEvent(event, watermark) {
+    return !event.eventId || !watermark || this.compareEventIds(event.eventId, watermark) > 0;
+  }
+
+  // Drops events already applied (replays can overlap live delivery) and advances lastEventId.
+  // Returns null when nothing in the frame is new.
+  trackEventIds(message) {
+    const watermark = this.lastEventId;
+    let newest = watermark;
+    const advance = (eventId) => {
+      if (eventId && (!newest || this.compareEventIds(eventId, newest) > 0)) {
+        newest = eventId;
+      }
+    };
+
+    let result = message;
+    if (message.type === 'TASK_BATCH') {
+      const events = message.events.filter(event => this.isNewEvent(event, watermark));
+      events.forEach(event => advance(event.eventId));
+      result = events.length > 0 ? { ...message, events } : null;
+    } else if (this.isNewEvent(message, watermark)) {
+      advance(message.eventId);
+    } else {
+      result = null;
+    }
+
+    if (newest !== watermark) {
+      this.lastEventId = newest;
+      this.scheduleAck();
+    }
+    return result;
+  }
+
+  // Acks are debounced; they only matter for resuming after a full page reload
+  scheduleAck() {
+    if (this.ackTimer) {
+      return;
+    }
+    this.ackTimer = setTimeout(() => {
+      this.ackTimer = null;
+      this.sendMessage('/app/events/ack', { clientId: this.clientId, lastEventId: this.lastEventId });
+    }, 2000);
   }
+
   subscribe(destination, callback) {
     if (!this.stompClient || !this.connected) {
       console.warn('Cannot subscribe: WebSocket not connected');
@@ -272,11 +272,18 @@ export const TasksScreen: React.FC = () => {
 
   const handleStatusChange = async (task: Task, newStatus: TaskStatus) => {
     try {
-      const updatedTask = await apiService.updateTask(task.id, { status: newStatus });
+      const updatedTask = await apiService.patchTask(task.id, { status: newStatus }, task.version ?? 0);
       setTasks(prev => prev.map(t => 
         t.id === task.id ? updatedTask : t
       ));
-    } catch (error) {
+    } catch (error: any) {
+      if (error?.statusCode === 409) {
+        // Changed elsewhere first: show the task as it is now
+        const current = await apiService.getTask(task.id);
+        setTasks(prev => prev.map(t => (t.id === task.id ? current : t)));
+        Alert.alert('Task changed', 'This task was changed on another device. Please review it and try again.');
+        return;
+      }
       console.error('Error updating task status:', error);
       Alert.alert('Error', 'Failed to update task status. Please try again.');
     }
@@ -9,6 +9,9 @@ import { API_BASE_URL, API_ENDPOINTS, STORAGE_KEYS } from '../utils/config';
 import {
   User,
   Task,
+  TaskChanges,
+  TaskMutation,
+  TaskMutationResult,
   CreateTaskRequest,
   UpdateTaskRequest,
   ChatResponse,
@@ -21,6 +24,8 @@ import {
 
 class ApiService {
   private readonly api: AxiosInstance;
+  // Last task list and its ETag; the server answers 304 while the list is unchanged
+  private taskListCache: { etag: string; tasks: Task[] } | null = null;
 
   constructor() {
     console.log('API: Initializing ApiService...');
@@ -76,6 +81,7 @@ class ApiService {
    * Handle unauthorized responses by clearing stored tokens
    */
   private async handleUnauthorized(): Promise<void> {
+    this.taskListCache = null;
     try {
       await AsyncStorage.multiRemove([
         STORAGE_KEYS.ACCESS_TOKEN,
@@ -309,6 +315,7 @@ class ApiService {
    * Logout user
    */
   async logout(): Promise<void> {
+    this.taskListCache = null;
     try {
       // Clear stored tokens
       await AsyncStorage.multiRemove([
@@ -328,7 +335,16 @@ class ApiService {
    */
   async getTasks(): Promise<Task[]> {
     try {
-      const response: AxiosResponse<Task[]> = await this.api.get(API_ENDPOINTS.TASKS);
+      const cached = this.taskListCache;
+      const response: AxiosResponse<Task[]> = await this.api.get(API_ENDPOINTS.TASKS, {
+        headers: cached ? { 'If-None-Match': cached.etag } : undefined,
+        validateStatus: (status) => (status >= 200 && status < 300) || status === 304,
+      });
+      if (response.status === 304 && cached) {
+        return cached.tasks;
+      }
+      const etag = response.headers.etag;
+      this.taskListCache = etag ? { etag, tasks: response.data } : null;
       return response.data;
     } catch (error) {
       console.error('API: Get tasks error:', error);
@@ -376,7 +392,8 @@ class ApiService {
   }
 
   /**
-   * Update an existing task
+   * Update an existing task as it is now. Fails with status 409 only if the task kept changing
+   * while the server retried the write.
    */
   async updateTask(id: string, taskData: UpdateTaskRequest): Promise<Task> {
     try {
@@ -388,6 +405,53 @@ class ApiService {
     }
   }
 
+  /**
+   * Change only the given fields of a task. `version` is the version the changes were made
+   * against; the request fails with status 409 if the task has changed since.
+   */
+  async patchTask(id: string, changes: UpdateTaskRequest, version: number): Promise<Task> {
+    try {
+      const response: AxiosResponse<Task> = await this.api.patch(API_ENDPOINTS.TASK_BY_ID(id), { ...changes, version });
+      return response.data;
+    } catch (error) {
+      console.error('API: Patch task error:', error);
+      throw error;
+    }
+  }
+
+  /**
+   * Tasks created, updated or deleted since `since`, the cursor of the previous sync; without one,
+   * the first page of a full sync
+   */
+  async getTaskChanges(since?: string): Promise<TaskChanges> {
+    try {
+      const response: AxiosResponse<TaskChanges> = await this.api.get(API_ENDPOINTS.TASK_CHANGES, {
+        params: since ? { since } : undefined,
+      });
+      return response.data;
+    } catch (error) {
+      console.error('API: Get task changes error:', error);
+      throw error;
+    }
+  }
+
+  /**
+   * Upload changes made offline in one request. Each gets its own result, in the same order; a
+   * CONFLICT comes with the server's copy of the task.
+   */
+  async syncTasks(mutations: TaskMutation[]): Promise<TaskMutationResult[]> {
+    try {
+      const response: AxiosResponse<{ results: TaskMutationResult[] }> = await this.api.post(
+        API_ENDPOINTS.TASK_SYNC,
+        { mutations },
+      );
+      return response.data.results;
+    } catch (error) {
+      console.error('API: Sync tasks error:', error);
+      throw error;
+    }
+  }
+
   /**
    * Delete a task
    */
@@ -24,10 +24,44 @@ export interface Task {
   dueDate?: string;
   createdAt: string;
   updatedAt: string;
+  // Bumped on every change; sent back with partial updates to detect concurrent edits
+  version?: number;
 }
 
 export type TaskStatus = 'TODO' | 'IN_PROGRESS' | 'DONE' | 'CANCELLED';
 
+// One page of GET /api/tasks/changes. `reset` starts a full sync: keep only the tasks it and the
+// following pages list. Keep `cursor` for the next sync, and ask again at once while `hasMore`.
+export interface TaskChanges {
+  changed: Task[];
+  deleted: { id: string; version: number; deleted: true }[];
+  cursor: string;
+  hasMore: boolean;
+  reset: boolean;
+}
+
+// An offline change for POST /api/tasks/sync. UPDATE and DELETE carry the version they were made
+// against; a later mutation may refer to a task created earlier in the batch by its clientId.
+export interface TaskMutation {
+  clientId: string;
+  op: 'CREATE' | 'UPDATE' | 'DELETE';
+  taskId?: string;
+  baseVersion?: number;
+  title?: string;
+  description?: string;
+  status?: TaskStatus;
+  priority?: string;
+  dueDate?: string;
+}
+
+export interface TaskMutationResult {
+  clientId: string;
+  status: 'APPLIED' | 'CONFLICT' | 'NOT_FOUND' | 'REJECTED';
+  // The task as the server has it now; absent once deleted
+  task?: Task;
+  message?: string;
+}
+
 export interface CreateTaskRequest {
   title: string;
   description?: string;
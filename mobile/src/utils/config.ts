@@ -63,6 +63,8 @@ export const API_ENDPOINTS = {
   TASKS: '/api/tasks',
   TASK_BY_ID: (id: string) => `/api/tasks/${id}`,
   TASK_BY_TICKET: (ticketNumber: number) => `/api/tasks/ticket/${ticketNumber}`,
+  TASK_CHANGES: '/api/tasks/changes',
+  TASK_SYNC: '/api/tasks/sync',
   
   // Chat - Backend uses /api/chat
   CHAT_MESSAGE: '/api/chat/message',